@@ -0,0 +1,45 @@
+package com.sonartrading.challenge;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the synthetic messages used by the benchmarks, one message per line,
+ * generated by {@link FixturesGenerator}.
+ */
+public class Fixtures {
+
+	public static final String DIFF_ORDERS_FRAMES = "/frames/diff-orders.txt";
+	public static final String TRADES_FRAMES = "/frames/trades.txt";
+
+	// REST order book with the sequence previous to the first diff-orders frame
+	public static final String ORDER_BOOK = "/rest/order-book.json";
+
+	private Fixtures() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	public static String load(String resource) {
+		return String.join("\n", loadLines(resource));
+	}
+
+	public static String[] loadLines(String resource) {
+
+		try (InputStream inputStream = Fixtures.class.getResourceAsStream(resource);
+				BufferedReader reader = new BufferedReader(
+						new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+
+			List<String> lines = reader.lines().filter(l -> !l.isEmpty()).collect(Collectors.toList());
+			return lines.toArray(new String[lines.size()]);
+
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,243 @@
+package com.sonartrading.challenge;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the synthetic messages of {@link Fixtures}, in the format of the
+ * exchange: the same seed always generates the same files.
+ * <p>
+ * They are not a recorded session: the diff-orders add orders close to the
+ * top of the book and cancel some of them, the trades follow a random walk
+ * of prices and the REST book has 250 orders by side, with the sequence
+ * previous to the first diff-orders frame. A real session can be recorded
+ * with the journal of the application, see the README.
+ * <p>
+ * Run with the resources directory of the benchmarks as argument:
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.sonartrading.challenge.FixturesGenerator benchmarks/src/main/resources
+ * </pre>
+ */
+public class FixturesGenerator {
+
+	public static final long SEED = 2018;
+
+	private static final String BOOK = "btc_mxn";
+	private static final String ID_CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+	private static final int FRAMES = 2000;
+	private static final int ORDERS_BY_SIDE = 250;
+
+	// the first diff-orders frame follows the REST book
+	private static final long BOOK_SEQUENCE = 27214;
+	private static final long FIRST_TRADES_SEQUENCE = 5001;
+	private static final long FIRST_TRADE_ID = 4170000;
+	private static final long START_MILLIS = 1526941800000l;
+
+	// prices in cents
+	private static final long BEST_ASK = 15124000;
+	private static final long BEST_BID = 15110000;
+	private static final long NEW_ASK = 15123456;
+	private static final long NEW_BID = 15110012;
+	private static final long FIRST_TRADE_PRICE = 15120000;
+
+	private FixturesGenerator() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	public static void main(String[] args) {
+
+		Path resources = Paths.get(args.length > 0 ? args[0] : "benchmarks/src/main/resources");
+		Random random = new Random(SEED);
+
+		write(resources.resolve(Fixtures.ORDER_BOOK.substring(1)), orderBook(random));
+		write(resources.resolve(Fixtures.DIFF_ORDERS_FRAMES.substring(1)), diffOrdersFrames(random));
+		write(resources.resolve(Fixtures.TRADES_FRAMES.substring(1)), tradesFrames(random));
+	}
+
+	// ****************************** REST BOOK ******************************
+
+	/**
+	 * The REST order book, every side sorted best first
+	 */
+	private static List<String> orderBook(Random random) {
+
+		long[] asks = new long[ORDERS_BY_SIDE];
+		long[] bids = new long[ORDERS_BY_SIDE];
+
+		for (int i = 0; i < ORDERS_BY_SIDE; i++) {
+			asks[i] = BEST_ASK + random.nextInt(40001);
+			bids[i] = BEST_BID - random.nextInt(40001);
+		}
+
+		Arrays.sort(asks);
+		Arrays.sort(bids);
+
+		List<String> lines = new ArrayList<>();
+		lines.add("{\"success\":true,\"payload\":{");
+
+		List<String> orders = new ArrayList<>();
+		for (long price : asks) {
+			orders.add(bookOrder(random, price));
+		}
+		lines.add("\"asks\":[");
+		lines.add(String.join(",\n", orders));
+		lines.add("],");
+
+		orders.clear();
+		for (int i = bids.length - 1; i >= 0; i--) {
+			orders.add(bookOrder(random, bids[i]));
+		}
+		lines.add("\"bids\":[");
+		lines.add(String.join(",\n", orders));
+		lines.add("],");
+
+		lines.add("\"updated_at\":\"2018-05-21T22:29:59+00:00\",\"sequence\":\"" + BOOK_SEQUENCE + "\"}}");
+
+		return lines;
+	}
+
+	private static String bookOrder(Random random, long price) {
+		return "{\"book\":\"" + BOOK + "\",\"price\":\"" + cents(price) + "\",\"amount\":\""
+				+ amount(random, 100_000, 200_000_000) + "\",\"oid\":\"" + id(random) + "\"}";
+	}
+
+	// ***************************** DIFF-ORDERS *****************************
+
+	/**
+	 * Consecutive diff-orders frames after the REST book, most of them with
+	 * one order: new orders close to the best prices, or the cancellation of
+	 * one of the orders added before.
+	 */
+	private static List<String> diffOrdersFrames(Random random) {
+
+		List<List<String[]>> live = Arrays.asList(new ArrayList<>(), new ArrayList<>());
+		List<String> lines = new ArrayList<>();
+		long timestamp = START_MILLIS;
+
+		for (int frame = 1; frame <= FRAMES; frame++) {
+
+			int numOfOrders = random.nextInt(10) > 0 ? 1 : 2 + random.nextInt(2);
+			List<String> payload = new ArrayList<>();
+
+			for (int i = 0; i < numOfOrders; i++) {
+
+				timestamp += 1 + random.nextInt(400);
+				int type = random.nextInt(2);
+				List<String[]> orders = live.get(type);
+
+				if (!orders.isEmpty() && random.nextInt(100) < 45) {
+					String[] order = orders.remove(random.nextInt(orders.size()));
+					payload.add("{\"o\":\"" + order[0] + "\",\"d\":" + timestamp + ",\"r\":\"" + order[1] + "\",\"t\":"
+							+ type + ",\"s\":\"cancelled\"}");
+					continue;
+				}
+
+				long offset = random.nextInt(301);
+				String rate = cents(type == 1 ? NEW_ASK + offset : NEW_BID - offset);
+				String amount = amount(random, 100_000, 200_000_000);
+				String[] order = { id(random), rate };
+				orders.add(order);
+
+				payload.add("{\"o\":\"" + order[0] + "\",\"d\":" + timestamp + ",\"r\":\"" + rate + "\",\"t\":" + type
+						+ ",\"a\":\"" + amount + "\",\"v\":\"" + value(amount, rate) + "\",\"s\":\"open\"}");
+			}
+
+			lines.add("{\"type\":\"diff-orders\",\"book\":\"" + BOOK + "\",\"sequence\":" + (BOOK_SEQUENCE + frame)
+					+ ",\"payload\":[" + String.join(",", payload) + "]}");
+		}
+
+		return lines;
+	}
+
+	// ******************************** TRADES *******************************
+
+	/**
+	 * Consecutive trades frames, most of them with one trade, with increasing
+	 * trade IDs and a random walk of prices
+	 */
+	private static List<String> tradesFrames(Random random) {
+
+		List<String> lines = new ArrayList<>();
+		long tradeID = FIRST_TRADE_ID;
+		long timestamp = START_MILLIS;
+		long price = FIRST_TRADE_PRICE;
+
+		for (int frame = 0; frame < FRAMES; frame++) {
+
+			int numOfTrades = random.nextInt(5) > 0 ? 1 : 2 + random.nextInt(3);
+			List<String> payload = new ArrayList<>();
+
+			for (int i = 0; i < numOfTrades; i++) {
+
+				tradeID += 1 + random.nextInt(3);
+				timestamp += 50 + random.nextInt(851);
+				price += (random.nextBoolean() ? 1 : -1) * random.nextInt(301);
+
+				String rate = cents(price);
+				String amount = amount(random, 10_000, 80_000_000);
+
+				payload.add("{\"i\":" + tradeID + ",\"a\":\"" + amount + "\",\"r\":\"" + rate + "\",\"v\":\""
+						+ value(amount, rate) + "\",\"mo\":\"" + id(random) + "\",\"to\":\"" + id(random) + "\",\"t\":"
+						+ random.nextInt(2) + ",\"x\":" + timestamp + "}");
+			}
+
+			lines.add("{\"type\":\"trades\",\"book\":\"" + BOOK + "\",\"sequence\":" + (FIRST_TRADES_SEQUENCE + frame)
+					+ ",\"payload\":[" + String.join(",", payload) + "]}");
+		}
+
+		return lines;
+	}
+
+	// ******************************** VALUES *******************************
+
+	/**
+	 * An order ID like the ones of the exchange, 16 characters
+	 */
+	private static String id(Random random) {
+
+		char[] id = new char[16];
+		for (int i = 0; i < id.length; i++) {
+			id[i] = ID_CHARS.charAt(random.nextInt(ID_CHARS.length()));
+		}
+
+		return new String(id);
+	}
+
+	/**
+	 * A random amount with 8 decimals, between the given amounts in satoshis
+	 */
+	private static String amount(Random random, int from, int to) {
+		return BigDecimal.valueOf(from + random.nextInt(to - from + 1), 8).toPlainString();
+	}
+
+	private static String cents(long price) {
+		return BigDecimal.valueOf(price, 2).toPlainString();
+	}
+
+	private static String value(String amount, String rate) {
+		return new BigDecimal(amount).multiply(new BigDecimal(rate)).setScale(8, RoundingMode.HALF_EVEN)
+				.toPlainString();
+	}
+
+	private static void write(Path file, List<String> lines) {
+
+		try {
+			Files.createDirectories(file.getParent());
+			Files.write(file, lines, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
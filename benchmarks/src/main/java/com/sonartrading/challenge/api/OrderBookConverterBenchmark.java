@@ -0,0 +1,74 @@
+package com.sonartrading.challenge.api;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.reflect.TypeToken;
+import com.sonartrading.challenge.Fixtures;
+import com.sonartrading.challenge.api.dto.BitsoResponse;
+import com.sonartrading.challenge.api.dto.OrderBook;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * Converts the synthetic REST order book from a response body, with
+ * {@link OrderBookConverterFactory} and with the Gson converter used before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBookConverterBenchmark {
+
+	private static final Type ORDER_BOOK_TYPE = new TypeToken<BitsoResponse<OrderBook>>() {
+	}.getType();
+	private static final MediaType JSON = MediaType.parse("application/json");
+
+	private byte[] orderBook;
+
+	private Converter<ResponseBody, ?> orderBookConverter;
+	private Converter<ResponseBody, ?> gsonConverter;
+
+	@Setup
+	public void setUp() {
+
+		orderBook = Fixtures.load(Fixtures.ORDER_BOOK).getBytes(StandardCharsets.UTF_8);
+
+		Retrofit retrofit = new Retrofit.Builder().baseUrl("http://localhost").build();
+		Annotation[] annotations = new Annotation[0];
+
+		orderBookConverter = new OrderBookConverterFactory().responseBodyConverter(ORDER_BOOK_TYPE, annotations,
+				retrofit);
+		gsonConverter = GsonConverterFactory.create().responseBodyConverter(ORDER_BOOK_TYPE, annotations, retrofit);
+	}
+
+	@Benchmark
+	public Object orderBookConverter() throws IOException {
+		return orderBookConverter.convert(ResponseBody.create(JSON, orderBook));
+	}
+
+	@Benchmark
+	public Object gson() throws IOException {
+		return gsonConverter.convert(ResponseBody.create(JSON, orderBook));
+	}
+}
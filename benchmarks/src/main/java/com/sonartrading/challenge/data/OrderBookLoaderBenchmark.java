@@ -0,0 +1,89 @@
+package com.sonartrading.challenge.data;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sonartrading.challenge.Fixtures;
+import com.sonartrading.challenge.api.dto.BitsoResponse;
+import com.sonartrading.challenge.api.dto.OrderBook;
+import com.sonartrading.challenge.api.dto.OrderBookItems;
+import com.sonartrading.challenge.data.book.OrderBookSide;
+import com.sonartrading.challenge.data.book.PriceLevelBookSide;
+import com.sonartrading.challenge.data.model.MakerSide;
+import com.sonartrading.challenge.data.model.Order;
+import com.sonartrading.challenge.parser.JsonScanner;
+import com.sonartrading.challenge.parser.OrderBookParser;
+
+/**
+ * Builds the ask side of the synthetic REST order book with
+ * {@link OrderBookLoader}, and adding its orders best first as they come, as
+ * it was done before. The side is repeated with worse prices to get deeper
+ * books.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBookLoaderBenchmark {
+
+	@Param({ "1", "10" })
+	private int copies;
+
+	private OrderBookItems asks;
+
+	@Setup
+	public void setUp() {
+
+		BitsoResponse<OrderBook> response = OrderBookParser
+				.readOrderBookResponse(new JsonScanner().reset(Fixtures.load(Fixtures.ORDER_BOOK)));
+		OrderBookItems fixture = (OrderBookItems) response.getPayload().getAsks();
+
+		long range = fixture.getPrice(fixture.size() - 1) - fixture.getPrice(0) + 1;
+
+		asks = new OrderBookItems(fixture.size() * copies);
+		for (int copy = 0; copy < copies; copy++) {
+			for (int i = 0; i < fixture.size(); i++) {
+				// the IDs keep the 16 characters of the exchange
+				String orderID = fixture.getOid(i).substring(0, 14) + String.format("%02d", copy);
+				asks.add(orderID, fixture.getPrice(i) + copy * range, fixture.getAmount(i));
+			}
+		}
+	}
+
+	@Benchmark
+	public OrderBookSide loadOrders() {
+		return OrderBookLoader.loadOrders(asks, MakerSide.SELL);
+	}
+
+	@Benchmark
+	public PriceLevelBookSide loadPriceLevels() {
+		return OrderBookLoader.loadPriceLevels(asks, MakerSide.SELL);
+	}
+
+	@Benchmark
+	public OrderBookSide addOrdersBestFirst() {
+
+		OrderBookSide orderBookSide = new OrderBookSide(MakerSide.SELL, OrderBookSide.DEFAULT_LEVELS,
+				Math.max(asks.size() << 1, OrderBookSide.DEFAULT_ORDERS));
+
+		for (int i = 0; i < asks.size(); i++) {
+			long price = asks.getPrice(i);
+			orderBookSide.add(new Order(asks.getOid(i), MakerSide.SELL, asks.getAmount(i), price), price);
+		}
+
+		return orderBookSide;
+	}
+}
@@ -0,0 +1,160 @@
+package com.sonartrading.challenge.data;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.sonartrading.challenge.Fixtures;
+import com.sonartrading.challenge.api.RestAPI;
+import com.sonartrading.challenge.api.dto.BitsoResponse;
+import com.sonartrading.challenge.api.dto.OrderBook;
+import com.sonartrading.challenge.api.dto.TradeBook;
+import com.sonartrading.challenge.data.book.BookSnapshot;
+import com.sonartrading.challenge.parser.DiffOrdersParser;
+import com.sonartrading.challenge.parser.JsonScanner;
+import com.sonartrading.challenge.ws.WebsocketClient;
+import com.sonartrading.challenge.ws.WebsocketDispatcher;
+import com.sonartrading.challenge.ws.dto.DiffOrder;
+import com.sonartrading.challenge.ws.dto.WebsocketMessage;
+import com.sonartrading.challenge.ws.handler.WebsocketHandler;
+
+import retrofit2.Call;
+import retrofit2.mock.Calls;
+
+/**
+ * Applies the synthetic diff-orders to the book of an {@link OrdersManager}
+ * initialized with the synthetic REST order book: the work done by its event
+ * loop for every message, including the top of the book snapshot published at
+ * the end of every batch.
+ * <p>
+ * The frames are parsed once and replayed in a loop with increasing
+ * sequences, calling the manager from the benchmark thread as if it was its
+ * event loop. No observers are added, so nothing is sent to the UI.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrdersManagerBenchmark {
+
+	private static final String BOOK = "btc_mxn";
+	private static final Type ORDER_BOOK_TYPE = new TypeToken<BitsoResponse<OrderBook>>() {
+	}.getType();
+
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+	private OrdersManager ordersManager;
+
+	private DiffOrder[][] messages;
+	private int position;
+	private long sequence;
+
+	@Setup(Level.Trial)
+	public void setUp() throws InterruptedException {
+
+		BitsoResponse<OrderBook> orderBook = new Gson().fromJson(Fixtures.load(Fixtures.ORDER_BOOK),
+				ORDER_BOOK_TYPE);
+
+		ordersManager = new OrdersManager(BOOK, new FixtureRestAPI(orderBook), new WebsocketClient(),
+				executorService);
+
+		// wait until the event loop has installed the REST order book
+		while (ordersManager.getBookSnapshot() == BookSnapshot.EMPTY) {
+			TimeUnit.MILLISECONDS.sleep(10);
+		}
+
+		messages = readMessages(Fixtures.loadLines(Fixtures.DIFF_ORDERS_FRAMES));
+		sequence = orderBook.getPayload().getSequence();
+		position = 0;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		executorService.shutdownNow();
+	}
+
+	@Benchmark
+	public BookSnapshot applyDiffOrders() {
+
+		DiffOrder[] message = messages[position];
+		position = position + 1 == messages.length ? 0 : position + 1;
+
+		ordersManager.onEvent(message, ++sequence);
+		ordersManager.onEndOfBatch();
+
+		return ordersManager.getBookSnapshot();
+	}
+
+	private static DiffOrder[][] readMessages(String[] frames) {
+
+		DiffOrder[][] messages = new DiffOrder[frames.length][];
+		int[] count = { 0 };
+
+		WebsocketDispatcher dispatcher = new WebsocketDispatcher();
+		dispatcher.addHandler(BOOK, "diff-orders", new WebsocketHandler<DiffOrder[]>() {
+
+			@Override
+			public DiffOrder[] readPayload(JsonScanner scanner) {
+				return DiffOrdersParser.readDiffOrders(scanner);
+			}
+
+			@Override
+			public void handleMessage(WebsocketMessage<DiffOrder[]> response) {
+				messages[count[0]++] = response.getPayload();
+			}
+		});
+
+		for (String frame : frames) {
+			dispatcher.dispatch(frame);
+		}
+
+		return messages;
+	}
+
+	/**
+	 * Answers the REST calls with the responses of the fixtures, without network
+	 */
+	private static class FixtureRestAPI implements RestAPI {
+
+		private final BitsoResponse<OrderBook> orderBook;
+
+		private FixtureRestAPI(BitsoResponse<OrderBook> orderBook) {
+			this.orderBook = orderBook;
+		}
+
+		@Override
+		public Call<BitsoResponse<OrderBook>> getOpenOrders(String book, Boolean aggregate) {
+			return Calls.response(orderBook);
+		}
+
+		@Override
+		public Call<BitsoResponse<List<TradeBook>>> getRecentTrades(String book, String order, Integer limit) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Call<BitsoResponse<List<TradeBook>>> getTrades(String book, Long marker, String order,
+				Integer limit) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
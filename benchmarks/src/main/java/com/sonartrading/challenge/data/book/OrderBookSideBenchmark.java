@@ -0,0 +1,204 @@
+package com.sonartrading.challenge.data.book;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sonartrading.challenge.data.model.FixedPoint;
+import com.sonartrading.challenge.data.model.MakerSide;
+import com.sonartrading.challenge.data.model.Order;
+
+/**
+ * Applies the same stream of new, updated and cancelled orders to the
+ * {@link OrderBookSide} and to the previous implementation of the book (a
+ * {@code HashMap} by ID plus a {@code TreeMap} of lists by price), computing
+ * the index of every changed order like {@code OrdersManager} does.
+ * <p>
+ * Every new order of the stream is cancelled {@code window} operations later
+ * and the stream is replayed in a loop, so the book stays at a steady size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBookSideBenchmark {
+
+	private static final int STREAM_LENGTH = 1 << 16;
+	private static final double MID_PRICE = 150_000;
+	private static final double TICK = 0.01;
+
+	@Param({ "1000", "10000", "100000" })
+	private int bookSize;
+
+	@Param({ "500" })
+	private int window;
+
+	private Order[] restingOrders;
+	private Order[] newOrders;
+	private boolean[] isUpdate;
+	private int[] updatedOrder;
+
+	private OrderBookSide orderBookSide;
+	private LegacyOrderBookSide legacyOrderBookSide;
+
+	private int position;
+
+	@Setup
+	public void setUp() {
+
+		Random random = new Random(42);
+
+		restingOrders = new Order[bookSize];
+		for (int i = 0; i < bookSize; i++) {
+			restingOrders[i] = new Order("r" + i, MakerSide.SELL, 1, randomPrice(random, bookSize / 4));
+		}
+
+		newOrders = new Order[STREAM_LENGTH];
+		isUpdate = new boolean[STREAM_LENGTH];
+		updatedOrder = new int[STREAM_LENGTH];
+
+		for (int i = 0; i < STREAM_LENGTH; i++) {
+			// most of the activity happens close to the top of the book
+			newOrders[i] = new Order("n" + i, MakerSide.SELL, 1, randomPrice(random, 50));
+			isUpdate[i] = random.nextInt(4) == 0;
+			updatedOrder[i] = random.nextInt(bookSize);
+		}
+
+		orderBookSide = new OrderBookSide(MakerSide.SELL);
+		legacyOrderBookSide = new LegacyOrderBookSide();
+
+		for (Order order : restingOrders) {
+			orderBookSide.add(order, order.getPrice());
+			legacyOrderBookSide.add(order);
+		}
+
+		position = 0;
+	}
+
+	@Benchmark
+	public int orderBookSide() {
+
+		int index = next();
+
+		if (isUpdate[index]) {
+			return orderBookSide.indexOf(restingOrders[updatedOrder[index]].getOrderID());
+		}
+
+		Order order = newOrders[index];
+		orderBookSide.add(order, order.getPrice());
+		int orderIndex = orderBookSide.indexOf(order.getOrderID());
+
+		Order cancelled = newOrders[(index - window) & (STREAM_LENGTH - 1)];
+		orderIndex += orderBookSide.indexOf(cancelled.getOrderID());
+		orderBookSide.remove(cancelled.getOrderID());
+
+		return orderIndex;
+	}
+
+	@Benchmark
+	public int legacyOrderBookSide() {
+
+		int index = next();
+
+		if (isUpdate[index]) {
+			return legacyOrderBookSide.indexOf(restingOrders[updatedOrder[index]]);
+		}
+
+		Order order = newOrders[index];
+		legacyOrderBookSide.add(order);
+		int orderIndex = legacyOrderBookSide.indexOf(order);
+
+		Order cancelled = legacyOrderBookSide.get(newOrders[(index - window) & (STREAM_LENGTH - 1)].getOrderID());
+		if (cancelled != null) {
+			orderIndex += legacyOrderBookSide.indexOf(cancelled);
+			legacyOrderBookSide.remove(cancelled);
+		}
+
+		return orderIndex;
+	}
+
+	private int next() {
+		int index = position;
+		position = (position + 1) & (STREAM_LENGTH - 1);
+		return index;
+	}
+
+	private static long randomPrice(Random random, int levels) {
+		return FixedPoint.of(Math.round((MID_PRICE + random.nextInt(Math.max(levels, 1)) * TICK) * 100) / 100d);
+	}
+
+	/**
+	 * Copy of the order book side used by {@code OrdersManager} before
+	 * {@link OrderBookSide}
+	 */
+	static class LegacyOrderBookSide {
+
+		private final Map<String, Order> orders = new HashMap<>();
+		private final TreeMap<Double, List<Order>> ordersByPrice = new TreeMap<>();
+
+		Order get(String orderID) {
+			return orders.get(orderID);
+		}
+
+		void add(Order order) {
+
+			orders.put(order.getOrderID(), order);
+			List<Order> samePriceOrders = ordersByPrice.get(FixedPoint.toDouble(order.getPrice()));
+
+			if (samePriceOrders == null) {
+				samePriceOrders = new ArrayList<>();
+				ordersByPrice.put(FixedPoint.toDouble(order.getPrice()), samePriceOrders);
+			}
+
+			samePriceOrders.add(order);
+		}
+
+		void remove(Order order) {
+
+			orders.remove(order.getOrderID());
+			List<Order> samePriceOrders = ordersByPrice.remove(FixedPoint.toDouble(order.getPrice()));
+
+			if (samePriceOrders == null) {
+				return;
+			}
+
+			samePriceOrders.remove(order);
+
+			if (!samePriceOrders.isEmpty()) {
+				ordersByPrice.put(FixedPoint.toDouble(order.getPrice()), samePriceOrders);
+			}
+		}
+
+		int indexOf(Order order) {
+
+			NavigableMap<Double, List<Order>> subMap = ordersByPrice.headMap(FixedPoint.toDouble(order.getPrice()),
+					true);
+			List<Order> ordersSamePrice = subMap.isEmpty() ? Collections.emptyList() : subMap.lastEntry().getValue();
+
+			int indexOrdersSamePrice = ordersSamePrice.indexOf(order);
+			int indexMap = (int) subMap.values().stream().flatMap(List::stream).count() - ordersSamePrice.size();
+
+			return indexMap + indexOrdersSamePrice;
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.sonartrading.challenge.strategy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sonartrading.challenge.Fixtures;
+import com.sonartrading.challenge.data.model.Trade;
+import com.sonartrading.challenge.parser.JsonScanner;
+import com.sonartrading.challenge.parser.TradesParser;
+import com.sonartrading.challenge.ws.WebsocketDispatcher;
+import com.sonartrading.challenge.ws.dto.WebsocketMessage;
+import com.sonartrading.challenge.ws.handler.WebsocketHandler;
+
+/**
+ * Notifies the {@link ContrarianStrategy} of the recent trades the way the
+ * trades manager does: a new list sorted by date in desc order with the
+ * observed trades, one new trade each time.
+ * <p>
+ * The prices are the ones of the fixtures, the trade IDs keep increasing when
+ * the trades are replayed again. No imaginary trades observers are added, so
+ * nothing is sent to the UI.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContrarianStrategyBenchmark {
+
+	@Param({ "10", "50" })
+	private int numOfTradesToObserve;
+
+	private Trade[] trades;
+	private int position;
+	private long tradeID;
+
+	private final Deque<Trade> recentTrades = new ArrayDeque<>();
+	private ContrarianStrategy contrarianStrategy;
+
+	@Setup
+	public void setUp() {
+
+		List<Trade> fixture = new ArrayList<>();
+
+		WebsocketDispatcher dispatcher = new WebsocketDispatcher();
+		dispatcher.addHandler("btc_mxn", "trades", new WebsocketHandler<Trade[]>() {
+
+			@Override
+			public Trade[] readPayload(JsonScanner scanner) {
+				return TradesParser.readTrades(scanner);
+			}
+
+			@Override
+			public void handleMessage(WebsocketMessage<Trade[]> response) {
+				for (Trade trade : response.getPayload()) {
+					fixture.add(trade);
+				}
+			}
+		});
+
+		for (String frame : Fixtures.loadLines(Fixtures.TRADES_FRAMES)) {
+			dispatcher.dispatch(frame);
+		}
+
+		trades = fixture.toArray(new Trade[fixture.size()]);
+		contrarianStrategy = new ContrarianStrategy();
+	}
+
+	@Benchmark
+	public ContrarianStrategy tradesUpdated() {
+
+		Trade trade = trades[position];
+		position = position + 1 == trades.length ? 0 : position + 1;
+
+		recentTrades.addFirst(new Trade(++tradeID, trade.getMakerSide(), trade.getDate(), trade.getAmount(),
+				trade.getPrice()));
+		if (recentTrades.size() > numOfTradesToObserve) {
+			recentTrades.removeLast();
+		}
+
+		contrarianStrategy.tradesUpdated(new ArrayList<>(recentTrades));
+		return contrarianStrategy;
+	}
+}
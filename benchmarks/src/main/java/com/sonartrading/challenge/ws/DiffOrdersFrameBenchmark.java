@@ -0,0 +1,89 @@
+package com.sonartrading.challenge.ws;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.sonartrading.challenge.Fixtures;
+import com.sonartrading.challenge.parser.DiffOrdersParser;
+import com.sonartrading.challenge.parser.JsonScanner;
+import com.sonartrading.challenge.ws.dto.DiffOrder;
+import com.sonartrading.challenge.ws.dto.WebsocketMessage;
+import com.sonartrading.challenge.ws.handler.WebsocketHandler;
+
+/**
+ * Converts synthetic diff-orders frames to {@code DiffOrder} objects, with the
+ * {@link WebsocketDispatcher} and with the previous conversion: Gson tree of
+ * the whole message, then {@code toJson}/{@code fromJson} of the payload.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiffOrdersFrameBenchmark {
+
+	private static final String BOOK = "btc_mxn";
+	private static final String DIFF_ORDERS = "diff-orders";
+
+	private final Gson gson = new Gson();
+	private final Type messageType = new TypeToken<WebsocketMessage<?>>() {
+	}.getType();
+
+	private String[] frames;
+	private int position;
+
+	private WebsocketDispatcher dispatcher;
+	private DiffOrder[] lastDiffOrders;
+
+	@Setup
+	public void setUp() {
+
+		frames = Fixtures.loadLines(Fixtures.DIFF_ORDERS_FRAMES);
+
+		dispatcher = new WebsocketDispatcher();
+		dispatcher.addHandler(BOOK, DIFF_ORDERS, new WebsocketHandler<DiffOrder[]>() {
+
+			@Override
+			public DiffOrder[] readPayload(JsonScanner scanner) {
+				return DiffOrdersParser.readDiffOrders(scanner);
+			}
+
+			@Override
+			public void handleMessage(WebsocketMessage<DiffOrder[]> response) {
+				lastDiffOrders = response.getPayload();
+			}
+		});
+	}
+
+	@Benchmark
+	public DiffOrder[] websocketDispatcher() {
+		dispatcher.dispatch(nextFrame());
+		return lastDiffOrders;
+	}
+
+	@Benchmark
+	public DiffOrder[] gsonRoundTrip() {
+		WebsocketMessage<?> message = gson.fromJson(nextFrame(), messageType);
+		return gson.fromJson(gson.toJson(message.getPayload()), DiffOrder[].class);
+	}
+
+	private String nextFrame() {
+		String frame = frames[position];
+		position = position + 1 == frames.length ? 0 : position + 1;
+		return frame;
+	}
+}
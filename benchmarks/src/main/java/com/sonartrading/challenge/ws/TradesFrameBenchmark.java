@@ -0,0 +1,76 @@
+package com.sonartrading.challenge.ws;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sonartrading.challenge.Fixtures;
+import com.sonartrading.challenge.data.model.Trade;
+import com.sonartrading.challenge.parser.JsonScanner;
+import com.sonartrading.challenge.parser.TradesParser;
+import com.sonartrading.challenge.ws.dto.WebsocketMessage;
+import com.sonartrading.challenge.ws.handler.WebsocketHandler;
+
+/**
+ * Converts synthetic trades frames to {@code Trade} objects with the
+ * {@link WebsocketDispatcher}, the path of every trade before it reaches the
+ * trades manager.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TradesFrameBenchmark {
+
+	private static final String BOOK = "btc_mxn";
+	private static final String TRADES = "trades";
+
+	private String[] frames;
+	private int position;
+
+	private WebsocketDispatcher dispatcher;
+	private Trade[] lastTrades;
+
+	@Setup
+	public void setUp() {
+
+		frames = Fixtures.loadLines(Fixtures.TRADES_FRAMES);
+
+		dispatcher = new WebsocketDispatcher();
+		dispatcher.addHandler(BOOK, TRADES, new WebsocketHandler<Trade[]>() {
+
+			@Override
+			public Trade[] readPayload(JsonScanner scanner) {
+				return TradesParser.readTrades(scanner);
+			}
+
+			@Override
+			public void handleMessage(WebsocketMessage<Trade[]> response) {
+				lastTrades = response.getPayload();
+			}
+		});
+	}
+
+	@Benchmark
+	public Trade[] websocketDispatcher() {
+		dispatcher.dispatch(nextFrame());
+		return lastTrades;
+	}
+
+	private String nextFrame() {
+		String frame = frames[position];
+		position = position + 1 == frames.length ? 0 : position + 1;
+		return frame;
+	}
+}
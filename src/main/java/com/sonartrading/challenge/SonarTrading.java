@@ -1,14 +1,10 @@
 package com.sonartrading.challenge;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
-import com.sonartrading.challenge.api.RestClient;
+import com.sonartrading.challenge.data.BookRegistry;
 import com.sonartrading.challenge.data.OrdersManager;
 import com.sonartrading.challenge.data.TradesManager;
-import com.sonartrading.challenge.strategy.ContrarianStrategy;
+import com.sonartrading.challenge.data.observer.Dispatchers;
 import com.sonartrading.challenge.view.MainController;
-import com.sonartrading.challenge.ws.WebsocketClient;
 
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -19,23 +15,21 @@ import javafx.stage.Stage;
 
 public class SonarTrading extends Application {
 
-	private static final String WEBSOCKET_ENDPOINT = "wss://ws.bitso.com";
-	private static final String HTTP_ENDPOINT = "https://api.bitso.com/v3/";
-
-	private static final String BOOK = "btc_mxn";
 	private static final String MAIN_SCENE_FXML = "MainScene.fxml";
 	private static final String APP_TITTLE = "Bitso Client";
 
-	private final ExecutorService executorService = Executors.newCachedThreadPool();
-
 	@Override
 	public void start(Stage primaryStage) throws Exception {
 
-		RestClient restClient = new RestClient(HTTP_ENDPOINT);
-		WebsocketClient websocketClient = new WebsocketClient(WEBSOCKET_ENDPOINT);
+		// the controller conflates the notifications of the managers and
+		// strategies and applies them once per frame in the JavaFX thread, so
+		// they are not queued to the JavaFX thread one by one
+		TradingContext context = new TradingContext(Dispatchers.INLINE);
+		BookRegistry bookRegistry = context.getBookRegistry();
 
-		TradesManager tradesManager = new TradesManager(BOOK, restClient.getAPI(), executorService);
-		OrdersManager ordersManager = new OrdersManager(BOOK, restClient.getAPI(), websocketClient, executorService);
+		String book = context.getBooks().get(0);
+		TradesManager tradesManager = bookRegistry.getTradesManager(book);
+		OrdersManager ordersManager = bookRegistry.getOrdersManager(book);
 
 		FXMLLoader loader = new FXMLLoader(getClass().getClassLoader().getResource(MAIN_SCENE_FXML));
 
@@ -45,15 +39,15 @@ public class SonarTrading extends Application {
 		controller.setOrdersManager(ordersManager);
 		controller.setTradesManager(tradesManager);
 
-		ContrarianStrategy contrarianStrategy = new ContrarianStrategy();
-		tradesManager.addTradesObserver(contrarianStrategy);
-		contrarianStrategy.addImaginaryTradesObserver(controller);
+		// the imaginary trades of the displayed book
+		context.getContrarianStrategy(book).addImaginaryTradesObserver(controller);
 
 		Scene scene = new Scene(root);
 		primaryStage.setTitle(APP_TITTLE);
 		primaryStage.setScene(scene);
 
 		primaryStage.setOnCloseRequest(e -> {
+			context.close();
 			Platform.exit();
 			System.exit(0);
 		});
@@ -0,0 +1,87 @@
+package com.sonartrading.challenge;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.sonartrading.challenge.data.OrdersManager;
+import com.sonartrading.challenge.data.book.BookMode;
+import com.sonartrading.challenge.data.book.BookSnapshot;
+import com.sonartrading.challenge.data.observer.Dispatchers;
+import com.sonartrading.challenge.strategy.StrategyEngine;
+import com.sonartrading.challenge.ws.WebsocketClient;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the managers of the books and the strategies without JavaFX, e.g. in a
+ * server without display. Configured by the same system properties as the
+ * application (see {@link TradingContext}), plus <b>status</b>: seconds
+ * between the logs of the status of the books and strategies (60 by default,
+ * 0 to disable).
+ * <p>
+ * The books only keep their price levels (see {@link BookMode}). The imaginary
+ * trades and the status are logged, everything is closed by a shutdown hook.
+ *
+ * <pre>
+ * java -Dbooks=btc_mxn,eth_mxn -cp sonar-trading.jar com.sonartrading.challenge.SonarTradingServer
+ * </pre>
+ */
+@Slf4j
+public class SonarTradingServer {
+
+	private static final String STATUS_PROPERTY = "status";
+	private static final int DEFAULT_STATUS_SECONDS = 60;
+
+	private SonarTradingServer() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		// there is no UI thread, the observers are notified by the managers, and
+		// there are no tables of orders, the strategies only need the levels
+		TradingContext context = new TradingContext(Dispatchers.INLINE, BookMode.LEVELS);
+
+		for (String book : context.getBooks()) {
+			context.getContrarianStrategy(book)
+					.addImaginaryTradesObserver(t -> log.info("Imaginary trade in {}: {}", book, t));
+		}
+
+		ScheduledExecutorService statusExecutor = Executors.newSingleThreadScheduledExecutor();
+		int statusSeconds = Integer.getInteger(STATUS_PROPERTY, DEFAULT_STATUS_SECONDS);
+		if (statusSeconds > 0) {
+			statusExecutor.scheduleAtFixedRate(() -> logStatus(context), statusSeconds, statusSeconds,
+					TimeUnit.SECONDS);
+		}
+
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			log.info("Shutting down");
+			statusExecutor.shutdownNow();
+			context.close();
+		}, "shutdown"));
+
+		log.info("Tracking {}", context.getBooks());
+	}
+
+	private static void logStatus(TradingContext context) {
+
+		WebsocketClient websocketClient = context.getWebsocketClient();
+		log.info("Websocket: connected {}, reconnects {}, last reconnect {} ms", websocketClient.isConnected(),
+				websocketClient.getReconnects(), websocketClient.getLastReconnectMillis());
+
+		for (String book : context.getBooks()) {
+
+			OrdersManager ordersManager = context.getBookRegistry().getOrdersManager(book);
+			BookSnapshot snapshot = ordersManager.getBookSnapshot();
+
+			log.info("{}: sequence {}, bid {}, ask {}, resyncs {}, buffered {}", book, snapshot.getSequence(),
+					snapshot.getBestBid(), snapshot.getBestAsk(), ordersManager.getResyncs(),
+					ordersManager.getBufferedMessages());
+
+			StrategyEngine strategyEngine = context.getStrategyEngine(book);
+			strategyEngine.getStats().forEach(s -> log.info("{}: {}", book, s));
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package com.sonartrading.challenge;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sonartrading.challenge.api.RestClient;
+import com.sonartrading.challenge.data.BookRegistry;
+import com.sonartrading.challenge.data.book.BookMode;
+import com.sonartrading.challenge.journal.JournalWriter;
+import com.sonartrading.challenge.journal.RecordingInterceptor;
+import com.sonartrading.challenge.latency.LatencyMonitor;
+import com.sonartrading.challenge.metrics.MetricsRegistry;
+import com.sonartrading.challenge.strategy.ContrarianStrategy;
+import com.sonartrading.challenge.strategy.StrategyEngine;
+import com.sonartrading.challenge.strategy.StrategyEventLoops;
+import com.sonartrading.challenge.ws.WebsocketClient;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+
+/**
+ * Creates and wires the network clients, the managers of the books and the
+ * strategies, without any UI. Used by the JavaFX application and by the
+ * headless server, only the executor of the UI notifications differs.
+ * <p>
+ * Configured by system properties:
+ * <ul>
+ * <li><b>books</b>: comma separated list of books to track, btc_mxn by
+ * default</li>
+ * <li><b>ticks</b>: directory to store the trades and diff-orders, see
+ * TickStore</li>
+ * <li><b>strategies</b>: comma separated list of classes of other strategies
+ * to run, see Strategy</li>
+ * <li><b>journal</b>: file to record the frames and REST responses, to be
+ * replayed by ReplayDriver</li>
+ * <li><b>latency</b>: seconds between the logs of the latencies, see
+ * LatencyMonitor, 60 by default, 0 to not measure them</li>
+ * <li><b>metrics</b>: seconds between the logs of the rates and gauges of the
+ * books, see MetricsRegistry, 60 by default, 0 to not publish them</li>
+ * </ul>
+ */
+@Slf4j
+public class TradingContext implements AutoCloseable {
+
+	private static final String WEBSOCKET_ENDPOINT = "wss://ws.bitso.com";
+	private static final String HTTP_ENDPOINT = "https://api.bitso.com/v3/";
+
+	private static final String BOOKS_PROPERTY = "books";
+	private static final String BOOK = "btc_mxn";
+	private static final String TICKS_PROPERTY = "ticks";
+	private static final String STRATEGIES_PROPERTY = "strategies";
+	private static final String JOURNAL_PROPERTY = "journal";
+	private static final String LATENCY_PROPERTY = "latency";
+	private static final long LATENCY_PERIOD = 60;
+	private static final String METRICS_PROPERTY = "metrics";
+	private static final long METRICS_PERIOD = 60;
+	private static final int WORKER_THREADS = 4;
+
+	private final ExecutorService executorService = Executors.newFixedThreadPool(WORKER_THREADS);
+	private final JournalWriter journal;
+	private final WebsocketClient websocketClient;
+	private final BookRegistry bookRegistry;
+	private final LatencyMonitor latencyMonitor;
+	private final MetricsRegistry metricsRegistry;
+
+	// one engine by book, the strategies do not filter the events by book,
+	// but every strategy is run by one thread for all the books
+	private final StrategyEventLoops strategyEventLoops = new StrategyEventLoops();
+	private final Map<String, StrategyEngine> strategyEngines = new LinkedHashMap<>();
+	private final Map<String, ContrarianStrategy> contrarianStrategies = new LinkedHashMap<>();
+
+	/**
+	 * @param uiExecutor
+	 *            runs the notifications to the UI observers, e.g.
+	 *            {@code Platform::runLater}, or {@code Dispatchers.INLINE}
+	 *            when there is no UI
+	 */
+	public TradingContext(Executor uiExecutor) throws IOException {
+		this(uiExecutor, BookMode.ORDERS);
+	}
+
+	/**
+	 * @param uiExecutor
+	 *            runs the notifications to the UI observers
+	 * @param bookMode
+	 *            keeps every order of the books, or only their price levels
+	 *            when no observer needs the orders
+	 */
+	public TradingContext(Executor uiExecutor, BookMode bookMode) throws IOException {
+
+		String journalPath = System.getProperty(JOURNAL_PROPERTY);
+		journal = journalPath != null ? new JournalWriter(Paths.get(journalPath)) : null;
+
+		OkHttpClient.Builder httpClient = RestClient.newHttpClientBuilder();
+		if (journal != null) {
+			httpClient.addInterceptor(new RecordingInterceptor(journal));
+		}
+
+		RestClient restClient = new RestClient(HTTP_ENDPOINT, httpClient.build());
+		websocketClient = new WebsocketClient(WEBSOCKET_ENDPOINT);
+		websocketClient.setJournal(journal);
+
+		bookRegistry = new BookRegistry(restClient.getAPI(), websocketClient, executorService);
+		bookRegistry.setUiExecutor(uiExecutor);
+		bookRegistry.setBookMode(bookMode);
+
+		long latencyPeriod = Long.getLong(LATENCY_PROPERTY, LATENCY_PERIOD);
+		if (latencyPeriod > 0) {
+			latencyMonitor = new LatencyMonitor();
+			websocketClient.setLatencyMonitor(latencyMonitor);
+			bookRegistry.setLatencyMonitor(latencyMonitor);
+			latencyMonitor.registerMBeans();
+			latencyMonitor.start(latencyPeriod, TimeUnit.SECONDS);
+		} else {
+			latencyMonitor = null;
+		}
+
+		long metricsPeriod = Long.getLong(METRICS_PROPERTY, METRICS_PERIOD);
+		if (metricsPeriod > 0) {
+			metricsRegistry = new MetricsRegistry();
+			metricsRegistry.addCounter("websocket.frames", websocketClient::getFramesReceived);
+			metricsRegistry.addCounter("websocket.bytes", websocketClient::getBytesReceived);
+			metricsRegistry.addCounter("websocket.reconnects", websocketClient::getReconnects);
+			bookRegistry.setMetricsRegistry(metricsRegistry);
+			metricsRegistry.registerMBean();
+			metricsRegistry.start(metricsPeriod, TimeUnit.SECONDS);
+		} else {
+			metricsRegistry = null;
+		}
+
+		String ticks = System.getProperty(TICKS_PROPERTY);
+		if (ticks != null) {
+			bookRegistry.setTickStoreDirectory(Paths.get(ticks));
+		}
+
+		for (String book : System.getProperty(BOOKS_PROPERTY, BOOK).split(",")) {
+			bookRegistry.addBook(book.trim());
+		}
+
+		for (String book : bookRegistry.getBooks()) {
+
+			StrategyEngine strategyEngine = new StrategyEngine(strategyEventLoops);
+			bookRegistry.getOrdersManager(book).addMarketObserver(strategyEngine);
+			bookRegistry.getTradesManager(book).addMarketObserver(strategyEngine);
+
+			ContrarianStrategy contrarianStrategy = new ContrarianStrategy();
+			contrarianStrategy.setImaginaryTradesExecutor(uiExecutor);
+			strategyEngine.addStrategy(contrarianStrategy);
+			strategyEngine.addStrategies(System.getProperty(STRATEGIES_PROPERTY, ""));
+
+			strategyEngines.put(book, strategyEngine);
+			contrarianStrategies.put(book, contrarianStrategy);
+		}
+	}
+
+	public BookRegistry getBookRegistry() {
+		return bookRegistry;
+	}
+
+	public List<String> getBooks() {
+		return bookRegistry.getBooks();
+	}
+
+	public StrategyEngine getStrategyEngine(String book) {
+		return strategyEngines.get(book);
+	}
+
+	public ContrarianStrategy getContrarianStrategy(String book) {
+		return contrarianStrategies.get(book);
+	}
+
+	public WebsocketClient getWebsocketClient() {
+		return websocketClient;
+	}
+
+	/**
+	 * Returns the monitor of the latencies, or {@code null} if they are not
+	 * measured.
+	 */
+	public LatencyMonitor getLatencyMonitor() {
+		return latencyMonitor;
+	}
+
+	/**
+	 * Returns the registry of the metrics, or {@code null} if they are not
+	 * published.
+	 */
+	public MetricsRegistry getMetricsRegistry() {
+		return metricsRegistry;
+	}
+
+	public List<StrategyEngine> getStrategyEngines() {
+		return Collections.unmodifiableList(new ArrayList<>(strategyEngines.values()));
+	}
+
+	@Override
+	public void close() {
+
+		websocketClient.close();
+
+		if (latencyMonitor != null) {
+			latencyMonitor.close();
+		}
+
+		if (metricsRegistry != null) {
+			metricsRegistry.close();
+		}
+
+		strategyEngines.values().forEach(StrategyEngine::close);
+		strategyEventLoops.close();
+		bookRegistry.close();
+		executorService.shutdownNow();
+
+		if (journal == null) {
+			return;
+		}
+
+		try {
+			journal.close();
+		} catch (IOException e) {
+			log.error("Error closing the journal", e);
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.sonartrading.challenge.api;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+import com.sonartrading.challenge.api.dto.BitsoResponse;
+import com.sonartrading.challenge.api.dto.OrderBook;
+import com.sonartrading.challenge.parser.JsonScanner;
+import com.sonartrading.challenge.parser.OrderBookParser;
+
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Converts the responses of the order book endpoint with
+ * {@link OrderBookParser}, straight from the characters of the body to the
+ * orders by columns, instead of the Gson converter, which builds an object by
+ * order by reflection. It must be added before the Gson converter, which
+ * converts the other responses.
+ */
+public class OrderBookConverterFactory extends Converter.Factory {
+
+	@Override
+	public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+			Retrofit retrofit) {
+
+		if (!isOrderBookResponse(type)) {
+			return null;
+		}
+
+		// the body is decoded at once (the charset is the one of the response)
+		// and scanned in place, string() closes it
+		return (Converter<ResponseBody, BitsoResponse<OrderBook>>) body -> OrderBookParser
+				.readOrderBookResponse(new JsonScanner().reset(body.string()));
+	}
+
+	private static boolean isOrderBookResponse(Type type) {
+
+		if (!(type instanceof ParameterizedType)) {
+			return false;
+		}
+
+		ParameterizedType parameterizedType = (ParameterizedType) type;
+
+		return parameterizedType.getRawType() == BitsoResponse.class
+				&& parameterizedType.getActualTypeArguments()[0] == OrderBook.class;
+	}
+}
@@ -19,6 +19,14 @@ public interface RestAPI {
 	Call<BitsoResponse<List<TradeBook>>> getRecentTrades(@Query("book") String book, @Query("sort") String order,
 			@Query("limit") Integer limit);
 
+	/**
+	 * Trades paged from a trade ID (marker), used to get the trades after the
+	 * last one received
+	 */
+	@GET("trades")
+	Call<BitsoResponse<List<TradeBook>>> getTrades(@Query("book") String book, @Query("marker") Long marker,
+			@Query("sort") String order, @Query("limit") Integer limit);
+
 	public static class SortType {
 
 		public static final String ASC = "asc";
@@ -1,15 +1,62 @@
 package com.sonartrading.challenge.api;
 
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 public class RestClient {
 
+	private static final int MAX_IDLE_CONNECTIONS = 5;
+	private static final long KEEP_ALIVE_MINUTES = 5;
+
+	// every book of the process calls the same host, e.g. on startup
+	private static final int MAX_REQUESTS_PER_HOST = 16;
+
+	private static final long CONNECT_TIMEOUT_SECONDS = 10;
+	private static final long READ_TIMEOUT_SECONDS = 30;
+
+	// shared by all the HTTP clients, so the connections are reused
+	private static final ConnectionPool CONNECTION_POOL = new ConnectionPool(MAX_IDLE_CONNECTIONS,
+			KEEP_ALIVE_MINUTES, TimeUnit.MINUTES);
+
 	private RestAPI restAPI;
 
 	public RestClient(String baseURL) {
-		restAPI = new Retrofit.Builder().baseUrl(baseURL).addConverterFactory(GsonConverterFactory.create()).build()
-				.create(RestAPI.class);
+		this(baseURL, newHttpClientBuilder().build());
+	}
+
+	/**
+	 * Creates a client with the given HTTP client, e.g. with interceptors to
+	 * record or replay the responses
+	 */
+	public RestClient(String baseURL, OkHttpClient httpClient) {
+		restAPI = new Retrofit.Builder().baseUrl(baseURL).client(httpClient)
+				.addConverterFactory(new OrderBookConverterFactory())
+				.addConverterFactory(GsonConverterFactory.create()).build().create(RestAPI.class);
+	}
+
+	/**
+	 * Returns a builder of HTTP clients tuned for the exchange: the shared
+	 * connection pool, HTTP/2 when the server and the JVM support it (ALPN),
+	 * and more concurrent requests by host than the default. The responses are
+	 * compressed with gzip: OkHttp asks for it and decompresses the body while
+	 * it is read, as long as no {@code Accept-Encoding} header is added.
+	 */
+	public static OkHttpClient.Builder newHttpClientBuilder() {
+
+		Dispatcher dispatcher = new Dispatcher();
+		dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+		return new OkHttpClient.Builder().connectionPool(CONNECTION_POOL).dispatcher(dispatcher)
+				.protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+				.connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+				.readTimeout(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS);
 	}
 
 	public RestAPI getAPI() {
@@ -1,5 +1,8 @@
 package com.sonartrading.challenge.api.dto;
 
+import com.google.gson.annotations.JsonAdapter;
+import com.sonartrading.challenge.parser.FixedPointAdapter;
+
 import lombok.Data;
 
 @Data
@@ -7,6 +10,11 @@ public class OrderBookItem {
 
 	private String oid;
 	private String book;
-	private String price;
-	private String amount;
+
+	// prices and amounts are fixed point, see FixedPoint
+	@JsonAdapter(FixedPointAdapter.class)
+	private long price;
+
+	@JsonAdapter(FixedPointAdapter.class)
+	private long amount;
 }
@@ -0,0 +1,87 @@
+package com.sonartrading.challenge.api.dto;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The orders of a side of the REST order book stored by columns: the order
+ * IDs and the fixed-point prices and amounts in arrays, without an
+ * {@link OrderBookItem} by order. It is filled by the streaming converter of
+ * the order book (see {@code OrderBookParser}) and read by index to build the
+ * book.
+ * <p>
+ * It can be used as any other list, {@link #get(int)} creates the item.
+ */
+public class OrderBookItems extends AbstractList<OrderBookItem> implements RandomAccess {
+
+	private String[] oids;
+	private long[] prices;
+	private long[] amounts;
+	private int size;
+
+	public OrderBookItems() {
+		this(16);
+	}
+
+	public OrderBookItems(int capacity) {
+		oids = new String[capacity];
+		prices = new long[capacity];
+		amounts = new long[capacity];
+	}
+
+	public void add(String oid, long price, long amount) {
+
+		if (size == oids.length) {
+			int capacity = Math.max(oids.length << 1, 16);
+			oids = Arrays.copyOf(oids, capacity);
+			prices = Arrays.copyOf(prices, capacity);
+			amounts = Arrays.copyOf(amounts, capacity);
+		}
+
+		oids[size] = oid;
+		prices[size] = price;
+		amounts[size] = amount;
+		size++;
+		modCount++;
+	}
+
+	public String getOid(int index) {
+		checkIndex(index);
+		return oids[index];
+	}
+
+	public long getPrice(int index) {
+		checkIndex(index);
+		return prices[index];
+	}
+
+	public long getAmount(int index) {
+		checkIndex(index);
+		return amounts[index];
+	}
+
+	@Override
+	public OrderBookItem get(int index) {
+
+		checkIndex(index);
+
+		OrderBookItem item = new OrderBookItem();
+		item.setOid(oids[index]);
+		item.setPrice(prices[index]);
+		item.setAmount(amounts[index]);
+
+		return item;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package com.sonartrading.challenge.api.dto;
 
+import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.sonartrading.challenge.parser.FixedPointAdapter;
 
 import lombok.Data;
 
@@ -9,11 +11,15 @@ public class TradeBook {
 	
 	private String book;
 	private String created_at;
-	private String amount;
+
+	// prices and amounts are fixed point, see FixedPoint
+	@JsonAdapter(FixedPointAdapter.class)
+	private long amount;
 	
 	@SerializedName("maker_side")
 	private String markerSide;
 	
-	private String price;
+	@JsonAdapter(FixedPointAdapter.class)
+	private long price;
 	private Long tid;
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.sonartrading.challenge.backtest;
+
+import lombok.Value;
+
+/**
+ * Configuration of the contrarian strategy evaluated by a backtest
+ */
+@Value
+public class BacktestParameters {
+
+	private int upTicks;
+	private int downTicks;
+	private double orderSize;
+}
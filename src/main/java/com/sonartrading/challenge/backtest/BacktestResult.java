@@ -0,0 +1,28 @@
+package com.sonartrading.challenge.backtest;
+
+import lombok.Value;
+
+/**
+ * Outcome of a backtest. The P&L is the cash plus the position valued at the
+ * last price of the series.
+ */
+@Value
+public class BacktestResult {
+
+	private BacktestParameters parameters;
+
+	private int trades;
+	private int fills;
+	private double position;
+	private double cash;
+	private double pnl;
+
+	private long elapsedNanos;
+
+	/**
+	 * Historical trades processed by second
+	 */
+	public double getThroughput() {
+		return elapsedNanos > 0 ? trades * 1e9 / elapsedNanos : 0;
+	}
+}
@@ -0,0 +1,182 @@
+package com.sonartrading.challenge.backtest;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+import com.sonartrading.challenge.data.model.FixedPoint;
+import com.sonartrading.challenge.data.model.MakerSide;
+import com.sonartrading.challenge.store.TickStore;
+import com.sonartrading.challenge.strategy.ContrarianStrategy;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the {@link ContrarianStrategy} over historical trades, without UI and
+ * as fast as possible. Every imaginary trade is filled at the price of the
+ * trade that triggered it.
+ * <p>
+ * A sweep runs one backtest for every configuration in a fork/join pool, all
+ * of them over the same series, which is only read.
+ *
+ * <pre>
+ * java -cp sonar-trading.jar com.sonartrading.challenge.backtest.Backtester &lt;ticks directory&gt; btc_mxn-trades [max ticks]
+ * </pre>
+ */
+@Slf4j
+public class Backtester {
+
+	private static final int DEFAULT_MAX_TICKS = 10;
+	private static final double[] ORDER_SIZES = { 0.01, 0.1, 1 };
+	private static final int RESULTS_TO_LOG = 10;
+
+	private final TradeSeries trades;
+
+	public Backtester(TradeSeries trades) {
+		this.trades = trades;
+	}
+
+	public BacktestResult run(BacktestParameters parameters) {
+
+		long start = System.nanoTime();
+
+		ContrarianStrategy strategy = new ContrarianStrategy(parameters.getUpTicks(), parameters.getDownTicks(),
+				parameters.getOrderSize());
+		double orderSize = parameters.getOrderSize();
+
+		double position = 0;
+		double cash = 0;
+		int fills = 0;
+
+		int size = trades.size();
+		for (int i = 0; i < size; i++) {
+
+			double price = trades.getPrice(i);
+			MakerSide makerSide = strategy.tick(price);
+
+			if (makerSide == MakerSide.BUY) {
+				position += orderSize;
+				cash -= price * orderSize;
+				fills++;
+			} else if (makerSide == MakerSide.SELL) {
+				position -= orderSize;
+				cash += price * orderSize;
+				fills++;
+			}
+		}
+
+		double lastPrice = size > 0 ? trades.getPrice(size - 1) : 0;
+
+		return new BacktestResult(parameters, size, fills, position, cash, cash + position * lastPrice,
+				System.nanoTime() - start);
+	}
+
+	/**
+	 * Runs the backtests of all the configurations in the common fork/join
+	 * pool, the results are in the same order.
+	 */
+	public List<BacktestResult> sweep(List<BacktestParameters> parameters) {
+		return sweep(parameters, ForkJoinPool.commonPool());
+	}
+
+	public List<BacktestResult> sweep(List<BacktestParameters> parameters, ForkJoinPool pool) {
+		return pool.invoke(new SweepTask(parameters, 0, parameters.size()));
+	}
+
+	/**
+	 * Splits the configurations in halves until there is one to run
+	 */
+	private class SweepTask extends RecursiveTask<List<BacktestResult>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient List<BacktestParameters> parameters;
+		private final int from;
+		private final int to;
+
+		private SweepTask(List<BacktestParameters> parameters, int from, int to) {
+			this.parameters = parameters;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected List<BacktestResult> compute() {
+
+			List<BacktestResult> results = new ArrayList<>(to - from);
+
+			if (to - from <= 1) {
+				for (int i = from; i < to; i++) {
+					results.add(run(parameters.get(i)));
+				}
+				return results;
+			}
+
+			int middle = (from + to) >>> 1;
+			SweepTask left = new SweepTask(parameters, from, middle);
+			left.fork();
+
+			List<BacktestResult> right = new SweepTask(parameters, middle, to).compute();
+			results.addAll(left.join());
+			results.addAll(right);
+
+			return results;
+		}
+	}
+
+	/**
+	 * All the combinations of ticks from 1 to the given max values and order
+	 * sizes
+	 */
+	public static List<BacktestParameters> grid(int maxUpTicks, int maxDownTicks, double... orderSizes) {
+
+		List<BacktestParameters> parameters = new ArrayList<>();
+
+		for (int upTicks = 1; upTicks <= maxUpTicks; upTicks++) {
+			for (int downTicks = 1; downTicks <= maxDownTicks; downTicks++) {
+				for (double orderSize : orderSizes) {
+					parameters.add(new BacktestParameters(upTicks, downTicks, orderSize));
+				}
+			}
+		}
+
+		return parameters;
+	}
+
+	/**
+	 * Sweeps the ticks thresholds over the trades of a tick store and logs the
+	 * best configurations.
+	 */
+	public static void main(String[] args) {
+
+		if (args.length < 2) {
+			log.error("Usage: Backtester <ticks directory> <store name> [max ticks]");
+			return;
+		}
+
+		int maxTicks = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_TICKS;
+
+		TradeSeries trades;
+		try (TickStore tickStore = TickStore.openReadOnly(Paths.get(args[0]), args[1])) {
+			trades = TradeSeries.of(tickStore, FixedPoint.SCALE);
+		}
+
+		List<BacktestParameters> parameters = grid(maxTicks, maxTicks, ORDER_SIZES);
+
+		long start = System.nanoTime();
+		List<BacktestResult> results = new Backtester(trades).sweep(parameters);
+		long elapsed = System.nanoTime() - start;
+
+		log.info("{} configurations over {} trades in {} ms, {} trades/s", results.size(), trades.size(),
+				TimeUnit.NANOSECONDS.toMillis(elapsed),
+				elapsed > 0 ? (long) (results.size() * (double) trades.size() * 1e9 / elapsed) : 0);
+
+		results.stream().sorted(Comparator.comparingDouble(BacktestResult::getPnl).reversed()).limit(RESULTS_TO_LOG)
+				.forEach(r -> log.info("{}: P&L {}, position {}, fills {}", r.getParameters(), r.getPnl(),
+						r.getPosition(), r.getFills()));
+	}
+}
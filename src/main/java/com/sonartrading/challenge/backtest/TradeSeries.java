@@ -0,0 +1,81 @@
+package com.sonartrading.challenge.backtest;
+
+import java.util.Arrays;
+
+import com.sonartrading.challenge.store.TickConsumer;
+import com.sonartrading.challenge.store.TickStore;
+
+/**
+ * Historical trade prices kept in primitive arrays, in the order they were
+ * traded, so millions of them can be replayed without objects.
+ */
+public final class TradeSeries {
+
+	private final long[] timestamps;
+	private final double[] prices;
+	private final int size;
+
+	public TradeSeries(long[] timestamps, double[] prices) {
+
+		if (timestamps.length != prices.length) {
+			throw new IllegalArgumentException("Timestamps and prices have different lengths");
+		}
+
+		this.timestamps = timestamps;
+		this.prices = prices;
+		this.size = prices.length;
+	}
+
+	/**
+	 * Reads all the trades of a store, the prices are converted from
+	 * fixed-point dividing by the given scale.
+	 */
+	public static TradeSeries of(TickStore tickStore, double priceScale) {
+
+		Loader loader = new Loader((int) Math.min(Integer.MAX_VALUE - 8, Math.max(16, tickStore.size())), priceScale);
+		tickStore.scanBySequence(Long.MIN_VALUE, Long.MAX_VALUE, loader);
+
+		return new TradeSeries(Arrays.copyOf(loader.timestamps, loader.size),
+				Arrays.copyOf(loader.prices, loader.size));
+	}
+
+	private static class Loader implements TickConsumer {
+
+		private final double priceScale;
+
+		private long[] timestamps;
+		private double[] prices;
+		private int size;
+
+		private Loader(int capacity, double priceScale) {
+			this.priceScale = priceScale;
+			timestamps = new long[capacity];
+			prices = new double[capacity];
+		}
+
+		@Override
+		public void onTick(long sequence, long timestamp, byte side, long price, long amount) {
+
+			if (size == prices.length) {
+				timestamps = Arrays.copyOf(timestamps, size * 2);
+				prices = Arrays.copyOf(prices, size * 2);
+			}
+
+			timestamps[size] = timestamp;
+			prices[size] = price / priceScale;
+			size++;
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public long getTimestamp(int index) {
+		return timestamps[index];
+	}
+
+	public double getPrice(int index) {
+		return prices[index];
+	}
+}
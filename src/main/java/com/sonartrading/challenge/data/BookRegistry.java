@@ -0,0 +1,269 @@
+package com.sonartrading.challenge.data;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sonartrading.challenge.api.RestAPI;
+import com.sonartrading.challenge.data.book.BookMode;
+import com.sonartrading.challenge.data.model.MakerSide;
+import com.sonartrading.challenge.data.observer.Dispatchers;
+import com.sonartrading.challenge.latency.LatencyMonitor;
+import com.sonartrading.challenge.metrics.MetricsRegistry;
+import com.sonartrading.challenge.sequencer.EventLoop;
+import com.sonartrading.challenge.store.TickStore;
+import com.sonartrading.challenge.ws.WebsocketClient;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the managers of every book tracked by the process.
+ * <p>
+ * All the books share the same websocket connection, the same worker threads,
+ * one thread for the trades and a fixed number of event loops. Every book is
+ * assigned to one event loop when it is added, so its order book is always
+ * changed by the same thread while one event loop serves many books.
+ */
+@Slf4j
+public class BookRegistry implements AutoCloseable {
+
+	public static final int DEFAULT_EVENT_LOOPS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+	// time to wait for the threads that write to the tick stores when closed
+	private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+	private final RestAPI restAPI;
+	private final WebsocketClient websocketClient;
+	private final ExecutorService executorService;
+
+	private final EventLoop[] eventLoops;
+	private final ExecutorService tradesExecutor = Executors.newSingleThreadExecutor();
+
+	private final Map<String, OrdersManager> ordersManagers = new ConcurrentHashMap<>();
+	private final Map<String, TradesManager> tradesManagers = new ConcurrentHashMap<>();
+	private final List<String> books = new ArrayList<>();
+
+	// if set, the trades and diff-orders of the books are stored in this directory
+	private Path tickStoreDirectory;
+	private final List<TickStore> tickStores = new ArrayList<>();
+
+	// runs the notifications of the UI observers of the books added from now on
+	private Executor uiExecutor = Dispatchers.INLINE;
+
+	// keeps every order, or only the price levels, of the books added from now on
+	private BookMode bookMode = BookMode.ORDERS;
+
+	// measures the latency of the books added from now on
+	private LatencyMonitor latencyMonitor;
+
+	// publishes the metrics of the books added from now on
+	private MetricsRegistry metricsRegistry;
+
+	public BookRegistry(RestAPI restAPI, WebsocketClient websocketClient, ExecutorService executorService) {
+		this(restAPI, websocketClient, executorService, DEFAULT_EVENT_LOOPS);
+	}
+
+	public BookRegistry(RestAPI restAPI, WebsocketClient websocketClient, ExecutorService executorService,
+			int numOfEventLoops) {
+
+		this.restAPI = restAPI;
+		this.websocketClient = websocketClient;
+		this.executorService = executorService;
+
+		eventLoops = new EventLoop[numOfEventLoops];
+		for (int i = 0; i < numOfEventLoops; i++) {
+			eventLoops[i] = new EventLoop("books-" + i);
+		}
+	}
+
+	/**
+	 * Stores the trades and diff-orders of the books added from now on in the
+	 * given directory, see {@link TickStore}.
+	 */
+	public synchronized void setTickStoreDirectory(Path tickStoreDirectory) {
+		this.tickStoreDirectory = tickStoreDirectory;
+	}
+
+	/**
+	 * Sets the executor of the notifications to the UI observers of the books
+	 * added from now on, e.g. {@code Platform::runLater} when there is a
+	 * JavaFX UI. By default they are notified by the threads of the managers.
+	 */
+	public synchronized void setUiExecutor(Executor uiExecutor) {
+		this.uiExecutor = uiExecutor;
+	}
+
+	/**
+	 * Sets the mode of the books added from now on, see {@link BookMode}.
+	 */
+	public synchronized void setBookMode(BookMode bookMode) {
+		this.bookMode = bookMode;
+	}
+
+	/**
+	 * Measures the latency of the diff-orders of the books added from now on,
+	 * with the depths of the event loops and of the buffers of the books.
+	 */
+	public synchronized void setLatencyMonitor(LatencyMonitor latencyMonitor) {
+
+		this.latencyMonitor = latencyMonitor;
+
+		for (int i = 0; i < eventLoops.length; i++) {
+			latencyMonitor.addQueueDepth("books-" + i, eventLoops[i]::getQueueSize);
+		}
+	}
+
+	/**
+	 * Publishes the rates, depth and buffers of the books added from now on.
+	 */
+	public synchronized void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+		this.metricsRegistry = metricsRegistry;
+	}
+
+	/**
+	 * Starts tracking a book, if it was not tracked yet.
+	 */
+	public synchronized void addBook(String book) {
+
+		if (ordersManagers.containsKey(book)) {
+			return;
+		}
+
+		// books are spread over the event loops in the order they are added
+		EventLoop eventLoop = eventLoops[books.size() % eventLoops.length];
+		log.debug("Adding book {} to event loop {}", book, books.size() % eventLoops.length);
+
+		TradesManager tradesManager = new TradesManager(book, restAPI, websocketClient, executorService,
+				tradesExecutor);
+		OrdersManager ordersManager = new OrdersManager(book, restAPI, websocketClient, executorService, eventLoop,
+				bookMode);
+
+		tradesManager.setUiExecutor(uiExecutor);
+		ordersManager.setUiExecutor(uiExecutor);
+
+		if (latencyMonitor != null) {
+			ordersManager.setLatencyMonitor(latencyMonitor);
+			latencyMonitor.addQueueDepth(book + "-buffered", ordersManager::getBufferedMessages);
+		}
+
+		if (metricsRegistry != null) {
+			addMetrics(book, ordersManager, tradesManager);
+		}
+
+		if (tickStoreDirectory != null) {
+			tradesManager.setTickStore(addTickStore(book + "-trades"));
+			ordersManager.setTickStore(addTickStore(book + "-diff-orders"));
+		}
+
+		tradesManagers.put(book, tradesManager);
+		ordersManagers.put(book, ordersManager);
+		books.add(book);
+	}
+
+	private void addMetrics(String book, OrdersManager ordersManager, TradesManager tradesManager) {
+
+		metricsRegistry.addCounter(book + ".diff-orders", ordersManager::getDiffOrderMessages);
+		metricsRegistry.addCounter(book + ".stale-diff-orders", ordersManager::getStaleDiffOrders);
+		metricsRegistry.addCounter(book + ".book-notifications", ordersManager::getNotifications);
+		metricsRegistry.addCounter(book + ".trades", tradesManager::getTradeMessages);
+		metricsRegistry.addCounter(book + ".stale-trades", tradesManager::getStaleTrades);
+		metricsRegistry.addCounter(book + ".trade-notifications", tradesManager::getNotifications);
+
+		metricsRegistry.addGauge(book + ".bid-orders", () -> ordersManager.getNumOfOrders(MakerSide.BUY));
+		metricsRegistry.addGauge(book + ".ask-orders", () -> ordersManager.getNumOfOrders(MakerSide.SELL));
+		metricsRegistry.addGauge(book + ".bid-levels", () -> ordersManager.getNumOfLevels(MakerSide.BUY));
+		metricsRegistry.addGauge(book + ".ask-levels", () -> ordersManager.getNumOfLevels(MakerSide.SELL));
+		metricsRegistry.addGauge(book + ".buffered-diff-orders", ordersManager::getBufferedMessages);
+	}
+
+	private TickStore addTickStore(String name) {
+		TickStore tickStore = new TickStore(tickStoreDirectory, name);
+		tickStores.add(tickStore);
+		return tickStore;
+	}
+
+	public synchronized List<String> getBooks() {
+		return Collections.unmodifiableList(new ArrayList<>(books));
+	}
+
+	/**
+	 * Returns the manager of the orders of a book, or {@code null} if the book
+	 * is not tracked.
+	 */
+	public OrdersManager getOrdersManager(String book) {
+		return ordersManagers.get(book);
+	}
+
+	/**
+	 * Returns the manager of the trades of a book, or {@code null} if the book
+	 * is not tracked.
+	 */
+	public TradesManager getTradesManager(String book) {
+		return tradesManagers.get(book);
+	}
+
+	public int getNumOfEventLoops() {
+		return eventLoops.length;
+	}
+
+	/**
+	 * Waits until the event loops and the trades thread have handled all the
+	 * messages received so far, e.g. at the end of a replay.
+	 */
+	public void awaitIdle() throws InterruptedException {
+
+		for (EventLoop eventLoop : eventLoops) {
+			while (eventLoop.getQueueSize() > 0) {
+				TimeUnit.MILLISECONDS.sleep(1);
+			}
+		}
+
+		try {
+			tradesExecutor.submit(() -> {
+			}).get();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Stops the threads of the books and, once they have ended, writes the
+	 * tick stores to disk.
+	 */
+	@Override
+	public void close() {
+
+		tradesExecutor.shutdownNow();
+
+		for (EventLoop eventLoop : eventLoops) {
+			eventLoop.close();
+		}
+
+		try {
+			for (EventLoop eventLoop : eventLoops) {
+				if (!eventLoop.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+					log.warn("An event loop of the books did not end on time");
+				}
+			}
+
+			if (!tradesExecutor.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+				log.warn("The trades thread did not end on time");
+			}
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		synchronized (this) {
+			tickStores.forEach(TickStore::close);
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package com.sonartrading.challenge.data;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import com.sonartrading.challenge.api.dto.OrderBookItem;
+import com.sonartrading.challenge.api.dto.OrderBookItems;
+import com.sonartrading.challenge.data.book.OrderBookSide;
+import com.sonartrading.challenge.data.book.PriceLevelBookSide;
+import com.sonartrading.challenge.data.model.MakerSide;
+import com.sonartrading.challenge.data.model.Order;
+
+/**
+ * Builds the sides of a book from the REST order book, on startup and on every
+ * resync.
+ * <p>
+ * The sides keep the best level at the end of their arrays, and the REST book
+ * is sorted best first, so adding its orders as they come inserts every new
+ * level at the beginning and moves all the levels already added. Instead, the
+ * levels are added from the worst one to the best one, keeping the order of
+ * the orders of every level, so every level is appended. The arrays are sized
+ * for the levels and orders of the book before they are added, so they do not
+ * grow either. The orders of a REST book that is not sorted are added as they
+ * come, so the arrival order within every level is kept.
+ */
+public class OrderBookLoader {
+
+	private OrderBookLoader() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	/**
+	 * Returns the orders of a side by columns, as they are read by the
+	 * streaming converter of the order book, or copied from other lists.
+	 */
+	public static OrderBookItems toOrderBookItems(List<OrderBookItem> orderBook) {
+
+		if (orderBook instanceof OrderBookItems) {
+			return (OrderBookItems) orderBook;
+		}
+
+		OrderBookItems items = new OrderBookItems(orderBook.size());
+		for (OrderBookItem item : orderBook) {
+			items.add(item.getOid(), item.getPrice(), item.getAmount());
+		}
+
+		return items;
+	}
+
+	/**
+	 * Given the orders of a side of the REST order book, it returns a new
+	 * {@link PriceLevelBookSide} with the same orders.
+	 */
+	public static PriceLevelBookSide loadPriceLevels(OrderBookItems orderBook, MakerSide makerSide) {
+
+		PriceLevelBookSide priceLevelBookSide = new PriceLevelBookSide(makerSide,
+				getExpectedLevels(orderBook), getExpectedOrders(orderBook));
+
+		forEachOrder(orderBook, makerSide,
+				i -> priceLevelBookSide.apply(orderBook.getOid(i), orderBook.getPrice(i), orderBook.getAmount(i)));
+
+		return priceLevelBookSide;
+	}
+
+	/**
+	 * Given the orders of a side of the REST order book, it returns a new
+	 * {@link OrderBookSide} with the same orders.
+	 */
+	public static OrderBookSide loadOrders(OrderBookItems orderBook, MakerSide makerSide) {
+
+		OrderBookSide orderBookSide = new OrderBookSide(makerSide, getExpectedLevels(orderBook),
+				getExpectedOrders(orderBook));
+
+		forEachOrder(orderBook, makerSide, i -> {
+			long price = orderBook.getPrice(i);
+			orderBookSide.add(new Order(orderBook.getOid(i), makerSide, orderBook.getAmount(i), price), price);
+		});
+
+		return orderBookSide;
+	}
+
+	/**
+	 * Calls the consumer with the index of every order, the levels from the
+	 * worst one to the best one if the book is sorted
+	 */
+	private static void forEachOrder(OrderBookItems orderBook, MakerSide makerSide, IntConsumer consumer) {
+
+		if (!isSortedBestFirst(orderBook, makerSide)) {
+			for (int i = 0; i < orderBook.size(); i++) {
+				consumer.accept(i);
+			}
+			return;
+		}
+
+		for (int end = orderBook.size(), start; end > 0; end = start) {
+			start = getLevelStart(orderBook, end);
+			for (int i = start; i < end; i++) {
+				consumer.accept(i);
+			}
+		}
+	}
+
+	private static boolean isSortedBestFirst(OrderBookItems orderBook, MakerSide makerSide) {
+
+		for (int i = 1; i < orderBook.size(); i++) {
+			long previous = orderBook.getPrice(i - 1);
+			long price = orderBook.getPrice(i);
+			if (makerSide == MakerSide.BUY ? price > previous : price < previous) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the index of the first order of the run of orders with the same
+	 * price that ends before the given index.
+	 */
+	private static int getLevelStart(OrderBookItems orderBook, int end) {
+
+		long price = orderBook.getPrice(end - 1);
+
+		int start = end - 1;
+		while (start > 0 && orderBook.getPrice(start - 1) == price) {
+			start--;
+		}
+
+		return start;
+	}
+
+	/**
+	 * The number of runs of orders with the same price, the levels of a sorted
+	 * book (or more, if it is not sorted), with room for the levels added
+	 * later
+	 */
+	private static int getExpectedLevels(OrderBookItems orderBook) {
+
+		int levels = 0;
+		for (int end = orderBook.size(); end > 0; end = getLevelStart(orderBook, end)) {
+			levels++;
+		}
+
+		return Math.max(levels << 1, OrderBookSide.DEFAULT_LEVELS);
+	}
+
+	/**
+	 * The number of orders, with room for the orders added later
+	 */
+	private static int getExpectedOrders(OrderBookItems orderBook) {
+		return Math.max(orderBook.size() << 1, OrderBookSide.DEFAULT_ORDERS);
+	}
+}
@@ -4,34 +4,47 @@ import static com.sonartrading.challenge.data.model.MakerSide.BUY;
 import static com.sonartrading.challenge.data.model.MakerSide.SELL;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
-import com.google.gson.Gson;
 import com.sonartrading.challenge.api.RestAPI;
 import com.sonartrading.challenge.api.dto.BitsoResponse;
 import com.sonartrading.challenge.api.dto.OrderBook;
-import com.sonartrading.challenge.api.dto.OrderBookItem;
+import com.sonartrading.challenge.api.dto.OrderBookItems;
+import com.sonartrading.challenge.data.book.BookMode;
+import com.sonartrading.challenge.data.book.BookSnapshot;
+import com.sonartrading.challenge.data.book.OrderBookSide;
+import com.sonartrading.challenge.data.book.PriceLevelBookSide;
+import com.sonartrading.challenge.data.book.PriceLevels;
+import com.sonartrading.challenge.data.model.FixedPoint;
 import com.sonartrading.challenge.data.model.MakerSide;
 import com.sonartrading.challenge.data.model.Order;
 import com.sonartrading.challenge.data.model.OrderStatus;
+import com.sonartrading.challenge.data.observer.Dispatchers;
+import com.sonartrading.challenge.data.observer.MarketObserver;
 import com.sonartrading.challenge.data.observer.OrdersObserver;
 import com.sonartrading.challenge.exception.InitializationException;
+import com.sonartrading.challenge.latency.LatencyMonitor;
+import com.sonartrading.challenge.latency.Stage;
+import com.sonartrading.challenge.parser.DiffOrdersParser;
+import com.sonartrading.challenge.parser.JsonScanner;
+import com.sonartrading.challenge.sequencer.EventHandler;
+import com.sonartrading.challenge.sequencer.EventLoop;
+import com.sonartrading.challenge.store.TickStore;
 import com.sonartrading.challenge.ws.WebsocketClient;
 import com.sonartrading.challenge.ws.dto.DiffOrder;
 import com.sonartrading.challenge.ws.dto.WebsocketMessage;
 import com.sonartrading.challenge.ws.handler.WebsocketHandler;
 
-import javafx.application.Platform;
 import lombok.extern.slf4j.Slf4j;
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -40,49 +53,138 @@ import retrofit2.Response;
 /**
  * @author arturo
  *
+ *         The order book is changed only by the thread of its
+ *         {@link EventLoop}: diff-orders, the REST snapshot and the requests
+ *         of the observers are published to the loop and applied one by one
+ *         in the order they were received, so the book needs no locks.
+ *         After every batch of changes the loop publishes a new
+ *         {@link BookSnapshot} that can be read from any thread.
+ *
+ *         The diff-orders must arrive with consecutive sequences: messages
+ *         ahead of the expected one are kept in a small buffer and, if the
+ *         missing ones do not arrive, the book is resynchronized getting a
+ *         new REST snapshot while the live diff-orders are queued, the same
+ *         way as on startup. After a reconnection of the websocket the first
+ *         gap resynchronizes the book at once. A REST snapshot that fails
+ *         once the book is initialized is requested again, and if the
+ *         diff-orders queued meanwhile reach a limit they are dropped and a
+ *         new snapshot is requested.
  */
 @Slf4j
-public class OrdersManager implements WebsocketHandler {
+public class OrdersManager implements WebsocketHandler<DiffOrder[]>, EventHandler {
 
 	private static final String DIFF_ORDERS_SUSCRIPTION = "diff-orders";
 	public static final int DEFAULT_ORDERS_TO_OBSERVE = 10;
+	public static final int SNAPSHOT_LEVELS = 20;
 
-	private final Gson gson = new Gson();
+	// messages received ahead of a gap before resynchronizing the book
+	public static final int MAX_OUT_OF_ORDER_MESSAGES = 32;
+	// messages queued waiting for the REST snapshot before requesting a new one
+	public static final int MAX_QUEUED_MESSAGES = 10_000;
+	private static final long RESYNC_RETRY_MILLIS = 1000;
 
 	private final String book;
 	private final RestAPI restAPI;
 
-	private Object diffOrdersLock = new Object();
-	private List<DiffOrder> diffOrders = new LinkedList<>();
+	// the last REST snapshot requested, the answers to older ones are ignored
+	private final AtomicLong orderBookRequests = new AtomicLong();
+
+	// these values are used only by the event loop thread
+	private List<WebsocketMessage<DiffOrder[]>> diffOrders = new ArrayList<>();
+	private final TreeMap<Long, DiffOrder[]> outOfOrderDiffOrders = new TreeMap<>();
 
-	private Map<String, Order> bidOrders;
-	private TreeMap<Double, List<Order>> bidOrdersByPrice;
+	// every order, only in ORDERS mode
+	private OrderBookSide bidOrders;
+	private OrderBookSide askOrders;
 
-	private Map<String, Order> askOrders;
-	private TreeMap<Double, List<Order>> askOrdersByPrice;
+	// only the price levels, only in LEVELS mode
+	private PriceLevelBookSide bidLevels;
+	private PriceLevelBookSide askLevels;
 
-	private final ReadWriteLock ordersReadWriteLock = new ReentrantReadWriteLock();
-	private final Lock ordersReadLock = ordersReadWriteLock.readLock();
-	private final Lock ordersWriteLock = ordersReadWriteLock.writeLock();
+	// the sides of the mode, which give the price levels of the snapshots
+	private PriceLevels bidPriceLevels;
+	private PriceLevels askPriceLevels;
 
-	private final List<OrdersObserver> ordersObservers = new ArrayList<>();
+	// if set, every diff-order applied to the book is stored
+	private TickStore tickStore;
 
+	// sequence of the REST snapshot
 	private long lastDiffOrdersSequence = -1;
+	// sequence of the last change applied to the book
+	private long bookSequence = -1;
+	private boolean bookChanged = false;
+	private long resyncStartTime;
+	// after a reconnection, the first gap resynchronizes the book at once
+	private boolean reconnected = false;
+
+	// metrics, written by the event loop thread
+	private volatile boolean initialized = false;
+	private volatile long resyncs = 0;
+	private volatile long lastResyncMillis = 0;
+	private volatile int bufferedMessages = 0;
+	private volatile int numOfBidOrders = 0;
+	private volatile int numOfAskOrders = 0;
+	private volatile int numOfBidLevels = 0;
+	private volatile int numOfAskLevels = 0;
+
+	// metrics by rate, lock-free (the notifications are counted by many threads)
+	private final LongAdder diffOrderMessages = new LongAdder();
+	private final LongAdder staleDiffOrders = new LongAdder();
+	private final LongAdder notifications = new LongAdder();
+
+	// last top of the book, replaced by the event loop and read by anyone
+	private volatile BookSnapshot bookSnapshot = BookSnapshot.EMPTY;
+
+	private final List<OrdersObserver> ordersObservers = new CopyOnWriteArrayList<>();
+
+	// the observers of the orders are the UI, by default they run inline
+	private volatile Executor uiExecutor = Dispatchers.INLINE;
+
+	// if set, the latency of the diff-orders is measured
+	private volatile LatencyMonitor latencyMonitor;
+
+	// an array, so it can be iterated by the event loop without allocations
+	private volatile MarketObserver[] marketObservers = new MarketObserver[0];
 
 	// this value could be modified by ui while is used by manager
 	private volatile int numOfOrdersToObserve = DEFAULT_ORDERS_TO_OBSERVE;
 
 	private final ExecutorService executorService;
+	private final EventLoop eventLoop;
+	private final BookMode bookMode;
 
 	public OrdersManager(String book, RestAPI restAPI, WebsocketClient websocketClient,
 			ExecutorService executorService) {
+		this(book, restAPI, websocketClient, executorService, new EventLoop("orders-" + book));
+	}
+
+	/**
+	 * Creates a manager whose book is changed by the given event loop, which
+	 * can be shared with other books.
+	 */
+	public OrdersManager(String book, RestAPI restAPI, WebsocketClient websocketClient,
+			ExecutorService executorService, EventLoop eventLoop) {
+		this(book, restAPI, websocketClient, executorService, eventLoop, BookMode.ORDERS);
+	}
+
+	/**
+	 * Creates a manager that keeps every order of the book, or only its price
+	 * levels (see {@link BookMode}). The snapshots of the top of the book are
+	 * taken from the price levels in both modes.
+	 */
+	public OrdersManager(String book, RestAPI restAPI, WebsocketClient websocketClient,
+			ExecutorService executorService, EventLoop eventLoop, BookMode bookMode) {
 
 		this.book = book;
 		this.restAPI = restAPI;
 		this.executorService = executorService;
+		this.eventLoop = eventLoop;
+		this.bookMode = bookMode;
 
 		websocketClient.addHandler(book, DIFF_ORDERS_SUSCRIPTION, OrdersManager.this);
 
+		// the time to the first book is logged like a resync
+		resyncStartTime = System.nanoTime();
 		getOrderBook();
 	}
 
@@ -90,6 +192,8 @@ public class OrdersManager implements WebsocketHandler {
 
 	private void getOrderBook() {
 
+		long request = orderBookRequests.incrementAndGet();
+
 		restAPI.getOpenOrders(book, false).enqueue(new Callback<BitsoResponse<OrderBook>>() {
 
 			@Override
@@ -97,210 +201,420 @@ public class OrdersManager implements WebsocketHandler {
 
 				BitsoResponse<OrderBook> orderBookResponse = response.body();
 
-				if (!orderBookResponse.getSuccess()) {
-					throw new InitializationException("Error trying to get last orders");
+				if (orderBookResponse == null || !Boolean.TRUE.equals(orderBookResponse.getSuccess())) {
+					retryOrderBook(request, "Error trying to get last orders, HTTP " + response.code(), null);
+					return;
 				}
 
 				OrderBook orderBook = orderBookResponse.getPayload();
-				lastDiffOrdersSequence = orderBook.getSequence();
-				log.debug("Order book received, sequence: {}", lastDiffOrdersSequence);
-
-				executorService.execute(() -> {
-
-					askOrders = getOrdersMap(orderBook.getAsks(), SELL);
-					askOrdersByPrice = getOrdersSortedMap(askOrders, false);
+				log.debug("Order book received, sequence: {}", orderBook.getSequence());
 
-					bidOrders = getOrdersMap(orderBook.getBids(), BUY);
-					bidOrdersByPrice = getOrdersSortedMap(bidOrders, true);
+				OrderBookItems asks = OrderBookLoader.toOrderBookItems(orderBook.getAsks());
+				OrderBookItems bids = OrderBookLoader.toOrderBookItems(orderBook.getBids());
 
-					log.debug("Ask orders: {}, Bid orders: {}", askOrders.size(), bidOrders.size());
+				// the sides are built in parallel out of the event loop, which
+				// keeps queuing the diff-orders meanwhile
+				CompletableFuture<PriceLevelBookSide> askLevels = loadPriceLevels(asks, SELL);
+				CompletableFuture<PriceLevelBookSide> bidLevels = loadPriceLevels(bids, BUY);
+				CompletableFuture<OrderBookSide> askOrders = loadOrders(asks, SELL);
+				CompletableFuture<OrderBookSide> bidOrders = loadOrders(bids, BUY);
 
-					int numOfOrders = numOfOrdersToObserve;
-					List<Order> askOrdersToObserve, bidOrdersToObserve;
+				CompletableFuture.allOf(askLevels, bidLevels, askOrders, bidOrders).whenComplete((loaded, t) -> {
 
-					// apply previous diff-order queued messages
-					synchronized (diffOrdersLock) {
-						log.debug("Applying previous diff-order queued messages: {}", diffOrders.size());
-						diffOrders.stream().filter(d -> d.getSequence() > lastDiffOrdersSequence)
-								.forEach(d -> updateOffersByDiff(d));
-						diffOrders = null;
-						askOrdersToObserve = getOrdersToObserve(askOrdersByPrice, numOfOrders);
-						bidOrdersToObserve = getOrdersToObserve(bidOrdersByPrice, numOfOrders);
+					if (t != null) {
+						retryOrderBook(request, "Error building the order book " + book, t);
+						return;
 					}
 
-					// notify new orders lists to observers
-					Platform.runLater(
-							() -> ordersObservers.forEach(o -> o.setOrders(askOrdersToObserve, bidOrdersToObserve)));
+					InitialOrderBook initialOrderBook = new InitialOrderBook(request, askOrders.join(),
+							bidOrders.join(), askLevels.join(), bidLevels.join());
+
+					eventLoop.publish(OrdersManager.this, initialOrderBook, orderBook.getSequence());
 				});
 			}
 
 			@Override
 			public void onFailure(Call<BitsoResponse<OrderBook>> call, Throwable t) {
-				throw new InitializationException("Error trying to get last orders", t);
+				retryOrderBook(request, "Error trying to get last orders", t);
 			}
 		});
 	}
 
-	// ******************** WEBSOCKET HANDLERS: DiffOrders ********************
+	/**
+	 * Requests the REST snapshot again after a failure, unless a newer one was
+	 * requested meanwhile. The book cannot start without its first snapshot.
+	 */
+	private void retryOrderBook(long request, String error, Throwable t) {
 
-	@Override
-	public void handleMessage(WebsocketMessage<?> response) {
+		if (!initialized) {
+			throw new InitializationException(error, t);
+		}
 
-		if (response.getPayload() == null || lastDiffOrdersSequence >= response.getSequence()) {
+		if (request != orderBookRequests.get()) {
 			return;
 		}
 
+		// the book is being resynchronized, the diff-orders are still queued
+		log.error("{}, retrying in {} ms", error, RESYNC_RETRY_MILLIS, t);
 		executorService.execute(() -> {
-			// we could write a custom gson deserializer instead of this step
-			DiffOrder[] orders = gson.fromJson(gson.toJson(response.getPayload()), DiffOrder[].class);
-
-			if (orders.length == 0) {
-				return;
-			}
-
-			DiffOrder diffOrder = orders[0];
-			diffOrder.setSequence(response.getSequence());
-
-			synchronized (diffOrdersLock) {
-				if (diffOrders != null) {
-					diffOrders.add(diffOrder);
-				} else {
-					updateOffersByDiff(diffOrder);
+			try {
+				TimeUnit.MILLISECONDS.sleep(RESYNC_RETRY_MILLIS);
+				if (request == orderBookRequests.get()) {
+					getOrderBook();
 				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
 			}
 		});
 	}
 
-	// ****************************** DATA MODEL ******************************
+	/**
+	 * Builds the orders of a side, only in ORDERS mode
+	 */
+	private CompletableFuture<OrderBookSide> loadOrders(OrderBookItems orderBook, MakerSide makerSide) {
 
-	private Order addOrder(Order order) {
+		if (bookMode != BookMode.ORDERS) {
+			return CompletableFuture.completedFuture(null);
+		}
 
-		ordersWriteLock.lock();
+		return CompletableFuture.supplyAsync(() -> OrderBookLoader.loadOrders(orderBook, makerSide), executorService);
+	}
 
-		switch (order.getMarkerSide()) {
-		case BUY:
-			bidOrders.put(order.getOrderID(), order);
-			addOrderByPrice(bidOrdersByPrice, order);
-			break;
+	/**
+	 * Builds the price levels of a side, only in LEVELS mode
+	 */
+	private CompletableFuture<PriceLevelBookSide> loadPriceLevels(OrderBookItems orderBook, MakerSide makerSide) {
 
-		case SELL:
-			askOrders.put(order.getOrderID(), order);
-			addOrderByPrice(askOrdersByPrice, order);
-			break;
+		if (bookMode != BookMode.LEVELS) {
+			return CompletableFuture.completedFuture(null);
 		}
 
-		ordersWriteLock.unlock();
-
-		return order;
+		return CompletableFuture.supplyAsync(() -> OrderBookLoader.loadPriceLevels(orderBook, makerSide),
+				executorService);
 	}
 
-	private void removeOrder(Order order) {
+	// ******************** WEBSOCKET HANDLERS: DiffOrders ********************
 
-		ordersWriteLock.lock();
+	@Override
+	public DiffOrder[] readPayload(JsonScanner scanner) {
+		return DiffOrdersParser.readDiffOrders(scanner);
+	}
 
-		switch (order.getMarkerSide()) {
-		case BUY:
-			bidOrders.remove(order.getOrderID());
-			removeOrderByPrice(bidOrdersByPrice, order);
-			break;
+	@Override
+	public void handleMessage(WebsocketMessage<DiffOrder[]> response) {
 
-		case SELL:
-			askOrders.remove(order.getOrderID());
-			removeOrderByPrice(askOrdersByPrice, order);
-			break;
+		if (response.getPayload() == null) {
+			return;
 		}
 
-		ordersWriteLock.unlock();
+		eventLoop.publish(this, response.getPayload(), response.getSequence(), response.getReceivedNanos());
 	}
 
-	private Order getOrderByID(String orderID, MakerSide makerSide) {
+	/**
+	 * The diff-orders sent while the websocket was disconnected may be lost.
+	 * The book is kept: if the next diff-order is not the expected one it is
+	 * resynchronized at once, without waiting for the buffer of out of order
+	 * messages.
+	 */
+	@Override
+	public void onReconnect() {
+		eventLoop.publish(this, (Runnable) () -> reconnected = true, -1);
+	}
+
+	// ****************************** EVENT LOOP ******************************
+
+	@Override
+	public void onEvent(Object payload, long sequence) {
+
+		if (payload instanceof DiffOrder[]) {
+
+			LatencyMonitor monitor = latencyMonitor;
+			long receivedNanos = eventLoop.getEventTimestamp();
 
-		ordersReadLock.lock();
-		Order order = makerSide == BUY ? bidOrders.get(orderID) : askOrders.get(orderID);
-		ordersReadLock.unlock();
+			if (monitor == null || receivedNanos == 0) {
+				applyDiffOrders((DiffOrder[]) payload, sequence);
+				return;
+			}
 
-		return order;
+			long start = System.nanoTime();
+			applyDiffOrders((DiffOrder[]) payload, sequence);
+			long end = System.nanoTime();
+
+			monitor.record(Stage.QUEUE, start - eventLoop.getEventPublishNanos());
+			monitor.record(Stage.APPLY, end - start);
+			monitor.record(Stage.END_TO_END, end - receivedNanos);
+		} else if (payload instanceof InitialOrderBook) {
+			applyOrderBook((InitialOrderBook) payload, sequence);
+		} else if (payload instanceof Runnable) {
+			((Runnable) payload).run();
+		}
 	}
 
-	private void addOrderByPrice(Map<Double, List<Order>> orders, Order order) {
+	@Override
+	public void onEndOfBatch() {
+
+		if (bookChanged) {
+			bookChanged = false;
+			numOfBidOrders = bidPriceLevels.size();
+			numOfAskOrders = askPriceLevels.size();
+			numOfBidLevels = bidPriceLevels.getNumOfLevels();
+			numOfAskLevels = askPriceLevels.getNumOfLevels();
+			bookSnapshot = BookSnapshot.of(bookSequence, bidPriceLevels, askPriceLevels, SNAPSHOT_LEVELS,
+					FixedPoint.SCALE);
+			notifyBookTop(bookSnapshot);
+		}
+	}
 
-		List<Order> samePriceOrders = orders.get(order.getPrice());
+	private void notifyBookTop(BookSnapshot snapshot) {
 
-		if (samePriceOrders == null) {
-			samePriceOrders = new ArrayList<>();
-			orders.put(order.getPrice(), samePriceOrders);
+		MarketObserver[] observers = marketObservers;
+		if (observers.length == 0) {
+			return;
 		}
 
-		samePriceOrders.add(order);
+		double bestBidAmount = snapshot.getNumOfBidLevels() > 0 ? snapshot.getBidAmount(0) : Double.NaN;
+		double bestAskAmount = snapshot.getNumOfAskLevels() > 0 ? snapshot.getAskAmount(0) : Double.NaN;
+
+		notifications.add(observers.length);
+
+		for (MarketObserver observer : observers) {
+			observer.onBookTop(book, snapshot.getSequence(), snapshot.getBestBid(), bestBidAmount,
+					snapshot.getBestAsk(), bestAskAmount);
+		}
 	}
 
-	private void removeOrderByPrice(Map<Double, List<Order>> orders, Order order) {
+	private void applyDiffOrders(DiffOrder[] orders, long sequence) {
 
-		List<Order> samePriceOrders = orders.remove(order.getPrice());
+		diffOrderMessages.increment();
 
-		if (samePriceOrders == null) {
+		if (lastDiffOrdersSequence >= sequence) {
+			staleDiffOrders.increment();
 			return;
 		}
 
-		samePriceOrders.remove(order);
+		for (DiffOrder diffOrder : orders) {
+			diffOrder.setSequence(sequence);
+		}
+
+		if (diffOrders != null && diffOrders.size() >= MAX_QUEUED_MESSAGES) {
+			// the REST snapshot is taking too long, start over with a new one
+			log.warn("{} diff-orders queued waiting for the order book {}, requesting it again", diffOrders.size(),
+					book);
+			resync();
+		}
 
-		if (!samePriceOrders.isEmpty()) {
-			orders.put(order.getPrice(), samePriceOrders);
+		if (diffOrders != null) {
+			// the REST snapshot has not been applied yet
+			diffOrders.add(new WebsocketMessage<>(null, book, sequence, orders));
+			bufferedMessages = diffOrders.size();
+		} else {
+			sequenceDiffOrders(orders, sequence, true);
 		}
 	}
 
 	/**
-	 * Given an existing order, returns the index in the TreeMap
+	 * Applies the diff-orders in order of sequence, buffering the ones received
+	 * after a gap. A message with the sequence of the last one applied, or of
+	 * the REST snapshot, is already in the book and is dropped as stale, so it
+	 * is not stored nor sent to the observers twice.
 	 */
-	private int getOrderIndex(Order order) {
+	private void sequenceDiffOrders(DiffOrder[] orders, long sequence, boolean notify) {
+
+		if (sequence <= bookSequence) {
+			staleDiffOrders.increment();
+			return;
+		}
+
+		if (sequence > bookSequence + 1) {
+
+			outOfOrderDiffOrders.putIfAbsent(sequence, orders);
+			bufferedMessages = outOfOrderDiffOrders.size();
+
+			if (reconnected) {
+				log.warn("Diff-orders lost while reconnecting after sequence {}, resynchronizing the book",
+						bookSequence);
+				resync();
+			} else if (outOfOrderDiffOrders.size() > MAX_OUT_OF_ORDER_MESSAGES) {
+				log.warn("Diff-orders gap after sequence {}, resynchronizing the book", bookSequence);
+				resync();
+			}
+			return;
+		}
+
+		// nothing was lost while reconnecting
+		reconnected = false;
 
-		ordersReadLock.lock();
-		NavigableMap<Double, List<Order>> subMap = getOrdersByPriceMap(order.getMarkerSide()).headMap(order.getPrice(),
-				true);
-		List<Order> ordersSamePrice = subMap.lastEntry().getValue();
+		updateOffersByDiff(orders, sequence, notify);
 
-		int indexOrdersSamePrice = ordersSamePrice.indexOf(order);
-		int indexMap = (int) subMap.values().stream().flatMap(List::stream).count() - ordersSamePrice.size();
-		ordersReadLock.unlock();
+		// apply the buffered messages that are not ahead of a gap anymore
+		while (!outOfOrderDiffOrders.isEmpty() && outOfOrderDiffOrders.firstKey() <= bookSequence + 1) {
+			Map.Entry<Long, DiffOrder[]> entry = outOfOrderDiffOrders.pollFirstEntry();
+			if (entry.getKey() > bookSequence) {
+				updateOffersByDiff(entry.getValue(), entry.getKey(), notify);
+			} else {
+				staleDiffOrders.increment();
+			}
+		}
 
-		return indexMap + indexOrdersSamePrice;
+		bufferedMessages = outOfOrderDiffOrders.size();
 	}
 
-	/**
-	 * Returns the {@code TreeMap} of the corresponding {@code MakerSide}
-	 */
-	private TreeMap<Double, List<Order>> getOrdersByPriceMap(MakerSide makerSide) {
-		return makerSide == BUY ? bidOrdersByPrice : askOrdersByPrice;
+	private void updateOffersByDiff(DiffOrder[] orders, long sequence, boolean notify) {
+
+		for (DiffOrder diffOrder : orders) {
+			updateOffersByDiff(diffOrder, notify);
+		}
+
+		bookSequence = sequence;
+		bookChanged = true;
 	}
 
 	/**
-	 * Given a {@link List} of {@code Order}, it returns a {@link Map} with the
-	 * ID as key.
+	 * Starts queuing the diff-orders and requests a new REST snapshot.
 	 */
-	private Map<String, Order> getOrdersMap(List<OrderBookItem> orderBook, MakerSide makerSide) {
-		return orderBook.stream().map(o -> new Order(o.getOid(), makerSide, Double.parseDouble(o.getAmount()),
-				Double.parseDouble(o.getPrice()))).collect(Collectors.toMap(o -> o.getOrderID(), o -> o));
+	private void resync() {
+
+		resyncStartTime = System.nanoTime();
+		resyncs++;
+		reconnected = false;
+
+		diffOrders = new ArrayList<>();
+		outOfOrderDiffOrders.forEach((sequence, orders) -> diffOrders
+				.add(new WebsocketMessage<>(null, book, sequence, orders)));
+		outOfOrderDiffOrders.clear();
+		bufferedMessages = diffOrders.size();
+
+		getOrderBook();
+	}
+
+	private void applyOrderBook(InitialOrderBook orderBook, long sequence) {
+
+		if (orderBook.request != orderBookRequests.get()) {
+			// a newer snapshot was requested, this one is older than the queue
+			log.debug("Order book {} of an old request ignored, sequence: {}", book, sequence);
+			return;
+		}
+
+		askOrders = orderBook.asks;
+		bidOrders = orderBook.bids;
+		askLevels = orderBook.askLevels;
+		bidLevels = orderBook.bidLevels;
+		askPriceLevels = bookMode == BookMode.ORDERS ? askOrders : askLevels;
+		bidPriceLevels = bookMode == BookMode.ORDERS ? bidOrders : bidLevels;
+		lastDiffOrdersSequence = sequence;
+		bookSequence = sequence;
+		bookChanged = true;
+
+		log.debug("Ask orders: {}, Bid orders: {}", askPriceLevels.size(), bidPriceLevels.size());
+
+		// apply previous diff-order queued messages, in the same event as the
+		// snapshot: the book is published once and the observers are notified
+		// of the whole window below
+		log.debug("Applying previous diff-order queued messages: {}", diffOrders.size());
+		List<WebsocketMessage<DiffOrder[]>> queuedDiffOrders = diffOrders;
+		diffOrders = null;
+
+		for (WebsocketMessage<DiffOrder[]> message : queuedDiffOrders) {
+			if (message.getSequence() <= lastDiffOrdersSequence) {
+				staleDiffOrders.increment();
+				continue;
+			}
+			if (diffOrders != null) {
+				// a new gap was found, the book is being resynchronized again
+				diffOrders.add(message);
+			} else {
+				sequenceDiffOrders(message.getPayload(), message.getSequence(), false);
+			}
+		}
+
+		bufferedMessages = diffOrders != null ? diffOrders.size() : outOfOrderDiffOrders.size();
+
+		boolean firstBook = !initialized;
+		initialized = true;
+
+		if (firstBook) {
+			log.info("Book {} loaded in {} ms, sequence: {}", book,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - resyncStartTime), bookSequence);
+		} else if (diffOrders == null) {
+			lastResyncMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - resyncStartTime);
+			log.info("Book resynchronized in {} ms, sequence: {}", lastResyncMillis, bookSequence);
+		}
+
+		if (bookMode == BookMode.LEVELS) {
+			return;
+		}
+
+		int numOfOrders = numOfOrdersToObserve;
+		List<Order> askOrdersToObserve = askOrders.getBestOrders(numOfOrders);
+		List<Order> bidOrdersToObserve = bidOrders.getBestOrders(numOfOrders);
+
+		if (firstBook) {
+			// notify new orders lists to observers
+			notifyUi(
+					() -> ordersObservers.forEach(o -> o.setOrders(askOrdersToObserve, bidOrdersToObserve)));
+		} else {
+			// notify full lists
+			notifyUi(() -> ordersObservers.forEach(o -> {
+				o.ordersUpdated(askOrdersToObserve, SELL, -1);
+				o.ordersUpdated(bidOrdersToObserve, BUY, -1);
+			}));
+		}
+	}
+
+	// ****************************** DATA MODEL ******************************
+
+	public String getBook() {
+		return book;
+	}
+
+	public BookMode getBookMode() {
+		return bookMode;
 	}
 
 	/**
-	 * Given a {@link Map} of {@code Order} with the ID as key, it returns
-	 * {@code TreeMap} with the price as key, grouping the orders with the same
-	 * price in a {@code List}.
+	 * Returns the {@code OrderBookSide} of the corresponding {@code MakerSide}
 	 */
-	private TreeMap<Double, List<Order>> getOrdersSortedMap(Map<String, Order> map, boolean reverse) {
-		return map.values().stream().collect(Collectors.groupingBy(Order::getPrice,
-				() -> reverse ? new TreeMap<>(Collections.reverseOrder()) : new TreeMap<>(), Collectors.toList()));
+	private OrderBookSide getOrderBookSide(MakerSide makerSide) {
+		return makerSide == BUY ? bidOrders : askOrders;
+	}
+
+	private PriceLevelBookSide getPriceLevelBookSide(MakerSide makerSide) {
+		return makerSide == BUY ? bidLevels : askLevels;
 	}
 
 	/**
 	 * Updates the memory map using a {@link DiffOrder}
 	 */
-	private void updateOffersByDiff(DiffOrder diffOrder) {
+	private void updateOffersByDiff(DiffOrder diffOrder, boolean notify) {
 
 		MakerSide makerSide = diffOrder.getOrderType() == 0 ? BUY : SELL;
-		Order order = getOrderByID(diffOrder.getOrderID(), makerSide);
 
-		double amount = diffOrder.getAmount() != null ? Double.parseDouble(diffOrder.getAmount()) : 0;
+		long amount = diffOrder.getAmount();
+		long price = diffOrder.getRate();
+
+		long timestamp = diffOrder.getTimestamp() != null ? diffOrder.getTimestamp() : 0;
+
+		if (tickStore != null) {
+			tickStore.append(diffOrder.getSequence(), timestamp, makerSide == BUY ? TickStore.BUY : TickStore.SELL,
+					price, amount);
+		}
+
+		MarketObserver[] observers = marketObservers;
+		if (observers.length > 0) {
+			double priceValue = FixedPoint.toDouble(price);
+			double amountValue = FixedPoint.toDouble(amount);
+			for (MarketObserver observer : observers) {
+				observer.onDiff(book, diffOrder.getSequence(), timestamp, makerSide, priceValue, amountValue);
+			}
+		}
+
+		if (bookMode == BookMode.LEVELS) {
+			getPriceLevelBookSide(makerSide).apply(diffOrder.getOrderID(), price, amount);
+			return;
+		}
+
+		OrderBookSide orderBookSide = getOrderBookSide(makerSide);
+		Order order = orderBookSide.get(diffOrder.getOrderID());
 
 		if (order == null && amount == 0) {
 			// order not found in memory, it was cancelled: nothing to do
@@ -308,81 +622,298 @@ public class OrdersManager implements WebsocketHandler {
 
 		} else if (order == null) {
 			// order not found, new order
-			order = addOrder(
-					new Order(diffOrder.getOrderID(), makerSide, amount, Double.parseDouble(diffOrder.getRate())));
-		} else {
-			// order in memory, check if order was cancelled
-			if (amount == 0) {
-				order.setStatus(OrderStatus.CANCELLED);
-			} else {
-				order.update(amount, Double.parseDouble(diffOrder.getRate()));
+			order = new Order(diffOrder.getOrderID(), makerSide, amount, price);
+			orderBookSide.add(order, price);
+		} else if (amount == 0) {
+			// order in memory, cancelled
+			order.setStatus(OrderStatus.CANCELLED);
+		} else if (order.getPrice() != price) {
+			// a new price moves the order to the end of the queue of its new level
+			int oldIndex = orderBookSide.indexOf(order.getOrderID());
+			order.update(amount, price);
+			orderBookSide.update(order.getOrderID(), price);
+
+			if (notify && !ordersObservers.isEmpty()) {
+				notifyOrderMove(order, oldIndex, orderBookSide.indexOf(order.getOrderID()), numOfOrdersToObserve,
+						orderBookSide);
 			}
+			return;
+		} else {
+			// the order keeps its position in the book
+			order.update(amount, price);
+			orderBookSide.update(order.getOrderID(), price);
 		}
 
-		int index = getOrderIndex(order);
+		int index = orderBookSide.indexOf(order.getOrderID());
 		if (order.getStatus() == OrderStatus.CANCELLED) {
-			removeOrder(order);
+			orderBookSide.remove(order.getOrderID());
 		}
 
 		// check if changes from rest call were already applied and the index is
 		// in the range to be observed
 		int numOfOrders = numOfOrdersToObserve;
-		if (diffOrders == null && index < numOfOrders) {
-			notifyOrderUpdate(order, index, numOfOrders);
+		if (notify && index < numOfOrders && !ordersObservers.isEmpty()) {
+			notifyOrderUpdate(order, index, numOfOrders, orderBookSide);
 		}
 	}
 
+	// *************************** DATA OBSERVERS *****************************
+
 	/**
-	 * Return a sorted list from the sorted map with a limited number of orders.
-	 * It is not thread safe.
+	 * Returns the last top of the book published, it never blocks.
 	 */
-	private List<Order> getOrdersToObserve(Map<Double, List<Order>> orders, int numOfOrders) {
-		return orders.values().stream().limit(numOfOrders).flatMap(List::stream).limit(numOfOrders)
-				.collect(Collectors.toList());
+	public BookSnapshot getBookSnapshot() {
+		return bookSnapshot;
 	}
 
-	// *************************** DATA OBSERVERS *****************************
+	/**
+	 * Number of times the book has been resynchronized after a gap
+	 */
+	public long getResyncs() {
+		return resyncs;
+	}
+
+	/**
+	 * Time of the last resynchronization, from the gap to the new book
+	 */
+	public long getLastResyncMillis() {
+		return lastResyncMillis;
+	}
+
+	/**
+	 * Diff-order messages waiting for the REST snapshot or for a missing
+	 * sequence
+	 */
+	public int getBufferedMessages() {
+		return bufferedMessages;
+	}
+
+	/**
+	 * Number of orders of a side of the book, after the last change
+	 */
+	public int getNumOfOrders(MakerSide makerSide) {
+		return makerSide == BUY ? numOfBidOrders : numOfAskOrders;
+	}
+
+	/**
+	 * Number of price levels of a side of the book, after the last change
+	 */
+	public int getNumOfLevels(MakerSide makerSide) {
+		return makerSide == BUY ? numOfBidLevels : numOfAskLevels;
+	}
+
+	/**
+	 * Diff-order messages received since the start
+	 */
+	public long getDiffOrderMessages() {
+		return diffOrderMessages.sum();
+	}
+
+	/**
+	 * Diff-order messages dropped because the book was already ahead of them
+	 */
+	public long getStaleDiffOrders() {
+		return staleDiffOrders.sum();
+	}
+
+	/**
+	 * Notifications to the market and orders observers since the start
+	 */
+	public long getNotifications() {
+		return notifications.sum();
+	}
+
+	/**
+	 * Sets the executor that runs the notifications of the orders observers,
+	 * e.g. the JavaFX thread. By default they run in the event loop.
+	 */
+	public void setUiExecutor(Executor uiExecutor) {
+		this.uiExecutor = uiExecutor;
+	}
+
+	/**
+	 * Measures the latency of the diff-orders in the event loop and of the
+	 * notifications to the UI, see {@link LatencyMonitor}.
+	 */
+	public void setLatencyMonitor(LatencyMonitor latencyMonitor) {
+		this.latencyMonitor = latencyMonitor;
+	}
 
+	/**
+	 * Adds an observer of the orders, which are only kept in
+	 * {@link BookMode#ORDERS} mode
+	 */
 	public void addOrdersObserver(OrdersObserver ordersObserver) {
+
+		if (bookMode != BookMode.ORDERS) {
+			throw new IllegalStateException("The orders of " + book + " are not kept in " + bookMode + " mode");
+		}
+
 		ordersObservers.add(ordersObserver);
 	}
 
+	/**
+	 * Adds an observer of every diff-order and of the top of the book, called
+	 * by the event loop of the book
+	 */
+	public synchronized void addMarketObserver(MarketObserver marketObserver) {
+
+		MarketObserver[] observers = Arrays.copyOf(marketObservers, marketObservers.length + 1);
+		observers[observers.length - 1] = marketObserver;
+		marketObservers = observers;
+	}
+
+	/**
+	 * Stores the diff-orders applied to the book from now on, prices and
+	 * amounts with 8 decimals. The store is used only by the event loop.
+	 */
+	public void setTickStore(TickStore tickStore) {
+		eventLoop.publish(this, (Runnable) () -> this.tickStore = tickStore, -1);
+	}
+
 	public void setNumOfOrdersToObserve(int numOfOrdersToObserve) {
 
 		int oldValue = this.numOfOrdersToObserve;
 		this.numOfOrdersToObserve = numOfOrdersToObserve;
 
 		if (oldValue < numOfOrdersToObserve) {
-			ordersReadLock.lock();
-			List<Order> askOrdersToObserve = getOrdersToObserve(askOrdersByPrice, numOfOrdersToObserve);
-			List<Order> bidOrdersToObserve = getOrdersToObserve(bidOrdersByPrice, numOfOrdersToObserve);
-			ordersReadLock.unlock();
+			// the lists are built by the event loop, after the changes already received
+			eventLoop.publish(this, (Runnable) () -> {
 
-			Platform.runLater(() -> ordersObservers.forEach(o -> {
-				o.ordersUpdated(askOrdersToObserve, SELL, -1);
-				o.ordersUpdated(bidOrdersToObserve, BUY, -1);
-			}));
+				if (diffOrders != null || bookMode == BookMode.LEVELS) {
+					// the observers will receive the lists when the book is ready
+					return;
+				}
+
+				List<Order> askOrdersToObserve = askOrders.getBestOrders(numOfOrdersToObserve);
+				List<Order> bidOrdersToObserve = bidOrders.getBestOrders(numOfOrdersToObserve);
+
+				notifyUi(() -> ordersObservers.forEach(o -> {
+					o.ordersUpdated(askOrdersToObserve, SELL, -1);
+					o.ordersUpdated(bidOrdersToObserve, BUY, -1);
+				}));
+			}, -1);
 		}
 	}
 
-	private void notifyOrderUpdate(Order order, int index, int numOfOrders) {
+	/**
+	 * Runs a notification to the orders observers in the UI executor.
+	 */
+	private void notifyUi(Runnable notification) {
+
+		notifications.add(ordersObservers.size());
+
+		LatencyMonitor monitor = latencyMonitor;
+
+		if (monitor == null) {
+			uiExecutor.execute(notification);
+			return;
+		}
+
+		long queuedNanos = System.nanoTime();
+		uiExecutor.execute(() -> {
+			monitor.record(Stage.NOTIFY, System.nanoTime() - queuedNanos);
+			notification.run();
+		});
+	}
+
+	/**
+	 * Notifies the change of an order in the observed window as deltas, see
+	 * {@link OrdersObserver}: the window is not copied, only the orders that
+	 * enter or leave it are found in the book.
+	 */
+	private void notifyOrderUpdate(Order order, int index, int numOfOrders, OrderBookSide orderBookSide) {
 
 		log.debug("Notifiying order change at index: {}, status: {}", index, order.getStatus());
 
 		switch (order.getStatus()) {
 		case NEW:
+			// the last order of a full window leaves it
+			Order leaving = orderBookSide.getOrder(numOfOrders);
+			notifyUi(() -> ordersObservers.forEach(o -> {
+				o.orderInserted(order, index);
+				if (leaving != null) {
+					o.orderRemoved(leaving, numOfOrders);
+				}
+			}));
+			break;
 		case CANCELLED:
-			// notify full list
-			ordersReadLock.lock();
-			List<Order> ordersToObserve = getOrdersToObserve(getOrdersByPriceMap(order.getMarkerSide()), numOfOrders);
-			ordersReadLock.unlock();
-			Platform.runLater(
-					() -> ordersObservers.forEach(o -> o.ordersUpdated(ordersToObserve, order.getMarkerSide(), index)));
+			// the first order after the window enters it, the order is already removed
+			Order entering = orderBookSide.getOrder(numOfOrders - 1);
+			notifyUi(() -> ordersObservers.forEach(o -> {
+				o.orderRemoved(order, index);
+				if (entering != null) {
+					o.orderInserted(entering, numOfOrders - 1);
+				}
+			}));
 			break;
 		default:
 			// notify update
-			Platform.runLater(() -> ordersObservers.forEach(o -> o.orderUpdated(order, index)));
+			notifyUi(() -> ordersObservers.forEach(o -> o.orderUpdated(order, index)));
 			break;
 		}
 	}
+
+	/**
+	 * Notifies an order that changed its price, and so its position, as
+	 * deltas: it leaves the window at its old index and enters it at the new
+	 * one, and the order that fills or leaves the window, if any, is sent as
+	 * with a new or a cancelled order.
+	 */
+	private void notifyOrderMove(Order order, int oldIndex, int newIndex, int numOfOrders,
+			OrderBookSide orderBookSide) {
+
+		boolean wasObserved = oldIndex < numOfOrders;
+		boolean isObserved = newIndex < numOfOrders;
+
+		if (wasObserved && isObserved) {
+			notifyUi(() -> ordersObservers.forEach(o -> {
+				o.orderRemoved(order, oldIndex);
+				o.orderInserted(order, newIndex);
+			}));
+		} else if (wasObserved) {
+			// the first order after the window enters it
+			Order entering = orderBookSide.getOrder(numOfOrders - 1);
+			notifyUi(() -> ordersObservers.forEach(o -> {
+				o.orderRemoved(order, oldIndex);
+				if (entering != null) {
+					o.orderInserted(entering, numOfOrders - 1);
+				}
+			}));
+		} else if (isObserved) {
+			// the last order of a full window leaves it
+			Order leaving = orderBookSide.getOrder(numOfOrders);
+			notifyUi(() -> ordersObservers.forEach(o -> {
+				o.orderInserted(order, newIndex);
+				if (leaving != null) {
+					o.orderRemoved(leaving, numOfOrders);
+				}
+			}));
+		}
+	}
+
+	/**
+	 * Order book received by the REST call, already converted
+	 */
+	private static class InitialOrderBook {
+
+		private final long request;
+
+		// only in ORDERS mode
+		private final OrderBookSide asks;
+		private final OrderBookSide bids;
+
+		// only in LEVELS mode
+		private final PriceLevelBookSide askLevels;
+		private final PriceLevelBookSide bidLevels;
+
+		private InitialOrderBook(long request, OrderBookSide asks, OrderBookSide bids,
+				PriceLevelBookSide askLevels, PriceLevelBookSide bidLevels) {
+			this.request = request;
+			this.asks = asks;
+			this.bids = bids;
+			this.askLevels = askLevels;
+			this.bidLevels = bidLevels;
+		}
+	}
 }
@@ -2,135 +2,457 @@ package com.sonartrading.challenge.data;
 
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.sonartrading.challenge.api.RestAPI;
 import com.sonartrading.challenge.api.RestAPI.SortType;
 import com.sonartrading.challenge.api.dto.BitsoResponse;
 import com.sonartrading.challenge.api.dto.TradeBook;
+import com.sonartrading.challenge.data.model.FixedPoint;
 import com.sonartrading.challenge.data.model.MakerSide;
 import com.sonartrading.challenge.data.model.Trade;
+import com.sonartrading.challenge.data.observer.Dispatchers;
+import com.sonartrading.challenge.data.observer.MarketObserver;
 import com.sonartrading.challenge.data.observer.TradesObserver;
 import com.sonartrading.challenge.data.observer.TradesObserver.ObserverType;
 import com.sonartrading.challenge.exception.InitializationException;
 import com.sonartrading.challenge.parser.DateTime;
+import com.sonartrading.challenge.parser.JsonScanner;
+import com.sonartrading.challenge.parser.TradesParser;
+import com.sonartrading.challenge.store.TickStore;
+import com.sonartrading.challenge.ws.WebsocketClient;
+import com.sonartrading.challenge.ws.dto.WebsocketMessage;
+import com.sonartrading.challenge.ws.handler.WebsocketHandler;
 
-import javafx.application.Platform;
 import lombok.extern.slf4j.Slf4j;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 
+/**
+ * @author arturo
+ *
+ *         The trades are received by the 'trades' websocket channel. The REST
+ *         endpoint is used only to get the recent trades on startup and to
+ *         backfill the trades lost after a gap in the sequence of the
+ *         messages, paging from the last trade delivered.
+ *
+ *         Every trade is delivered once to the store and the market
+ *         observers, in order of trade ID: a trade is new only if its ID is
+ *         greater than the last one delivered, and while a backfill is in
+ *         flight the live trades are buffered and released after the
+ *         backfilled ones. A backfill that fails is retried a few times,
+ *         then the trades it should have recovered are given up and the
+ *         buffered ones are released.
+ *
+ *         All the changes to the recent trades are done by the trades
+ *         executor, one at a time.
+ */
 @Slf4j
-public class TradesManager {
+public class TradesManager implements WebsocketHandler<Trade[]> {
 
-	public static final int DEFAULT_TIME_TO_POLL_TRADES = 5;
+	private static final String TRADES_SUSCRIPTION = "trades";
 	public static final int DEFAULT_TRADES_TO_OBSERVE = 10;
 
+	// max number of trades by REST call when backfilling (the API limit)
+	private static final int BACKFILL_LIMIT = 100;
+
+	// a failed backfill is retried before releasing the buffered trades
+	public static final int BACKFILL_RETRIES = 2;
+	private static final long BACKFILL_RETRY_MILLIS = 1000;
+
 	private final String book;
 	private final RestAPI restAPI;
 
-	private final List<TradesObserver> tradesObservers = new ArrayList<>();
+	private final List<TradesObserver> tradesObservers = new CopyOnWriteArrayList<>();
+
+	// the UI observers run by this executor, by default inline
+	private volatile Executor uiExecutor = Dispatchers.INLINE;
+
+	// an array, so it can be iterated by the trades executor without allocations
+	private volatile MarketObserver[] marketObservers = new MarketObserver[0];
 
 	private final ExecutorService executorService;
-	private final ScheduledExecutorService schedulerdExecutor = Executors.newSingleThreadScheduledExecutor();
+	private final ExecutorService tradesExecutor;
+
+	// these values are used only by the trades executor, trades are sorted by ID
+	private final TreeMap<Long, Trade> recentTrades = new TreeMap<>();
+	// trades received and not delivered yet, waiting for a backfill
+	private final TreeMap<Long, Trade> pendingTrades = new TreeMap<>();
+	// ID of the last trade sent to the store and the market observers
+	private long lastDeliveredTradeID = -1;
+	private long lastSequence = -1;
+	private boolean backfilling = false;
+	// a new gap found while backfilling, the next page is requested anyway
+	private boolean gapWhileBackfilling = false;
+	private int backfillRetries = 0;
+
+	// if set, every new trade is stored
+	private TickStore tickStore;
 
-	private ScheduledFuture<?> scheduledFuture = null;
+	// metrics, lock-free
+	private final LongAdder tradeMessages = new LongAdder();
+	private final LongAdder staleTrades = new LongAdder();
+	private final LongAdder notifications = new LongAdder();
 
-	private int timeToPoll = DEFAULT_TIME_TO_POLL_TRADES;
-	
 	// these values could be modified by ui while is used by manager
 	private volatile int numOfTradesToObserve = DEFAULT_TRADES_TO_OBSERVE;
 
-	public TradesManager(String book, RestAPI restAPI, ExecutorService executorService) {
+	public TradesManager(String book, RestAPI restAPI, WebsocketClient websocketClient,
+			ExecutorService executorService) {
+		this(book, restAPI, websocketClient, executorService, Executors.newSingleThreadExecutor());
+	}
+
+	/**
+	 * Creates a manager that changes the recent trades with the given single
+	 * thread executor, which can be shared with other books.
+	 */
+	public TradesManager(String book, RestAPI restAPI, WebsocketClient websocketClient,
+			ExecutorService executorService, ExecutorService tradesExecutor) {
 
 		this.book = book;
 		this.restAPI = restAPI;
 		this.executorService = executorService;
+		this.tradesExecutor = tradesExecutor;
+
+		websocketClient.addHandler(book, TRADES_SUSCRIPTION, TradesManager.this);
+	}
+
+	public String getBook() {
+		return book;
 	}
 
 	// ********************** REST CALL / HANDLER Trades **********************
 
+	/**
+	 * Gets the most recent trades, used on startup and when more trades are
+	 * observed
+	 */
 	private void getRecentTrades() {
 
-		restAPI.getRecentTrades(book, SortType.DESC, numOfTradesToObserve)
-				.enqueue(new Callback<BitsoResponse<List<TradeBook>>>() {
+		restAPI.getRecentTrades(book, SortType.DESC, numOfTradesToObserve).enqueue(new TradesCallback(false, -1));
+	}
+
+	/**
+	 * Gets the trades after the given trade ID, in ascending order. The live
+	 * trades are buffered until the last page is received.
+	 */
+	private void backfill(long marker) {
+
+		backfilling = true;
+
+		log.debug("Backfilling trades after {}", marker);
+		restAPI.getTrades(book, marker, SortType.ASC, BACKFILL_LIMIT).enqueue(new TradesCallback(true, marker));
+	}
+
+	private class TradesCallback implements Callback<BitsoResponse<List<TradeBook>>> {
+
+		private final boolean backfill;
+		private final long marker;
+
+		private TradesCallback(boolean backfill, long marker) {
+			this.backfill = backfill;
+			this.marker = marker;
+		}
+
+		@Override
+		public void onResponse(Call<BitsoResponse<List<TradeBook>>> call,
+				Response<BitsoResponse<List<TradeBook>>> response) {
+
+			BitsoResponse<List<TradeBook>> tradeResponse = response.body();
 
-					@Override
-					public void onResponse(Call<BitsoResponse<List<TradeBook>>> call,
-							Response<BitsoResponse<List<TradeBook>>> response) {
+			if (tradeResponse == null || !Boolean.TRUE.equals(tradeResponse.getSuccess())) {
+				onError("Error trying to get trades, HTTP " + response.code(), null);
+				return;
+			}
 
-						BitsoResponse<List<TradeBook>> tradeResponse = response.body();
+			List<TradeBook> tradesBook = tradeResponse.getPayload();
+			log.debug("{} trades received", tradesBook.size());
 
-						if (!tradeResponse.getSuccess()) {
-							throw new InitializationException("Error trying to get last orders");
+			tradesExecutor.execute(() -> {
+
+				if (!backfill) {
+					// the recent trades, released in order if nothing is being backfilled
+					tradesBook.forEach(t -> bufferTrade(toTrade(t)));
+					releaseTrades();
+					return;
+				}
+
+				long lastTradeID = lastDeliveredTradeID;
+				backfillRetries = 0;
+
+				// the backfilled trades are received in asc order
+				for (TradeBook tradeBook : tradesBook) {
+					addTrade(toTrade(tradeBook));
+				}
+
+				// a full page or a new gap, there could be more trades
+				if ((tradesBook.size() == BACKFILL_LIMIT && lastDeliveredTradeID > lastTradeID)
+						|| gapWhileBackfilling) {
+					gapWhileBackfilling = false;
+					backfill(lastDeliveredTradeID);
+					notifyTrades();
+				} else {
+					backfilling = false;
+					releaseTrades();
+				}
+			});
+		}
+
+		@Override
+		public void onFailure(Call<BitsoResponse<List<TradeBook>>> call, Throwable t) {
+			onError("Error trying to get trades", t);
+		}
+
+		/**
+		 * A failed backfill is retried while the live trades are still
+		 * buffered, up to {@link TradesManager#BACKFILL_RETRIES} times. Then the trades
+		 * not backfilled are lost and the buffered ones are released.
+		 */
+		private void onError(String error, Throwable t) {
+
+			if (!backfill) {
+				throw new InitializationException(error, t);
+			}
+
+			tradesExecutor.execute(() -> {
+
+				if (backfillRetries < BACKFILL_RETRIES) {
+					backfillRetries++;
+					log.error("{}, backfill after trade {} retried in {} ms", error, marker, BACKFILL_RETRY_MILLIS, t);
+					executorService.execute(() -> {
+						try {
+							TimeUnit.MILLISECONDS.sleep(BACKFILL_RETRY_MILLIS);
+							tradesExecutor.execute(() -> backfill(marker));
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
 						}
+					});
+					return;
+				}
 
-						List<TradeBook> tradesBook = tradeResponse.getPayload();
-						List<Trade> trades = tradesBook.stream()
-								.map(t -> new Trade(t.getTid(), MakerSide.getByString(t.getMarkerSide()),
-										OffsetDateTime.parse(t.getCreated_at(), DateTime.DATE_TIME_FORMATTER),
-										Double.parseDouble(t.getAmount()), Double.parseDouble(t.getPrice())))
-								.collect(Collectors.toList());
-
-						log.debug("{} trades received", trades.size());
-						tradesObservers.forEach(o -> {
-							Runnable runnable = () -> o.tradesUpdated(trades);
-							if (o.getObserverType() == ObserverType.UI) {
-								Platform.runLater(runnable);
-							} else {
-								executorService.execute(runnable);
-							}
-						});
-					}
+				log.error("{}, trades after {} not backfilled", error, marker, t);
+				backfillRetries = 0;
+				backfilling = false;
+				gapWhileBackfilling = false;
+				releaseTrades();
+			});
+		}
+	}
+
+	private static Trade toTrade(TradeBook t) {
+		return new Trade(t.getTid(), MakerSide.getByString(t.getMarkerSide()),
+				OffsetDateTime.parse(t.getCreated_at(), DateTime.DATE_TIME_FORMATTER),
+				t.getAmount(), t.getPrice());
+	}
+
+	// ********************** WEBSOCKET HANDLERS: Trades **********************
+
+	@Override
+	public Trade[] readPayload(JsonScanner scanner) {
+		return TradesParser.readTrades(scanner);
+	}
+
+	@Override
+	public void handleMessage(WebsocketMessage<Trade[]> response) {
+
+		if (response.getPayload() == null) {
+			return;
+		}
 
-					@Override
-					public void onFailure(Call<BitsoResponse<List<TradeBook>>> call, Throwable t) {
-						throw new InitializationException("Error trying to get recent trades", t);
+		tradeMessages.increment();
+
+		tradesExecutor.execute(() -> {
+
+			Long sequence = response.getSequence();
+
+			if (sequence != null) {
+				if (lastSequence >= 0 && sequence > lastSequence + 1 && lastDeliveredTradeID >= 0) {
+					if (backfilling) {
+						gapWhileBackfilling = true;
+					} else {
+						log.warn("Trades gap after sequence {}, backfilling from trade {}", lastSequence,
+								lastDeliveredTradeID);
+						backfill(lastDeliveredTradeID);
 					}
-				});
+				}
+				lastSequence = Math.max(lastSequence, sequence);
+			}
+
+			for (Trade trade : response.getPayload()) {
+				bufferTrade(trade);
+			}
+
+			releaseTrades();
+		});
+	}
+
+	// ****************************** DATA MODEL ******************************
+
+	private void bufferTrade(Trade trade) {
+
+		if (trade.getTradeID() != null) {
+			pendingTrades.put(trade.getTradeID(), trade);
+		}
+	}
+
+	/**
+	 * Adds the buffered trades in order of ID and notifies the observers,
+	 * unless a backfill is in flight
+	 */
+	private void releaseTrades() {
+
+		if (backfilling) {
+			return;
+		}
+
+		Map.Entry<Long, Trade> entry;
+		while ((entry = pendingTrades.pollFirstEntry()) != null) {
+			addTrade(entry.getValue());
+		}
+
+		notifyTrades();
+	}
+
+	private void addTrade(Trade trade) {
+
+		if (trade.getTradeID() == null) {
+			return;
+		}
+
+		// trades up to the last one delivered were already received
+		if (trade.getTradeID() > lastDeliveredTradeID) {
+			onNewTrade(trade);
+			lastDeliveredTradeID = trade.getTradeID();
+		} else {
+			staleTrades.increment();
+		}
+
+		recentTrades.put(trade.getTradeID(), trade);
+
+		// keep just the trades observed
+		while (recentTrades.size() > numOfTradesToObserve) {
+			recentTrades.pollFirstEntry();
+		}
 	}
 
-	private void reschedulePolling() {
+	private void onNewTrade(Trade trade) {
+
+		OffsetDateTime date = trade.getDate();
+		long timestamp = date.toEpochSecond() * 1000 + date.getNano() / 1_000_000;
 
-		if (scheduledFuture != null) {
-			scheduledFuture.cancel(false);
+		if (tickStore != null) {
+			tickStore.append(trade.getTradeID(), timestamp,
+					trade.getMakerSide() == MakerSide.BUY ? TickStore.BUY : TickStore.SELL, trade.getPrice(),
+					trade.getAmount());
 		}
 
-		scheduledFuture = schedulerdExecutor.scheduleWithFixedDelay(this::getRecentTrades, 0, timeToPoll,
-				TimeUnit.SECONDS);
+		MarketObserver[] observers = marketObservers;
+		if (observers.length > 0) {
+			notifications.add(observers.length);
+			double price = FixedPoint.toDouble(trade.getPrice());
+			double amount = FixedPoint.toDouble(trade.getAmount());
+			for (MarketObserver observer : observers) {
+				observer.onTrade(book, trade.getTradeID(), timestamp, trade.getMakerSide(), price, amount);
+			}
+		}
+	}
+
+	/**
+	 * Stores the new trades from now on, prices and amounts with 8 decimals.
+	 * The store is used only by the trades executor.
+	 */
+	public void setTickStore(TickStore tickStore) {
+		tradesExecutor.execute(() -> this.tickStore = tickStore);
 	}
 
 	// *************************** DATA OBSERVERS *****************************
 
+	/**
+	 * Notifies the recent trades to the observers, sorted by date in desc
+	 * order
+	 */
+	private void notifyTrades() {
+
+		List<Trade> trades = new ArrayList<>(recentTrades.descendingMap().values());
+		notifications.add(tradesObservers.size());
+
+		tradesObservers.forEach(o -> {
+			Runnable runnable = () -> o.tradesUpdated(trades);
+			if (o.getObserverType() == ObserverType.UI) {
+				uiExecutor.execute(runnable);
+			} else {
+				executorService.execute(runnable);
+			}
+		});
+	}
+
+	/**
+	 * Sets the executor that runs the notifications of the UI observers, e.g.
+	 * the JavaFX thread. By default they run in the trades executor. The other
+	 * observers run in the executor service.
+	 */
+	public void setUiExecutor(Executor uiExecutor) {
+		this.uiExecutor = uiExecutor;
+	}
+
 	public void addTradesObserver(TradesObserver tradesObserver) {
 
 		tradesObservers.add(tradesObserver);
 
-		// start polling
+		// get the recent trades, then the websocket keeps them updated
 		if (tradesObservers.size() == 1) {
-			reschedulePolling();
+			getRecentTrades();
 		}
 	}
 
-	public void setPollingTime(int seconds) {
-		timeToPoll = seconds;
-		reschedulePolling();
+	/**
+	 * Adds an observer of every new trade, called by the trades executor
+	 */
+	public synchronized void addMarketObserver(MarketObserver marketObserver) {
+
+		MarketObserver[] observers = Arrays.copyOf(marketObservers, marketObservers.length + 1);
+		observers[observers.length - 1] = marketObserver;
+		marketObservers = observers;
+	}
+
+	/**
+	 * Trade messages received since the start
+	 */
+	public long getTradeMessages() {
+		return tradeMessages.sum();
 	}
-	
+
+	/**
+	 * Trades received again, by the websocket or by a backfill
+	 */
+	public long getStaleTrades() {
+		return staleTrades.sum();
+	}
+
+	/**
+	 * Notifications to the market and trades observers since the start
+	 */
+	public long getNotifications() {
+		return notifications.sum();
+	}
+
 	public void setNumOfTradesToObserve(int numOfTradesToObserve) {
 
 		int oldValue = this.numOfTradesToObserve;
 		this.numOfTradesToObserve = numOfTradesToObserve;
 
 		if (oldValue < numOfTradesToObserve) {
-			reschedulePolling();
+			getRecentTrades();
 		}
 	}
 }
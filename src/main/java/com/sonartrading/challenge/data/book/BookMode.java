@@ -0,0 +1,19 @@
+package com.sonartrading.challenge.data.book;
+
+/**
+ * What is kept of an order book, see {@code OrdersManager}
+ */
+public enum BookMode {
+
+	/**
+	 * Every order ({@link OrderBookSide}), needed by the observers of the
+	 * orders, with the totals of every price level
+	 */
+	ORDERS,
+
+	/**
+	 * Only the price levels ({@link PriceLevelBookSide}), enough for the top of
+	 * the book and the depth by price
+	 */
+	LEVELS
+}
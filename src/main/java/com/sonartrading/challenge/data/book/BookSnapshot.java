@@ -0,0 +1,150 @@
+package com.sonartrading.challenge.data.book;
+
+import java.util.Arrays;
+
+/**
+ * Immutable view of the top of an order book: the best price levels of every
+ * side with the total amount and the number of orders of each level.
+ * <p>
+ * A new snapshot is published by the writer of the book after every batch of
+ * changes, so any number of threads can read the last one without locks and
+ * without slowing down the writer. The sequence is the one of the last
+ * diff-order applied, so it can be used as the version of the snapshot.
+ */
+public final class BookSnapshot {
+
+	public static final BookSnapshot EMPTY = new BookSnapshot(-1, new double[0], new double[0], new int[0],
+			new double[0], new double[0], new int[0]);
+
+	private final long sequence;
+
+	private final double[] bidPrices;
+	private final double[] bidAmounts;
+	private final int[] bidCounts;
+	private final double[] askPrices;
+	private final double[] askAmounts;
+	private final int[] askCounts;
+
+	private BookSnapshot(long sequence, double[] bidPrices, double[] bidAmounts, int[] bidCounts,
+			double[] askPrices, double[] askAmounts, int[] askCounts) {
+		this.sequence = sequence;
+		this.bidPrices = bidPrices;
+		this.bidAmounts = bidAmounts;
+		this.bidCounts = bidCounts;
+		this.askPrices = askPrices;
+		this.askAmounts = askAmounts;
+		this.askCounts = askCounts;
+	}
+
+	/**
+	 * Takes a snapshot of the best levels of both sides. Prices and amounts
+	 * are converted from fixed-point dividing by the given scale.
+	 */
+	public static BookSnapshot of(long sequence, PriceLevels bids, PriceLevels asks, int maxLevels,
+			double scale) {
+
+		long[] prices = new long[maxLevels];
+		long[] amounts = new long[maxLevels];
+
+		int[] bidCounts = new int[maxLevels];
+		int numOfBids = bids.getBestLevels(maxLevels, prices, amounts, bidCounts);
+		double[] bidPrices = toDoubles(prices, numOfBids, scale);
+		double[] bidAmounts = toDoubles(amounts, numOfBids, scale);
+
+		int[] askCounts = new int[maxLevels];
+		int numOfAsks = asks.getBestLevels(maxLevels, prices, amounts, askCounts);
+		double[] askPrices = toDoubles(prices, numOfAsks, scale);
+		double[] askAmounts = toDoubles(amounts, numOfAsks, scale);
+
+		return new BookSnapshot(sequence, bidPrices, bidAmounts, Arrays.copyOf(bidCounts, numOfBids), askPrices,
+				askAmounts, Arrays.copyOf(askCounts, numOfAsks));
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	public int getNumOfBidLevels() {
+		return bidPrices.length;
+	}
+
+	public int getNumOfAskLevels() {
+		return askPrices.length;
+	}
+
+	/**
+	 * Price of the bid level with the given depth, the best one is 0
+	 */
+	public double getBidPrice(int depth) {
+		return bidPrices[depth];
+	}
+
+	public double getBidAmount(int depth) {
+		return bidAmounts[depth];
+	}
+
+	/**
+	 * Number of orders of the bid level with the given depth
+	 */
+	public int getBidCount(int depth) {
+		return bidCounts[depth];
+	}
+
+	/**
+	 * Price of the ask level with the given depth, the best one is 0
+	 */
+	public double getAskPrice(int depth) {
+		return askPrices[depth];
+	}
+
+	public double getAskAmount(int depth) {
+		return askAmounts[depth];
+	}
+
+	/**
+	 * Number of orders of the ask level with the given depth
+	 */
+	public int getAskCount(int depth) {
+		return askCounts[depth];
+	}
+
+	/**
+	 * Best bid price, or {@code NaN} if there are no bids
+	 */
+	public double getBestBid() {
+		return bidPrices.length > 0 ? bidPrices[0] : Double.NaN;
+	}
+
+	/**
+	 * Best ask price, or {@code NaN} if there are no asks
+	 */
+	public double getBestAsk() {
+		return askPrices.length > 0 ? askPrices[0] : Double.NaN;
+	}
+
+	/**
+	 * Difference between the best ask and the best bid, or {@code NaN} if any
+	 * side is empty
+	 */
+	public double getSpread() {
+		return getBestAsk() - getBestBid();
+	}
+
+	/**
+	 * Average of the best ask and the best bid, or {@code NaN} if any side is
+	 * empty
+	 */
+	public double getMidPrice() {
+		return (getBestAsk() + getBestBid()) / 2;
+	}
+
+	private static double[] toDoubles(long[] values, int length, double scale) {
+
+		double[] result = new double[length];
+		for (int i = 0; i < length; i++) {
+			result[i] = values[i] / scale;
+		}
+
+		return result;
+	}
+}
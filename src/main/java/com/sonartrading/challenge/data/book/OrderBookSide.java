@@ -0,0 +1,490 @@
+package com.sonartrading.challenge.data.book;
+
+import static com.sonartrading.challenge.data.book.OrderIdIndex.NOT_FOUND;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.sonartrading.challenge.data.model.MakerSide;
+import com.sonartrading.challenge.data.model.Order;
+
+/**
+ * One side (bids or asks) of an order book.
+ * <p>
+ * Prices are fixed-point {@code long} values kept in a sorted array of price
+ * levels. The best level is the last one of the array, so inserting or
+ * removing levels close to the top of the book only moves a few elements.
+ * Every level keeps a FIFO list of order slots; the slots are pooled and
+ * reused, so once the arrays have grown to the size of the book no memory is
+ * allocated by add, update or remove operations.
+ * <p>
+ * The number of orders of every level is also kept in a Fenwick tree (binary
+ * indexed tree) indexed by level, so the index of an order and the order at a
+ * given index are found in <i>O(log n)</i> plus a walk over the orders of just
+ * one level. The total amount of every level is kept as well, so the best
+ * price levels are copied without walking the orders.
+ * <p>
+ * It is not thread safe.
+ */
+public class OrderBookSide implements PriceLevels {
+
+	private static final int NIL = -1;
+
+	public static final int DEFAULT_LEVELS = 256;
+	public static final int DEFAULT_ORDERS = 1024;
+
+	private final MakerSide makerSide;
+
+	// price levels, sorted by key in ascending order (best level at the end)
+	private long[] levelKeys;
+	private int[] levelHeads;
+	private int[] levelTails;
+	private int[] levelSizes;
+	private long[] levelAmounts;
+	private int numOfLevels;
+
+	// Fenwick tree (1-based) with the number of orders by level
+	private int[] levelTree;
+
+	// order slots, linked by level
+	private Order[] slotOrders;
+	private long[] slotKeys;
+	private long[] slotAmounts;
+	private int[] slotNext;
+	private int[] slotPrev;
+	private int freeSlots = NIL;
+	private int usedSlots;
+	private int size;
+
+	private final OrderIdIndex orderIdIndex;
+
+	public OrderBookSide(MakerSide makerSide) {
+		this(makerSide, DEFAULT_LEVELS, DEFAULT_ORDERS);
+	}
+
+	public OrderBookSide(MakerSide makerSide, int expectedLevels, int expectedOrders) {
+
+		this.makerSide = makerSide;
+
+		int levels = Math.max(expectedLevels, 16);
+		levelKeys = new long[levels];
+		levelHeads = new int[levels];
+		levelTails = new int[levels];
+		levelSizes = new int[levels];
+		levelAmounts = new long[levels];
+		levelTree = new int[levels + 1];
+
+		int orders = Math.max(expectedOrders, 16);
+		slotOrders = new Order[orders];
+		slotKeys = new long[orders];
+		slotAmounts = new long[orders];
+		slotNext = new int[orders];
+		slotPrev = new int[orders];
+
+		orderIdIndex = new OrderIdIndex(orders);
+	}
+
+	public MakerSide getMakerSide() {
+		return makerSide;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int getNumOfLevels() {
+		return numOfLevels;
+	}
+
+	public Order get(String orderID) {
+		int slot = orderIdIndex.get(orderID);
+		return slot == NOT_FOUND ? null : slotOrders[slot];
+	}
+
+	/**
+	 * Adds a new order at the end of the queue of its price level. It returns
+	 * {@code false} if there is already an order with the same ID.
+	 */
+	public boolean add(Order order, long price) {
+
+		if (orderIdIndex.get(order.getOrderID()) != NOT_FOUND) {
+			return false;
+		}
+
+		int slot = allocateSlot();
+		slotOrders[slot] = order;
+		slotAmounts[slot] = order.getAmount();
+		orderIdIndex.put(order.getOrderID(), slot);
+
+		link(slot, toKey(price));
+		size++;
+
+		return true;
+	}
+
+	/**
+	 * Removes an order, returning it or {@code null} if it was not found.
+	 */
+	public Order remove(String orderID) {
+
+		int slot = orderIdIndex.remove(orderID);
+
+		if (slot == NOT_FOUND) {
+			return null;
+		}
+
+		Order order = slotOrders[slot];
+		unlink(slot);
+		releaseSlot(slot);
+		size--;
+
+		return order;
+	}
+
+	/**
+	 * Changes the price and the amount of an existing order, the amount is
+	 * read from the order already updated. If the price is the same the order
+	 * keeps its position in the queue, otherwise it is moved to the end of the
+	 * queue of the new price level.
+	 */
+	public boolean update(String orderID, long price) {
+
+		int slot = orderIdIndex.get(orderID);
+
+		if (slot == NOT_FOUND) {
+			return false;
+		}
+
+		long key = toKey(price);
+		long amount = slotOrders[slot].getAmount();
+
+		if (slotKeys[slot] != key) {
+			unlink(slot);
+			slotAmounts[slot] = amount;
+			link(slot, key);
+		} else {
+			levelAmounts[findLevel(key)] += amount - slotAmounts[slot];
+			slotAmounts[slot] = amount;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Given an existing order, returns the number of orders ahead of it (best
+	 * prices first, then arrival order within the same price), or -1 if the
+	 * order is not in the book.
+	 */
+	public int indexOf(String orderID) {
+
+		int slot = orderIdIndex.get(orderID);
+
+		if (slot == NOT_FOUND) {
+			return -1;
+		}
+
+		int level = findLevel(slotKeys[slot]);
+
+		// orders in better levels
+		int index = size - sumOfSizes(level);
+
+		for (int s = levelHeads[level]; s != slot; s = slotNext[s]) {
+			index++;
+		}
+
+		return index;
+	}
+
+	/**
+	 * Returns the order with the given index (best prices first, then arrival
+	 * order within the same price), or {@code null} if the index is out of
+	 * range.
+	 */
+	public Order getOrder(int index) {
+
+		if (index < 0 || index >= size) {
+			return null;
+		}
+
+		// the level with the order is the first one from the bottom where the
+		// number of orders reaches the position counted from the worst order
+		int level = findLevelBySize(size - index);
+		int slot = levelHeads[level];
+
+		for (int i = index - (size - sumOfSizes(level)); i > 0; i--) {
+			slot = slotNext[slot];
+		}
+
+		return slotOrders[slot];
+	}
+
+	/**
+	 * Returns a sorted list with a limited number of orders, best prices
+	 * first.
+	 */
+	public List<Order> getBestOrders(int numOfOrders) {
+		return getBestOrders(numOfOrders, new ArrayList<>(Math.max(Math.min(numOfOrders, size), 0)));
+	}
+
+	/**
+	 * Adds to the given list a limited number of orders, best prices first.
+	 */
+	public <L extends List<Order>> L getBestOrders(int numOfOrders, L orders) {
+
+		int count = 0;
+
+		for (int level = numOfLevels - 1; level >= 0 && count < numOfOrders; level--) {
+			for (int s = levelHeads[level]; s != NIL && count < numOfOrders; s = slotNext[s]) {
+				orders.add(slotOrders[s]);
+				count++;
+			}
+		}
+
+		return orders;
+	}
+
+	@Override
+	public int getBestLevels(int maxLevels, long[] prices, long[] amounts, int[] counts) {
+
+		int count = 0;
+
+		for (int level = numOfLevels - 1; level >= 0 && count < maxLevels; level--, count++) {
+			prices[count] = toKey(levelKeys[level]);
+			amounts[count] = levelAmounts[level];
+			counts[count] = levelSizes[level];
+		}
+
+		return count;
+	}
+
+	public void clear() {
+
+		Arrays.fill(slotOrders, 0, usedSlots, null);
+		orderIdIndex.clear();
+
+		numOfLevels = 0;
+		freeSlots = NIL;
+		usedSlots = 0;
+		size = 0;
+	}
+
+	// ****************************** PRICE LEVELS ******************************
+
+	/**
+	 * Bids are sorted by price and asks by the negated price, so the best
+	 * level is always the last one.
+	 */
+	private long toKey(long price) {
+		return makerSide == MakerSide.BUY ? price : -price;
+	}
+
+	private int findLevel(long key) {
+
+		int top = numOfLevels - 1;
+
+		// most of the changes happen at the top of the book
+		if (top >= 0 && levelKeys[top] == key) {
+			return top;
+		}
+
+		return Arrays.binarySearch(levelKeys, 0, numOfLevels, key);
+	}
+
+	private void link(int slot, long key) {
+
+		int level = findLevel(key);
+
+		if (level < 0) {
+			level = -level - 1;
+			insertLevel(level, key);
+		}
+
+		int tail = levelTails[level];
+
+		slotKeys[slot] = key;
+		slotPrev[slot] = tail;
+		slotNext[slot] = NIL;
+
+		if (tail == NIL) {
+			levelHeads[level] = slot;
+		} else {
+			slotNext[tail] = slot;
+		}
+
+		levelTails[level] = slot;
+		levelSizes[level]++;
+		levelAmounts[level] += slotAmounts[slot];
+		addToSize(level, 1);
+	}
+
+	private void unlink(int slot) {
+
+		int level = findLevel(slotKeys[slot]);
+		int prev = slotPrev[slot];
+		int next = slotNext[slot];
+
+		if (prev == NIL) {
+			levelHeads[level] = next;
+		} else {
+			slotNext[prev] = next;
+		}
+
+		if (next == NIL) {
+			levelTails[level] = prev;
+		} else {
+			slotPrev[next] = prev;
+		}
+
+		levelAmounts[level] -= slotAmounts[slot];
+
+		if (--levelSizes[level] == 0) {
+			removeLevel(level);
+		} else {
+			addToSize(level, -1);
+		}
+	}
+
+	private void insertLevel(int level, long key) {
+
+		if (numOfLevels == levelKeys.length) {
+			int capacity = levelKeys.length << 1;
+			levelKeys = Arrays.copyOf(levelKeys, capacity);
+			levelHeads = Arrays.copyOf(levelHeads, capacity);
+			levelTails = Arrays.copyOf(levelTails, capacity);
+			levelSizes = Arrays.copyOf(levelSizes, capacity);
+			levelAmounts = Arrays.copyOf(levelAmounts, capacity);
+			levelTree = new int[capacity + 1];
+			rebuildSizes(0);
+		}
+
+		int length = numOfLevels - level;
+		if (length > 0) {
+			System.arraycopy(levelKeys, level, levelKeys, level + 1, length);
+			System.arraycopy(levelHeads, level, levelHeads, level + 1, length);
+			System.arraycopy(levelTails, level, levelTails, level + 1, length);
+			System.arraycopy(levelSizes, level, levelSizes, level + 1, length);
+			System.arraycopy(levelAmounts, level, levelAmounts, level + 1, length);
+		}
+
+		levelKeys[level] = key;
+		levelHeads[level] = NIL;
+		levelTails[level] = NIL;
+		levelSizes[level] = 0;
+		levelAmounts[level] = 0;
+		numOfLevels++;
+
+		rebuildSizes(level);
+	}
+
+	private void removeLevel(int level) {
+
+		int length = numOfLevels - level - 1;
+		if (length > 0) {
+			System.arraycopy(levelKeys, level + 1, levelKeys, level, length);
+			System.arraycopy(levelHeads, level + 1, levelHeads, level, length);
+			System.arraycopy(levelTails, level + 1, levelTails, level, length);
+			System.arraycopy(levelSizes, level + 1, levelSizes, level, length);
+			System.arraycopy(levelAmounts, level + 1, levelAmounts, level, length);
+		}
+
+		numOfLevels--;
+
+		rebuildSizes(level);
+	}
+
+	// ************************** FENWICK TREE OF SIZES *************************
+
+	/**
+	 * Adds a value to the number of orders of a level.
+	 */
+	private void addToSize(int level, int value) {
+		for (int i = level + 1; i <= numOfLevels; i += i & -i) {
+			levelTree[i] += value;
+		}
+	}
+
+	/**
+	 * Returns the number of orders from the first (worst) level to the given
+	 * level, both included.
+	 */
+	private int sumOfSizes(int level) {
+
+		int sum = 0;
+
+		for (int i = level + 1; i > 0; i -= i & -i) {
+			sum += levelTree[i];
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Returns the first level where the number of orders from the first
+	 * (worst) level reaches the given value.
+	 */
+	private int findLevelBySize(int numOfOrders) {
+
+		int position = 0;
+
+		for (int step = Integer.highestOneBit(numOfLevels); step > 0; step >>= 1) {
+			int next = position + step;
+			if (next <= numOfLevels && levelTree[next] < numOfOrders) {
+				position = next;
+				numOfOrders -= levelTree[next];
+			}
+		}
+
+		return position;
+	}
+
+	/**
+	 * Rebuilds the tree nodes from the given level, after the levels were
+	 * moved by an insertion or removal. Changes close to the top of the book
+	 * only rebuild a few nodes.
+	 */
+	private void rebuildSizes(int level) {
+
+		for (int i = level + 1; i <= numOfLevels; i++) {
+
+			int sum = levelSizes[i - 1];
+			int first = i - (i & -i);
+
+			for (int child = i - 1; child > first; child -= child & -child) {
+				sum += levelTree[child];
+			}
+
+			levelTree[i] = sum;
+		}
+	}
+
+	// ****************************** ORDER SLOTS *******************************
+
+	private int allocateSlot() {
+
+		if (freeSlots != NIL) {
+			int slot = freeSlots;
+			freeSlots = slotNext[slot];
+			return slot;
+		}
+
+		if (usedSlots == slotOrders.length) {
+			int capacity = slotOrders.length << 1;
+			slotOrders = Arrays.copyOf(slotOrders, capacity);
+			slotKeys = Arrays.copyOf(slotKeys, capacity);
+			slotAmounts = Arrays.copyOf(slotAmounts, capacity);
+			slotNext = Arrays.copyOf(slotNext, capacity);
+			slotPrev = Arrays.copyOf(slotPrev, capacity);
+		}
+
+		return usedSlots++;
+	}
+
+	private void releaseSlot(int slot) {
+		slotOrders[slot] = null;
+		slotNext[slot] = freeSlots;
+		freeSlots = slot;
+	}
+}
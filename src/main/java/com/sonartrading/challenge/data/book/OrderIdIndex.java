@@ -0,0 +1,279 @@
+package com.sonartrading.challenge.data.book;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Open addressing hash table from order ID to slot number.
+ * <p>
+ * The order IDs of the exchange are short ASCII strings (16 characters), so
+ * they are stored as fixed-width keys of up to {@value #KEY_WIDTH} bytes, next
+ * to their slot numbers, in a single {@code long} array (three longs by
+ * entry, in the same cache line): the index keeps neither the {@code String}s
+ * of the IDs nor any object by entry, so a book at full depth adds no objects
+ * to be traced by the GC, and an ID is looked up reading its characters,
+ * without allocating. It uses linear probing and backward shift deletion, so
+ * there are no tombstones (only the array is reallocated when the table
+ * grows).
+ * <p>
+ * The IDs that do not fit in a key, longer or not ASCII, are kept in a map on
+ * the heap.
+ *
+ * It is not thread safe.
+ */
+class OrderIdIndex {
+
+	static final int NOT_FOUND = -1;
+
+	// maximum length of the IDs kept as keys
+	static final int KEY_WIDTH = 16;
+
+	// two longs with the characters of the ID, one with its length and value
+	private static final int ENTRY_LONGS = 3;
+	private static final int META_OFFSET = 2;
+	private static final long NOT_ASCII = 0x8080808080808080L;
+
+	private long[] table;
+	private int mask;
+	private int size;
+	private int resizeThreshold;
+
+	// IDs that do not fit in a key, created with the first one
+	private Map<String, Integer> overflow;
+
+	// the ID being looked up, set by encode
+	private long key0;
+	private long key1;
+	private long keyMeta;
+	private final char[] chars = new char[KEY_WIDTH];
+
+	OrderIdIndex(int expectedSize) {
+		allocate(tableSizeFor(expectedSize));
+	}
+
+	int get(String orderID) {
+
+		if (!encode(orderID)) {
+			Integer value = overflow != null ? overflow.get(orderID) : null;
+			return value != null ? value : NOT_FOUND;
+		}
+
+		int index = find();
+		return index < 0 ? NOT_FOUND : (int) getMeta(index);
+	}
+
+	void put(String orderID, int value) {
+
+		if (!encode(orderID)) {
+			if (overflow == null) {
+				overflow = new HashMap<>();
+			}
+			overflow.put(orderID, value);
+			return;
+		}
+
+		int index = find();
+
+		if (index < 0) {
+			index = -index - 1;
+			int offset = index * ENTRY_LONGS;
+			table[offset] = key0;
+			table[offset + 1] = key1;
+			size++;
+		}
+
+		table[index * ENTRY_LONGS + META_OFFSET] = keyMeta | (value & 0xFFFFFFFFL);
+
+		if (size > resizeThreshold) {
+			rehash((mask + 1) << 1);
+		}
+	}
+
+	int remove(String orderID) {
+
+		if (!encode(orderID)) {
+			Integer value = overflow != null ? overflow.remove(orderID) : null;
+			return value != null ? value : NOT_FOUND;
+		}
+
+		int index = find();
+
+		if (index < 0) {
+			return NOT_FOUND;
+		}
+
+		int value = (int) getMeta(index);
+		shiftKeys(index);
+		size--;
+
+		return value;
+	}
+
+	int size() {
+		return size + (overflow != null ? overflow.size() : 0);
+	}
+
+	void clear() {
+
+		Arrays.fill(table, 0);
+		size = 0;
+
+		if (overflow != null) {
+			overflow.clear();
+		}
+	}
+
+	// ********************************** KEYS **********************************
+
+	/**
+	 * Packs the characters of the ID in two longs, a byte by character, and
+	 * its length in the high half of the meta long (plus one, as 0 is an empty
+	 * entry). It returns {@code false} if the ID does not fit.
+	 */
+	private boolean encode(String orderID) {
+
+		int length = orderID.length();
+
+		if (length > KEY_WIDTH) {
+			return false;
+		}
+
+		char[] chars = this.chars;
+		orderID.getChars(0, length, chars, 0);
+		Arrays.fill(chars, length, KEY_WIDTH, (char) 0);
+
+		long k0 = pack(chars, 0);
+		long k1 = pack(chars, Long.BYTES);
+
+		if (((k0 | k1) & NOT_ASCII) != 0) {
+			return false;
+		}
+
+		key0 = k0;
+		key1 = k1;
+		keyMeta = (long) (length + 1) << 32;
+
+		return true;
+	}
+
+	/**
+	 * Packs eight characters in a long, keeping the high bit of every byte
+	 * for the characters that are not ASCII
+	 */
+	private static long pack(char[] chars, int from) {
+
+		long key = 0;
+		for (int i = Long.BYTES - 1; i >= 0; i--) {
+			char c = chars[from + i];
+			key = key << 8 | (c > 0x7F ? 0x80 : c);
+		}
+
+		return key;
+	}
+
+	/**
+	 * Returns the index of the encoded ID, or {@code -(insertion index) - 1}
+	 * if it is not in the table.
+	 */
+	private int find() {
+
+		int index = hash(key0, key1, keyMeta) & mask;
+		long meta;
+
+		while ((meta = getMeta(index)) != 0) {
+
+			int offset = index * ENTRY_LONGS;
+			if ((meta & 0xFFFFFFFF00000000L) == keyMeta && table[offset] == key0 && table[offset + 1] == key1) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+
+		return -index - 1;
+	}
+
+	private long getMeta(int index) {
+		return table[index * ENTRY_LONGS + META_OFFSET];
+	}
+
+	private static int hashAt(long[] table, int index) {
+		int offset = index * ENTRY_LONGS;
+		return hash(table[offset], table[offset + 1], table[offset + META_OFFSET] & 0xFFFFFFFF00000000L);
+	}
+
+	/**
+	 * Moves back the entries that follow a removed position, so the probe
+	 * sequences remain unbroken.
+	 */
+	private void shiftKeys(int index) {
+
+		int last;
+
+		while (true) {
+			last = index;
+			index = (index + 1) & mask;
+
+			while (true) {
+				if (getMeta(index) == 0) {
+					table[last * ENTRY_LONGS + META_OFFSET] = 0;
+					return;
+				}
+
+				int slot = hashAt(table, index) & mask;
+				if (last <= index ? last >= slot || slot > index : last >= slot && slot > index) {
+					break;
+				}
+				index = (index + 1) & mask;
+			}
+
+			copyEntry(table, index, table, last);
+		}
+	}
+
+	private void rehash(int newCapacity) {
+
+		long[] oldTable = table;
+		int oldCapacity = mask + 1;
+
+		allocate(newCapacity);
+
+		for (int i = 0; i < oldCapacity; i++) {
+			if (oldTable[i * ENTRY_LONGS + META_OFFSET] != 0) {
+
+				int index = hashAt(oldTable, i) & mask;
+
+				while (getMeta(index) != 0) {
+					index = (index + 1) & mask;
+				}
+				copyEntry(oldTable, i, table, index);
+			}
+		}
+	}
+
+	private static void copyEntry(long[] from, int fromIndex, long[] to, int toIndex) {
+		System.arraycopy(from, fromIndex * ENTRY_LONGS, to, toIndex * ENTRY_LONGS, ENTRY_LONGS);
+	}
+
+	private void allocate(int capacity) {
+		table = new long[capacity * ENTRY_LONGS];
+		mask = capacity - 1;
+		resizeThreshold = capacity - (capacity >> 2);
+	}
+
+	private static int hash(long key0, long key1, long meta) {
+		long h = (key0 * 0x9E3779B97F4A7C15L ^ key1) * 0x9E3779B97F4A7C15L ^ meta;
+		int i = (int) (h ^ (h >>> 32));
+		return i ^ (i >>> 16);
+	}
+
+	/**
+	 * The entries are three times bigger than a reference and an int, the
+	 * table is filled up to 3/4: the probes of linear probing read contiguous
+	 * longs
+	 */
+	private static int tableSizeFor(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(expectedSize + (expectedSize / 3), 8) - 1) << 1;
+		return Math.max(capacity, 16);
+	}
+}
@@ -0,0 +1,259 @@
+package com.sonartrading.challenge.data.book;
+
+import static com.sonartrading.challenge.data.book.OrderIdIndex.NOT_FOUND;
+
+import java.util.Arrays;
+
+import com.sonartrading.challenge.data.model.MakerSide;
+
+/**
+ * One side (bids or asks) of an order book aggregated by price: the total
+ * amount and the number of orders of every price level, in primitive arrays
+ * sorted like {@link OrderBookSide} (the best level is the last one).
+ * <p>
+ * The levels are changed incrementally by the same diff-orders as the full
+ * book. The diff-orders carry the new amount of an order, so the price and the
+ * amount of every order are remembered to know how much its level changes,
+ * but only as two {@code long} values in a pooled slot: there are no
+ * {@code Order} objects, no queues by level and no index of positions.
+ * Copying the best levels does not walk the orders.
+ * <p>
+ * It is not thread safe.
+ */
+public class PriceLevelBookSide implements PriceLevels {
+
+	private final MakerSide makerSide;
+
+	// price levels, sorted by key in ascending order (best level at the end)
+	private long[] levelKeys;
+	private long[] levelAmounts;
+	private int[] levelCounts;
+	private int numOfLevels;
+
+	// price key and amount of every order, the slots are reused
+	private long[] slotKeys;
+	private long[] slotAmounts;
+	private int[] freeSlots;
+	private int numOfFreeSlots;
+	private int usedSlots;
+	private int size;
+
+	private final OrderIdIndex orderIdIndex;
+
+	public PriceLevelBookSide(MakerSide makerSide) {
+		this(makerSide, OrderBookSide.DEFAULT_LEVELS, OrderBookSide.DEFAULT_ORDERS);
+	}
+
+	public PriceLevelBookSide(MakerSide makerSide, int expectedLevels, int expectedOrders) {
+
+		this.makerSide = makerSide;
+
+		int levels = Math.max(expectedLevels, 16);
+		levelKeys = new long[levels];
+		levelAmounts = new long[levels];
+		levelCounts = new int[levels];
+
+		int orders = Math.max(expectedOrders, 16);
+		slotKeys = new long[orders];
+		slotAmounts = new long[orders];
+		freeSlots = new int[orders];
+
+		orderIdIndex = new OrderIdIndex(orders);
+	}
+
+	public MakerSide getMakerSide() {
+		return makerSide;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int getNumOfLevels() {
+		return numOfLevels;
+	}
+
+	/**
+	 * Applies the new state of an order: it is added, its price or amount is
+	 * changed, or it is removed if the amount is 0. It returns {@code false} if
+	 * nothing changed, i.e. an unknown order was removed.
+	 */
+	public boolean apply(String orderID, long price, long amount) {
+
+		int slot = orderIdIndex.get(orderID);
+
+		if (slot == NOT_FOUND) {
+
+			if (amount == 0) {
+				return false;
+			}
+
+			slot = allocateSlot();
+			orderIdIndex.put(orderID, slot);
+
+			long key = toKey(price);
+			slotKeys[slot] = key;
+			slotAmounts[slot] = amount;
+			addToLevel(key, amount, 1);
+			size++;
+
+			return true;
+		}
+
+		long oldKey = slotKeys[slot];
+		long oldAmount = slotAmounts[slot];
+
+		if (amount == 0) {
+			orderIdIndex.remove(orderID);
+			freeSlots[numOfFreeSlots++] = slot;
+			addToLevel(oldKey, -oldAmount, -1);
+			size--;
+
+			return true;
+		}
+
+		long key = toKey(price);
+
+		if (key == oldKey) {
+			addToLevel(key, amount - oldAmount, 0);
+		} else {
+			addToLevel(oldKey, -oldAmount, -1);
+			addToLevel(key, amount, 1);
+			slotKeys[slot] = key;
+		}
+
+		slotAmounts[slot] = amount;
+
+		return true;
+	}
+
+	@Override
+	public int getBestLevels(int maxLevels, long[] prices, long[] amounts, int[] counts) {
+
+		int count = Math.min(maxLevels, numOfLevels);
+
+		for (int i = 0; i < count; i++) {
+			int level = numOfLevels - 1 - i;
+			prices[i] = toKey(levelKeys[level]);
+			amounts[i] = levelAmounts[level];
+			counts[i] = levelCounts[level];
+		}
+
+		return count;
+	}
+
+	/**
+	 * Fixed-point price of a level, 0 being the best one
+	 */
+	public long getPrice(int depth) {
+		return toKey(levelKeys[numOfLevels - 1 - depth]);
+	}
+
+	/**
+	 * Fixed-point total amount of the orders of a level, 0 being the best one
+	 */
+	public long getAmount(int depth) {
+		return levelAmounts[numOfLevels - 1 - depth];
+	}
+
+	/**
+	 * Number of orders of a level, 0 being the best one
+	 */
+	public int getCount(int depth) {
+		return levelCounts[numOfLevels - 1 - depth];
+	}
+
+	public void clear() {
+
+		orderIdIndex.clear();
+
+		numOfLevels = 0;
+		numOfFreeSlots = 0;
+		usedSlots = 0;
+		size = 0;
+	}
+
+	// ****************************** PRICE LEVELS ******************************
+
+	/**
+	 * Bids are sorted by price and asks by the negated price, so the best
+	 * level is always the last one.
+	 */
+	private long toKey(long price) {
+		return makerSide == MakerSide.BUY ? price : -price;
+	}
+
+	private void addToLevel(long key, long amount, int count) {
+
+		int top = numOfLevels - 1;
+
+		// most of the changes happen at the top of the book
+		int level = top >= 0 && levelKeys[top] == key ? top : Arrays.binarySearch(levelKeys, 0, numOfLevels, key);
+
+		if (level < 0) {
+			level = -level - 1;
+			insertLevel(level, key);
+		}
+
+		levelAmounts[level] += amount;
+		levelCounts[level] += count;
+
+		if (levelCounts[level] == 0) {
+			removeLevel(level);
+		}
+	}
+
+	private void insertLevel(int level, long key) {
+
+		if (numOfLevels == levelKeys.length) {
+			int capacity = levelKeys.length << 1;
+			levelKeys = Arrays.copyOf(levelKeys, capacity);
+			levelAmounts = Arrays.copyOf(levelAmounts, capacity);
+			levelCounts = Arrays.copyOf(levelCounts, capacity);
+		}
+
+		int length = numOfLevels - level;
+		if (length > 0) {
+			System.arraycopy(levelKeys, level, levelKeys, level + 1, length);
+			System.arraycopy(levelAmounts, level, levelAmounts, level + 1, length);
+			System.arraycopy(levelCounts, level, levelCounts, level + 1, length);
+		}
+
+		levelKeys[level] = key;
+		levelAmounts[level] = 0;
+		levelCounts[level] = 0;
+		numOfLevels++;
+	}
+
+	private void removeLevel(int level) {
+
+		int length = numOfLevels - level - 1;
+		if (length > 0) {
+			System.arraycopy(levelKeys, level + 1, levelKeys, level, length);
+			System.arraycopy(levelAmounts, level + 1, levelAmounts, level, length);
+			System.arraycopy(levelCounts, level + 1, levelCounts, level, length);
+		}
+
+		numOfLevels--;
+	}
+
+	// ****************************** ORDER SLOTS *******************************
+
+	private int allocateSlot() {
+
+		if (numOfFreeSlots > 0) {
+			return freeSlots[--numOfFreeSlots];
+		}
+
+		if (usedSlots == slotKeys.length) {
+			int capacity = slotKeys.length << 1;
+			slotKeys = Arrays.copyOf(slotKeys, capacity);
+			slotAmounts = Arrays.copyOf(slotAmounts, capacity);
+			freeSlots = Arrays.copyOf(freeSlots, capacity);
+		}
+
+		return usedSlots++;
+	}
+}
@@ -0,0 +1,25 @@
+package com.sonartrading.challenge.data.book;
+
+/**
+ * A side of a book that can copy its best price levels, see
+ * {@link BookSnapshot}.
+ */
+public interface PriceLevels {
+
+	/**
+	 * Number of orders in this side
+	 */
+	int size();
+
+	/**
+	 * Number of different prices in this side
+	 */
+	int getNumOfLevels();
+
+	/**
+	 * Copies the best price levels, best first: the fixed-point price, the
+	 * fixed-point total amount and the number of orders of every level. It
+	 * returns the number of levels copied.
+	 */
+	int getBestLevels(int maxLevels, long[] prices, long[] amounts, int[] counts);
+}
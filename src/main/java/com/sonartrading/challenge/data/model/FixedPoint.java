@@ -0,0 +1,150 @@
+package com.sonartrading.challenge.data.model;
+
+/**
+ * Prices and amounts are kept as {@code long} values with 8 decimals, the
+ * maximum precision of the books of the exchange, so they are compared and
+ * added without rounding errors, e.g. {@code "68700.01"} is
+ * {@code 6870001000000}.
+ * <p>
+ * The values are parsed straight from the ASCII characters of the messages,
+ * without creating a {@code String} or a {@code double}.
+ */
+public class FixedPoint {
+
+	public static final int DECIMALS = 8;
+	public static final long SCALE = 100_000_000L;
+
+	// the integer part must fit in a long once scaled
+	private static final long MAX_INTEGER = Long.MAX_VALUE / SCALE - 1;
+
+	private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L,
+			10_000_000L, 100_000_000L };
+
+	private FixedPoint() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	public static long parse(CharSequence value) {
+		return parse(value, 0, value.length());
+	}
+
+	/**
+	 * Parses a plain decimal number like {@code "-0.0125"}, rounding half up
+	 * the decimals beyond the scale.
+	 *
+	 * @throws NumberFormatException
+	 *             if the characters are not a plain decimal number or it is too
+	 *             large
+	 */
+	public static long parse(CharSequence value, int start, int end) {
+
+		int position = start;
+		boolean negative = false;
+
+		if (position < end && (value.charAt(position) == '-' || value.charAt(position) == '+')) {
+			negative = value.charAt(position) == '-';
+			position++;
+		}
+
+		long integer = 0;
+		int integerDigits = 0;
+
+		for (; position < end; position++) {
+
+			char c = value.charAt(position);
+			if (c == '.') {
+				break;
+			}
+			if (c < '0' || c > '9') {
+				throw numberFormatError(value, start, end);
+			}
+
+			integer = integer * 10 + (c - '0');
+			integerDigits++;
+
+			if (integer > MAX_INTEGER) {
+				throw numberFormatError(value, start, end);
+			}
+		}
+
+		long fraction = 0;
+		int fractionDigits = 0;
+		boolean roundUp = false;
+
+		if (position < end) {
+
+			// skips the decimal point
+			position++;
+
+			for (; position < end; position++) {
+
+				char c = value.charAt(position);
+				if (c < '0' || c > '9') {
+					throw numberFormatError(value, start, end);
+				}
+
+				if (fractionDigits < DECIMALS) {
+					fraction = fraction * 10 + (c - '0');
+				} else if (fractionDigits == DECIMALS) {
+					roundUp = c >= '5';
+				}
+				fractionDigits++;
+			}
+		}
+
+		if (integerDigits == 0 && fractionDigits == 0) {
+			throw numberFormatError(value, start, end);
+		}
+
+		long result = integer * SCALE + fraction * POWERS_OF_TEN[DECIMALS - Math.min(fractionDigits, DECIMALS)];
+		if (roundUp) {
+			result++;
+		}
+
+		return negative ? -result : result;
+	}
+
+	public static long of(double value) {
+		return Math.round(value * SCALE);
+	}
+
+	public static double toDouble(long value) {
+		return value / (double) SCALE;
+	}
+
+	/**
+	 * Plain decimal representation, without trailing zeros
+	 */
+	public static String toString(long value) {
+
+		StringBuilder builder = new StringBuilder(24);
+
+		if (value < 0) {
+			builder.append('-');
+		}
+
+		long abs = Math.abs(value);
+		builder.append(abs / SCALE);
+
+		long fraction = abs % SCALE;
+		if (fraction != 0) {
+
+			builder.append('.');
+
+			int length = builder.length();
+			builder.append(fraction + SCALE).deleteCharAt(length);
+
+			int last = builder.length() - 1;
+			while (builder.charAt(last) == '0') {
+				last--;
+			}
+			builder.setLength(last + 1);
+		}
+
+		return builder.toString();
+	}
+
+	private static NumberFormatException numberFormatError(CharSequence value, int start, int end) {
+		return new NumberFormatException("Invalid decimal: " + value.subSequence(start, end));
+	}
+}
@@ -7,19 +7,20 @@ public class Order {
 
 	private final String orderID;
 	private final MakerSide markerSide;
-	private double amount;
-	private double price;
+	// fixed point, see FixedPoint
+	private long amount;
+	private long price;
 
 	private OrderStatus status = OrderStatus.NEW;
 	
-	public Order(String orderID, MakerSide markerSide, double amount, double price) {
+	public Order(String orderID, MakerSide markerSide, long amount, long price) {
 		this.orderID = orderID;
 		this.markerSide = markerSide;
 		this.amount = amount;
 		this.price = price;
 	}
 
-	public void update(double amount, double price) {
+	public void update(long amount, long price) {
 		this.amount = amount;
 		this.price = price;
 		status = OrderStatus.UPDATED;
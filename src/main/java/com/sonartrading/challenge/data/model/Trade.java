@@ -9,6 +9,7 @@ public class Trade {
 	private Long tradeID;
 	private MakerSide makerSide;
 	private OffsetDateTime date;
-	private Double amount;
-	private Double price;
+	// fixed point, see FixedPoint
+	private long amount;
+	private long price;
 }
@@ -0,0 +1,21 @@
+package com.sonartrading.challenge.data.observer;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executors that run the notifications of the observers. The managers do not
+ * depend on the UI: an observer that must be notified in the JavaFX thread is
+ * given {@code Platform::runLater}, while the server and the controller of the
+ * application, which conflates the updates by itself, are notified inline.
+ */
+public class Dispatchers {
+
+	/**
+	 * Runs the notifications in the thread that sends them
+	 */
+	public static final Executor INLINE = Runnable::run;
+
+	private Dispatchers() {
+		throw new IllegalStateException("Utility class");
+	}
+}
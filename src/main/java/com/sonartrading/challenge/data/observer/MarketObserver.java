@@ -0,0 +1,36 @@
+package com.sonartrading.challenge.data.observer;
+
+import com.sonartrading.challenge.data.model.MakerSide;
+
+/**
+ * Receives every market event of a book as soon as it is handled by the
+ * managers, one at a time and with primitive values, instead of the lists
+ * sent to the UI.
+ * <p>
+ * The methods are called by the threads of the managers (the trades thread
+ * and the event loop of the book), so they must return fast.
+ */
+public interface MarketObserver {
+
+	/**
+	 * A new trade, the timestamp in epoch millis
+	 */
+	default void onTrade(String book, long tradeID, long timestamp, MakerSide makerSide, double price,
+			double amount) {
+	}
+
+	/**
+	 * The best prices of the book after a batch of changes, {@code NaN} if the
+	 * side is empty
+	 */
+	default void onBookTop(String book, long sequence, double bestBid, double bestBidAmount, double bestAsk,
+			double bestAskAmount) {
+	}
+
+	/**
+	 * A diff-order applied to the book, an amount of 0 is a cancellation
+	 */
+	default void onDiff(String book, long sequence, long timestamp, MakerSide makerSide, double price,
+			double amount) {
+	}
+}
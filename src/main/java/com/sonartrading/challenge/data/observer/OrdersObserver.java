@@ -5,10 +5,38 @@ import java.util.List;
 import com.sonartrading.challenge.data.model.MakerSide;
 import com.sonartrading.challenge.data.model.Order;
 
+/**
+ * Observer of the best orders of both sides of a book, the observed window.
+ * <p>
+ * The whole window is sent only when the book is loaded
+ * ({@link #setOrders(List, List)}), resynchronized or the window grows
+ * ({@link #ordersUpdated(List, MakerSide, int)}). Every change is sent as a
+ * delta at an index of the window of its side, so the observer keeps its own
+ * copy in sync without receiving the window again: when an order is inserted
+ * in a full window the last one is removed, and when an order is removed the
+ * next one of the book, if any, is inserted at the end.
+ */
 public interface OrdersObserver {
 
+	/**
+	 * The amount of the order at the given index changed, it keeps its
+	 * position
+	 */
 	void orderUpdated(Order order, int index);
 
+	/**
+	 * A new order at the given index, the ones after it move down
+	 */
+	void orderInserted(Order order, int index);
+
+	/**
+	 * The order at the given index left the window, the ones after it move up
+	 */
+	void orderRemoved(Order order, int index);
+
+	/**
+	 * The whole window of a side
+	 */
 	void ordersUpdated(List<Order> orders, MakerSide makerSide, int index);
 
 	void setOrders(List<Order> askOrders, List<Order> bidOrders);
@@ -0,0 +1,81 @@
+package com.sonartrading.challenge.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.sonartrading.challenge.journal.JournalRecord.RecordType;
+
+/**
+ * Reads the records of a journal written by {@link JournalWriter}, in the
+ * order they were received. The file is memory mapped, so reading it does not
+ * copy it to the heap.
+ */
+public class JournalReader implements Iterator<JournalRecord>, AutoCloseable {
+
+	private static final RecordType[] RECORD_TYPES = RecordType.values();
+
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+
+	public JournalReader(Path path) throws IOException {
+
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+
+		if (channel.size() > Integer.MAX_VALUE) {
+			channel.close();
+			throw new IOException("Journal too big to be mapped: " + path);
+		}
+
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+		if (buffer.remaining() < 8 || buffer.getInt() != JournalWriter.MAGIC) {
+			channel.close();
+			throw new IOException("Not a journal: " + path);
+		}
+
+		int version = buffer.getInt();
+		if (version != JournalWriter.VERSION) {
+			channel.close();
+			throw new IOException("Unsupported journal version: " + version);
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		return buffer.hasRemaining();
+	}
+
+	@Override
+	public JournalRecord next() {
+
+		if (!buffer.hasRemaining()) {
+			throw new NoSuchElementException();
+		}
+
+		RecordType type = RECORD_TYPES[buffer.get()];
+		long timestamp = buffer.getLong();
+		String key = readString();
+		String data = readString();
+
+		return new JournalRecord(type, timestamp, key, data);
+	}
+
+	private String readString() {
+
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,22 @@
+package com.sonartrading.challenge.journal;
+
+import lombok.Value;
+
+/**
+ * One message read from a journal: a websocket frame or the body of a REST
+ * response, with the {@code System.nanoTime()} of its reception.
+ */
+@Value
+public class JournalRecord {
+
+	public enum RecordType {
+		FRAME, REST
+	}
+
+	private RecordType type;
+	private long timestamp;
+
+	// relative URL of the REST request, empty for frames
+	private String key;
+	private String data;
+}
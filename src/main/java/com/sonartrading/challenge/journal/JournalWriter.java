@@ -0,0 +1,111 @@
+package com.sonartrading.challenge.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.sonartrading.challenge.journal.JournalRecord.RecordType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Appends the raw messages received to a binary journal, so they can be
+ * replayed later by the {@link ReplayDriver}.
+ * <p>
+ * The file starts with a magic number and a version, then every record is:
+ *
+ * <pre>
+ * type (byte) | timestamp nanos (long) | key length (int) | key (UTF-8) | data length (int) | data (UTF-8)
+ * </pre>
+ *
+ * Records are written to a buffer and the buffer to the file when it is full
+ * or on {@link #flush()}, so the thread that receives the messages does not
+ * do a write for every one. Frames and REST responses are received by
+ * different threads, so appends are synchronized.
+ */
+@Slf4j
+public class JournalWriter implements AutoCloseable {
+
+	static final int MAGIC = 0x534e524a;
+	static final int VERSION = 1;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int RECORD_HEADER_SIZE = 1 + 8 + 4 + 4;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	public JournalWriter(Path path) throws IOException {
+
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+
+		buffer.putInt(MAGIC).putInt(VERSION);
+		log.info("Recording journal {}", path);
+	}
+
+	public void appendFrame(String data) {
+		append(RecordType.FRAME, System.nanoTime(), "", data);
+	}
+
+	public void appendRest(String key, String data) {
+		append(RecordType.REST, System.nanoTime(), key, data);
+	}
+
+	synchronized void append(RecordType type, long timestamp, String key, String data) {
+
+		byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		byte[] dataBytes = data.getBytes(StandardCharsets.UTF_8);
+		int size = RECORD_HEADER_SIZE + keyBytes.length + dataBytes.length;
+
+		try {
+			if (buffer.remaining() < size) {
+				writeBuffer();
+			}
+
+			// records bigger than the buffer are written as they are
+			ByteBuffer target = size <= buffer.capacity() ? buffer : ByteBuffer.allocate(size);
+
+			target.put((byte) type.ordinal()).putLong(timestamp);
+			target.putInt(keyBytes.length).put(keyBytes);
+			target.putInt(dataBytes.length).put(dataBytes);
+
+			if (target != buffer) {
+				target.flip();
+				writeFully(target);
+			}
+
+		} catch (IOException e) {
+			throw new UncheckedIOException("Error writing to journal", e);
+		}
+	}
+
+	/**
+	 * Writes the buffered records to the file
+	 */
+	public synchronized void flush() throws IOException {
+		writeBuffer();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		writeBuffer();
+		channel.close();
+	}
+
+	private void writeBuffer() throws IOException {
+		buffer.flip();
+		writeFully(buffer);
+		buffer.clear();
+	}
+
+	private void writeFully(ByteBuffer source) throws IOException {
+		while (source.hasRemaining()) {
+			channel.write(source);
+		}
+	}
+}
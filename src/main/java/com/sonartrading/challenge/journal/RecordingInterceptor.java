@@ -0,0 +1,47 @@
+package com.sonartrading.challenge.journal;
+
+import java.io.IOException;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Appends the body of every successful REST response to the journal, with the
+ * relative URL of its request as the key.
+ */
+public class RecordingInterceptor implements Interceptor {
+
+	// bodies are copied up to this size, bigger ones are truncated
+	private static final long MAX_BODY_SIZE = 16L * 1024 * 1024;
+
+	private final JournalWriter journal;
+
+	public RecordingInterceptor(JournalWriter journal) {
+		this.journal = journal;
+	}
+
+	@Override
+	public Response intercept(Chain chain) throws IOException {
+
+		Response response = chain.proceed(chain.request());
+
+		if (response.isSuccessful() && response.body() != null) {
+			journal.appendRest(getKey(response.request().url()), response.peekBody(MAX_BODY_SIZE).string());
+		}
+
+		return response;
+	}
+
+	/**
+	 * The last segment of the path and the query, so the key does not depend
+	 * on the server
+	 */
+	static String getKey(HttpUrl url) {
+
+		String path = url.pathSegments().get(url.pathSize() - 1);
+		String query = url.encodedQuery();
+
+		return query == null ? path : path + "?" + query;
+	}
+}
@@ -0,0 +1,196 @@
+package com.sonartrading.challenge.journal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.sonartrading.challenge.api.RestAPI;
+import com.sonartrading.challenge.api.RestClient;
+import com.sonartrading.challenge.data.BookRegistry;
+import com.sonartrading.challenge.data.OrdersManager;
+import com.sonartrading.challenge.data.book.BookSnapshot;
+import com.sonartrading.challenge.journal.JournalRecord.RecordType;
+import com.sonartrading.challenge.strategy.ContrarianStrategy;
+import com.sonartrading.challenge.strategy.StrategyEngine;
+import com.sonartrading.challenge.strategy.StrategyEventLoops;
+import com.sonartrading.challenge.ws.WebsocketClient;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+
+/**
+ * Replays a journal recorded by {@link JournalWriter} without network: the
+ * frames are given to a {@link WebsocketClient} without connection and the
+ * REST requests are answered with the recorded responses.
+ * <p>
+ * The frames are replayed as fast as possible or with the time between them
+ * when they were received, divided by the given speed.
+ *
+ * <pre>
+ * java -Dbooks=btc_mxn -cp sonar-trading.jar com.sonartrading.challenge.journal.ReplayDriver journal.bin [speed]
+ * </pre>
+ */
+@Slf4j
+public class ReplayDriver implements AutoCloseable {
+
+	public static final double AS_FAST_AS_POSSIBLE = 0;
+
+	// the requests never leave the process
+	private static final String REPLAY_ENDPOINT = "http://replay/v3/";
+
+	private static final String BOOKS_PROPERTY = "books";
+	private static final String BOOK = "btc_mxn";
+	// directory to store the trades and diff-orders, see TickStore
+	private static final String TICKS_PROPERTY = "ticks";
+	// comma separated list of classes of other strategies to run, see Strategy
+	private static final String STRATEGIES_PROPERTY = "strategies";
+	private static final int WORKER_THREADS = 4;
+
+	private final Path journal;
+	private final double speed;
+
+	private final ReplayInterceptor replayInterceptor = new ReplayInterceptor();
+	private final OkHttpClient httpClient = new OkHttpClient.Builder().addInterceptor(replayInterceptor).build();
+
+	public ReplayDriver(Path journal, double speed) throws IOException {
+
+		this.journal = journal;
+		this.speed = speed;
+
+		try (JournalReader reader = new JournalReader(journal)) {
+			while (reader.hasNext()) {
+				JournalRecord record = reader.next();
+				if (record.getType() == RecordType.REST) {
+					replayInterceptor.addResponse(record.getKey(), record.getData());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Local stand-in of the REST API, answers with the recorded responses
+	 */
+	public RestAPI getRestAPI() {
+		return new RestClient(REPLAY_ENDPOINT, httpClient).getAPI();
+	}
+
+	/**
+	 * Gives all the recorded frames to the client, from the calling thread.
+	 * Returns the number of frames replayed.
+	 */
+	public long replay(WebsocketClient websocketClient) throws IOException {
+
+		long frames = 0;
+		long start = System.nanoTime();
+		long firstTimestamp = -1;
+
+		try (JournalReader reader = new JournalReader(journal)) {
+			while (reader.hasNext()) {
+
+				JournalRecord record = reader.next();
+				if (record.getType() != RecordType.FRAME) {
+					continue;
+				}
+
+				if (firstTimestamp < 0) {
+					firstTimestamp = record.getTimestamp();
+				}
+
+				if (speed > AS_FAST_AS_POSSIBLE) {
+					awaitUntil(start + (long) ((record.getTimestamp() - firstTimestamp) / speed));
+				}
+
+				try {
+					websocketClient.onTextMessage(null, record.getData());
+				} catch (Exception e) {
+					log.error("Error replaying frame {}", record.getData(), e);
+				}
+
+				frames++;
+			}
+		}
+
+		return frames;
+	}
+
+	@Override
+	public void close() {
+		httpClient.dispatcher().executorService().shutdown();
+	}
+
+	private static void awaitUntil(long nanoTime) {
+
+		long remaining;
+		while ((remaining = nanoTime - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(remaining);
+		}
+	}
+
+	/**
+	 * Replays a journal through the managers of the books and the strategies,
+	 * then logs the time it took and the final top of the books.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		if (args.length == 0) {
+			log.error("Usage: ReplayDriver <journal> [speed]");
+			return;
+		}
+
+		double speed = args.length > 1 ? Double.parseDouble(args[1]) : AS_FAST_AS_POSSIBLE;
+		ExecutorService executorService = Executors.newFixedThreadPool(WORKER_THREADS);
+		WebsocketClient websocketClient = new WebsocketClient();
+		StrategyEventLoops strategyEventLoops = new StrategyEventLoops();
+		List<StrategyEngine> strategyEngines = new ArrayList<>();
+
+		try (ReplayDriver replayDriver = new ReplayDriver(Paths.get(args[0]), speed);
+				BookRegistry bookRegistry = new BookRegistry(replayDriver.getRestAPI(), websocketClient,
+						executorService)) {
+
+			String ticks = System.getProperty(TICKS_PROPERTY);
+			if (ticks != null) {
+				bookRegistry.setTickStoreDirectory(Paths.get(ticks));
+			}
+
+			for (String book : System.getProperty(BOOKS_PROPERTY, BOOK).split(",")) {
+				bookRegistry.addBook(book.trim());
+			}
+
+			// the strategies of every book are run by their own engine, every
+			// strategy by one thread for all the books
+			for (String book : bookRegistry.getBooks()) {
+				StrategyEngine strategyEngine = new StrategyEngine(strategyEventLoops);
+				bookRegistry.getOrdersManager(book).addMarketObserver(strategyEngine);
+				bookRegistry.getTradesManager(book).addMarketObserver(strategyEngine);
+				strategyEngine.addStrategy(new ContrarianStrategy());
+				strategyEngine.addStrategies(System.getProperty(STRATEGIES_PROPERTY, ""));
+				strategyEngines.add(strategyEngine);
+			}
+
+			long start = System.nanoTime();
+			long frames = replayDriver.replay(websocketClient);
+			bookRegistry.awaitIdle();
+			long elapsed = System.nanoTime() - start;
+
+			log.info("{} frames replayed in {} ms, {} frames/s", frames, TimeUnit.NANOSECONDS.toMillis(elapsed),
+					elapsed > 0 ? frames * TimeUnit.SECONDS.toNanos(1) / elapsed : frames);
+
+			for (String book : bookRegistry.getBooks()) {
+				OrdersManager ordersManager = bookRegistry.getOrdersManager(book);
+				BookSnapshot snapshot = ordersManager.getBookSnapshot();
+				log.info("{}: sequence {}, best bid {}, best ask {}, resyncs {}", book, snapshot.getSequence(),
+						snapshot.getBestBid(), snapshot.getBestAsk(), ordersManager.getResyncs());
+			}
+		} finally {
+			strategyEngines.forEach(StrategyEngine::close);
+			strategyEventLoops.close();
+			executorService.shutdown();
+		}
+	}
+}
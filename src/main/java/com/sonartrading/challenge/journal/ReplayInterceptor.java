@@ -0,0 +1,70 @@
+package com.sonartrading.challenge.journal;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Answers the REST requests with the responses recorded in a journal, without
+ * network. Used with {@code RestClient} it is a local stand-in of the Bitso
+ * API.
+ * <p>
+ * A request gets the responses recorded for the same URL in the order they
+ * were recorded, the last one is repeated. If the URL was never recorded
+ * (e.g. a backfill from another trade) the last response of the same endpoint
+ * and book is used, and if there is none an unsuccessful Bitso response.
+ */
+@Slf4j
+public class ReplayInterceptor implements Interceptor {
+
+	private static final MediaType JSON = MediaType.parse("application/json");
+	private static final String NOT_RECORDED = "{\"success\":false}";
+
+	private final Map<String, Deque<String>> responses = new HashMap<>();
+	private final Map<String, String> lastResponses = new HashMap<>();
+
+	public synchronized void addResponse(String key, String body) {
+		responses.computeIfAbsent(key, k -> new ArrayDeque<>()).add(body);
+		lastResponses.put(getEndpoint(HttpUrl.parse("http://replay/" + key)), body);
+	}
+
+	@Override
+	public Response intercept(Chain chain) {
+
+		Request request = chain.request();
+
+		return new Response.Builder().request(request).protocol(Protocol.HTTP_1_1).code(200).message("OK")
+				.body(ResponseBody.create(JSON, getResponse(request.url()))).build();
+	}
+
+	private synchronized String getResponse(HttpUrl url) {
+
+		Deque<String> recorded = responses.get(RecordingInterceptor.getKey(url));
+
+		if (recorded != null) {
+			return recorded.size() > 1 ? recorded.poll() : recorded.peek();
+		}
+
+		String body = lastResponses.get(getEndpoint(url));
+		if (body != null) {
+			return body;
+		}
+
+		log.warn("No response recorded for {}", url);
+		return NOT_RECORDED;
+	}
+
+	private static String getEndpoint(HttpUrl url) {
+		return url.pathSegments().get(url.pathSize() - 1) + "?book=" + url.queryParameter("book");
+	}
+}
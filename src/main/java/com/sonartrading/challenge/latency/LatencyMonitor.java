@@ -0,0 +1,160 @@
+package com.sonartrading.challenge.latency;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Latency of every {@link Stage} of the diff-orders, from the frame received
+ * by the websocket to the book changed and the UI notified, plus the depths
+ * of the queues between them. It tells where the time of a spike goes:
+ * parsing, waiting for the event loop, changing the book or waiting for the
+ * UI thread.
+ * <p>
+ * The components record the {@code System.nanoTime()} differences of their
+ * stage, see {@link StageLatency}. Every period the monitor takes the
+ * histograms of the last interval, which are published through JMX (domain
+ * {@value #JMX_DOMAIN}) and logged with the queue depths.
+ */
+@Slf4j
+public class LatencyMonitor implements LatencyMonitorMXBean, AutoCloseable {
+
+	public static final String JMX_DOMAIN = "com.sonartrading.challenge";
+
+	private final StageLatency[] stages;
+	private final Map<String, IntSupplier> queueDepths = new ConcurrentSkipListMap<>();
+
+	private final List<ObjectName> mbeanNames = new ArrayList<>();
+	private ScheduledExecutorService scheduler;
+
+	public LatencyMonitor() {
+
+		stages = new StageLatency[Stage.values().length];
+		for (Stage stage : Stage.values()) {
+			stages[stage.ordinal()] = new StageLatency(stage);
+		}
+	}
+
+	public void record(Stage stage, long nanos) {
+		stages[stage.ordinal()].record(nanos);
+	}
+
+	public StageLatency getStage(Stage stage) {
+		return stages[stage.ordinal()];
+	}
+
+	/**
+	 * Adds a queue whose depth is published with the latencies
+	 */
+	public void addQueueDepth(String name, IntSupplier depth) {
+		queueDepths.put(name, depth);
+	}
+
+	@Override
+	public Map<String, Integer> getQueueDepths() {
+
+		Map<String, Integer> depths = new LinkedHashMap<>();
+		queueDepths.forEach((name, depth) -> depths.put(name, depth.getAsInt()));
+
+		return depths;
+	}
+
+	/**
+	 * Takes the histograms of the values recorded since the last sample.
+	 */
+	public void sample() {
+		for (StageLatency stage : stages) {
+			stage.sample();
+		}
+	}
+
+	/**
+	 * Samples and logs the latencies every period, in a thread of its own.
+	 */
+	public synchronized void start(long period, TimeUnit unit) {
+
+		if (scheduler != null) {
+			return;
+		}
+
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "latency-monitor");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		scheduler.scheduleAtFixedRate(() -> {
+			sample();
+			logLatencies();
+		}, period, period, unit);
+	}
+
+	/**
+	 * Registers the latency of every stage and the queue depths in the
+	 * platform MBean server.
+	 */
+	public synchronized void registerMBeans() {
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+		try {
+			for (StageLatency stage : stages) {
+				register(server, stage, new ObjectName(JMX_DOMAIN + ":type=Latency,stage=" + stage.getStage()));
+			}
+			register(server, this, new ObjectName(JMX_DOMAIN + ":type=Queues"));
+		} catch (JMException e) {
+			log.error("Error registering the latency MBeans", e);
+		}
+	}
+
+	private void register(MBeanServer server, Object mbean, ObjectName name) throws JMException {
+		server.registerMBean(mbean, name);
+		mbeanNames.add(name);
+	}
+
+	private void logLatencies() {
+
+		for (StageLatency stage : stages) {
+			if (stage.getCount() > 0) {
+				log.info("Latency {}", stage);
+			}
+		}
+
+		if (!queueDepths.isEmpty()) {
+			log.info("Queue depths: {}", getQueueDepths());
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+		for (ObjectName name : mbeanNames) {
+			try {
+				server.unregisterMBean(name);
+			} catch (JMException e) {
+				log.warn("Error unregistering MBean {}", name, e);
+			}
+		}
+
+		mbeanNames.clear();
+	}
+}
@@ -0,0 +1,11 @@
+package com.sonartrading.challenge.latency;
+
+import java.util.Map;
+
+/**
+ * Depths of the queues of the pipeline, by name.
+ */
+public interface LatencyMonitorMXBean {
+
+	Map<String, Integer> getQueueDepths();
+}
@@ -0,0 +1,36 @@
+package com.sonartrading.challenge.latency;
+
+/**
+ * Stages of the diff-orders measured by the {@link LatencyMonitor}.
+ */
+public enum Stage {
+
+	/**
+	 * From the frame received by the websocket to its payload parsed, with
+	 * the record in the journal if there is one
+	 */
+	PARSE,
+
+	/**
+	 * From the diff-orders published to the event loop of the book to the
+	 * loop handling them, i.e. the wait in the ring
+	 */
+	QUEUE,
+
+	/**
+	 * Diff-orders of a message applied to the book
+	 */
+	APPLY,
+
+	/**
+	 * From a notification of the orders given to the UI executor (e.g.
+	 * {@code Platform.runLater}) to the notification running
+	 */
+	NOTIFY,
+
+	/**
+	 * From the frame received by the websocket to its diff-orders applied to
+	 * the book
+	 */
+	END_TO_END
+}
@@ -0,0 +1,88 @@
+package com.sonartrading.challenge.latency;
+
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies of a {@link Stage}, recorded by any thread in an HdrHistogram
+ * {@link Recorder}: recording is wait-free and, as the range of the histogram
+ * is fixed, it does not allocate memory. Longer values are recorded as the
+ * highest one.
+ * <p>
+ * {@link #sample()} takes the histogram of the values recorded since the last
+ * sample, reusing the same histograms, and keeps its percentiles.
+ */
+public class StageLatency implements StageLatencyMXBean {
+
+	private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+	private static final int SIGNIFICANT_DIGITS = 3;
+
+	private final Stage stage;
+	private final Recorder recorder = new Recorder(1, HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+
+	// used only by the thread that samples
+	private Histogram interval;
+
+	// last interval sampled
+	private volatile long count;
+	private volatile long p50Nanos;
+	private volatile long p99Nanos;
+	private volatile long p999Nanos;
+	private volatile long maxNanos;
+
+	StageLatency(Stage stage) {
+		this.stage = stage;
+	}
+
+	public Stage getStage() {
+		return stage;
+	}
+
+	public void record(long nanos) {
+		recorder.recordValue(Math.min(Math.max(nanos, 0), HIGHEST_TRACKABLE_NANOS));
+	}
+
+	synchronized void sample() {
+
+		interval = recorder.getIntervalHistogram(interval);
+
+		count = interval.getTotalCount();
+		p50Nanos = interval.getValueAtPercentile(50);
+		p99Nanos = interval.getValueAtPercentile(99);
+		p999Nanos = interval.getValueAtPercentile(99.9);
+		maxNanos = interval.getMaxValue();
+	}
+
+	@Override
+	public long getCount() {
+		return count;
+	}
+
+	@Override
+	public double getP50Micros() {
+		return p50Nanos / 1000.0;
+	}
+
+	@Override
+	public double getP99Micros() {
+		return p99Nanos / 1000.0;
+	}
+
+	@Override
+	public double getP999Micros() {
+		return p999Nanos / 1000.0;
+	}
+
+	@Override
+	public double getMaxMicros() {
+		return maxNanos / 1000.0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: count %d, p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us", stage, count,
+				getP50Micros(), getP99Micros(), getP999Micros(), getMaxMicros());
+	}
+}
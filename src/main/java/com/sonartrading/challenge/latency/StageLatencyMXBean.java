@@ -0,0 +1,18 @@
+package com.sonartrading.challenge.latency;
+
+/**
+ * Latency of a {@link Stage} in the last interval sampled by the
+ * {@link LatencyMonitor}, in microseconds.
+ */
+public interface StageLatencyMXBean {
+
+	long getCount();
+
+	double getP50Micros();
+
+	double getP99Micros();
+
+	double getP999Micros();
+
+	double getMaxMicros();
+}
@@ -0,0 +1,168 @@
+package com.sonartrading.challenge.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Throughput and state of the market data: message rates, depth of the books,
+ * bytes received, stale messages dropped, notifications to the observers.
+ * <p>
+ * The registry does not count anything: the components keep their own
+ * counters, usually {@code LongAdder}s, so counting is lock-free and does not
+ * depend on the registry, and they are added here by name with the function
+ * that reads them. Counters only grow and are sampled every period to get
+ * their rates by second; gauges are read when they are asked for. Everything
+ * is logged every period and published through JMX as
+ * {@value #OBJECT_NAME}.
+ */
+@Slf4j
+public class MetricsRegistry implements MetricsRegistryMXBean, AutoCloseable {
+
+	public static final String OBJECT_NAME = "com.sonartrading.challenge:type=Metrics";
+
+	private final Map<String, LongSupplier> counters = new ConcurrentSkipListMap<>();
+	private final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+
+	// last sample, used only by the thread that samples
+	private final Map<String, Long> lastCounts = new HashMap<>();
+	private long lastSampleNanos = System.nanoTime();
+
+	private volatile Map<String, Double> rates = Collections.emptyMap();
+
+	private ObjectName mbeanName;
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Adds a counter, a value that only grows, whose rate is published too
+	 */
+	public void addCounter(String name, LongSupplier counter) {
+		counters.put(name, counter);
+	}
+
+	/**
+	 * Adds a gauge, a value that goes up and down
+	 */
+	public void addGauge(String name, LongSupplier gauge) {
+		gauges.put(name, gauge);
+	}
+
+	@Override
+	public Map<String, Long> getCounters() {
+		return read(counters);
+	}
+
+	@Override
+	public Map<String, Double> getRates() {
+		return rates;
+	}
+
+	@Override
+	public Map<String, Long> getGauges() {
+		return read(gauges);
+	}
+
+	private static Map<String, Long> read(Map<String, LongSupplier> suppliers) {
+
+		Map<String, Long> values = new LinkedHashMap<>();
+		suppliers.forEach((name, supplier) -> values.put(name, supplier.getAsLong()));
+
+		return values;
+	}
+
+	/**
+	 * Computes the rates of the counters since the last sample.
+	 */
+	public synchronized void sample() {
+
+		long now = System.nanoTime();
+		double seconds = Math.max(now - lastSampleNanos, 1) / 1e9;
+		lastSampleNanos = now;
+
+		Map<String, Double> newRates = new LinkedHashMap<>();
+		counters.forEach((name, counter) -> {
+			long count = counter.getAsLong();
+			Long lastCount = lastCounts.put(name, count);
+			newRates.put(name, (count - (lastCount != null ? lastCount : 0)) / seconds);
+		});
+
+		rates = Collections.unmodifiableMap(newRates);
+	}
+
+	/**
+	 * Samples and logs the metrics every period, in a thread of its own.
+	 */
+	public synchronized void start(long period, TimeUnit unit) {
+
+		if (scheduler != null) {
+			return;
+		}
+
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "metrics");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		scheduler.scheduleAtFixedRate(() -> {
+			sample();
+			logMetrics();
+		}, period, period, unit);
+	}
+
+	private void logMetrics() {
+
+		StringBuilder rateLog = new StringBuilder();
+		rates.forEach((name, rate) -> rateLog.append(String.format(" %s %.1f/s", name, rate)));
+
+		log.info("Rates:{}", rateLog);
+		log.info("Gauges: {}", getGauges());
+	}
+
+	/**
+	 * Registers the registry in the platform MBean server.
+	 */
+	public synchronized void registerMBean() {
+
+		try {
+			mbeanName = new ObjectName(OBJECT_NAME);
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, mbeanName);
+		} catch (JMException e) {
+			mbeanName = null;
+			log.error("Error registering the metrics MBean", e);
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+
+		if (mbeanName == null) {
+			return;
+		}
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			server.unregisterMBean(mbeanName);
+		} catch (JMException e) {
+			log.warn("Error unregistering MBean {}", mbeanName, e);
+		}
+		mbeanName = null;
+	}
+}
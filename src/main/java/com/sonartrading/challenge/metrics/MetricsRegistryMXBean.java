@@ -0,0 +1,24 @@
+package com.sonartrading.challenge.metrics;
+
+import java.util.Map;
+
+/**
+ * Counters, rates and gauges of the market data, by name.
+ */
+public interface MetricsRegistryMXBean {
+
+	/**
+	 * Totals since the start
+	 */
+	Map<String, Long> getCounters();
+
+	/**
+	 * Increments by second of the counters in the last interval sampled
+	 */
+	Map<String, Double> getRates();
+
+	/**
+	 * Current values
+	 */
+	Map<String, Long> getGauges();
+}
@@ -0,0 +1,87 @@
+package com.sonartrading.challenge.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sonartrading.challenge.ws.dto.DiffOrder;
+
+/**
+ * Reads the payload of a diff-orders message, an array of orders like:
+ *
+ * <pre>
+ * [{"o":"CnWWeF3x3iEBDhu5","d":1544138431634,"r":"68700.00","t":1,"a":"0.001","v":"68.7","s":"open"}]
+ * </pre>
+ */
+public class DiffOrdersParser {
+
+	private static final DiffOrder[] EMPTY = new DiffOrder[0];
+
+	private DiffOrdersParser() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	public static DiffOrder[] readDiffOrders(JsonScanner scanner) {
+
+		if (scanner.nextNull()) {
+			return null;
+		}
+
+		scanner.beginArray();
+
+		if (!scanner.hasNext()) {
+			scanner.endArray();
+			return EMPTY;
+		}
+
+		// most of the messages have just one order
+		DiffOrder first = readDiffOrder(scanner);
+
+		if (!scanner.hasNext()) {
+			scanner.endArray();
+			return new DiffOrder[] { first };
+		}
+
+		List<DiffOrder> diffOrders = new ArrayList<>();
+		diffOrders.add(first);
+
+		do {
+			diffOrders.add(readDiffOrder(scanner));
+		} while (scanner.hasNext());
+
+		scanner.endArray();
+
+		return diffOrders.toArray(new DiffOrder[diffOrders.size()]);
+	}
+
+	private static DiffOrder readDiffOrder(JsonScanner scanner) {
+
+		DiffOrder diffOrder = new DiffOrder();
+
+		scanner.beginObject();
+
+		while (scanner.hasNext()) {
+
+			scanner.nextName();
+
+			if (scanner.nameEquals("o")) {
+				diffOrder.setOrderID(scanner.nextString());
+			} else if (scanner.nameEquals("r")) {
+				diffOrder.setRate(scanner.nextFixedPoint());
+			} else if (scanner.nameEquals("a")) {
+				diffOrder.setAmount(scanner.nextFixedPoint());
+			} else if (scanner.nameEquals("t")) {
+				diffOrder.setOrderType(scanner.nextNull() ? null : (short) scanner.nextLong());
+			} else if (scanner.nameEquals("d")) {
+				diffOrder.setTimestamp(scanner.nextNull() ? null : scanner.nextLong());
+			} else if (scanner.nameEquals("v")) {
+				diffOrder.setValue(scanner.nextFixedPoint());
+			} else {
+				scanner.skipValue();
+			}
+		}
+
+		scanner.endObject();
+
+		return diffOrder;
+	}
+}
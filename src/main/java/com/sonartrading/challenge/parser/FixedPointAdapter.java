@@ -0,0 +1,38 @@
+package com.sonartrading.challenge.parser;
+
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.sonartrading.challenge.data.model.FixedPoint;
+
+/**
+ * Gson adapter of the prices and amounts of the DTOs, quoted decimals like
+ * {@code "68700.00"} read as fixed point values, see {@link FixedPoint}. A
+ * {@code null} value leaves the field as 0.
+ */
+public class FixedPointAdapter extends TypeAdapter<Long> {
+
+	@Override
+	public void write(JsonWriter out, Long value) throws IOException {
+
+		if (value == null) {
+			out.nullValue();
+		} else {
+			out.value(FixedPoint.toString(value));
+		}
+	}
+
+	@Override
+	public Long read(JsonReader in) throws IOException {
+
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+
+		return FixedPoint.parse(in.nextString());
+	}
+}
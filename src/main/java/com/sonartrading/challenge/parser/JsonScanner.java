@@ -0,0 +1,447 @@
+package com.sonartrading.challenge.parser;
+
+import com.google.gson.JsonSyntaxException;
+import com.sonartrading.challenge.data.model.FixedPoint;
+
+/**
+ * Minimal pull parser that reads JSON straight from the characters of a
+ * message, without building any intermediate tree. Names are compared in
+ * place and numbers are parsed from the characters, so only the values
+ * requested as {@code String} are allocated.
+ * <p>
+ * A scanner can be reused calling {@link #reset(CharSequence)}. It is not
+ * thread safe.
+ */
+public class JsonScanner {
+
+	private CharSequence json;
+	private int position;
+	private int length;
+
+	private int nameStart;
+	private int nameEnd;
+
+	// true when the next value of the current object or array is not the first one
+	private boolean expectingComma;
+
+	public JsonScanner reset(CharSequence json) {
+		this.json = json;
+		this.position = 0;
+		this.length = json.length();
+		this.expectingComma = false;
+		return this;
+	}
+
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Moves the scanner to a position previously returned by
+	 * {@link #getPosition()}.
+	 */
+	public void setPosition(int position) {
+		this.position = position;
+		this.expectingComma = false;
+	}
+
+	public void beginObject() {
+		consume('{');
+		expectingComma = false;
+	}
+
+	public void endObject() {
+		consume('}');
+		expectingComma = true;
+	}
+
+	public void beginArray() {
+		consume('[');
+		expectingComma = false;
+	}
+
+	public void endArray() {
+		consume(']');
+		expectingComma = true;
+	}
+
+	/**
+	 * Returns {@code true} if the current object or array has more elements.
+	 */
+	public boolean hasNext() {
+
+		char c = peek();
+
+		if (c == '}' || c == ']') {
+			return false;
+		}
+
+		if (expectingComma) {
+			consume(',');
+			expectingComma = false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Reads the name of the next member of an object. Use
+	 * {@link #nameEquals(String)} to check it.
+	 */
+	public void nextName() {
+
+		consume('"');
+		nameStart = position;
+
+		while (position < length && json.charAt(position) != '"') {
+			if (json.charAt(position) == '\\') {
+				position++;
+			}
+			position++;
+		}
+
+		nameEnd = position;
+		consume('"');
+		consume(':');
+	}
+
+	public boolean nameEquals(String name) {
+
+		int nameLength = nameEnd - nameStart;
+
+		if (nameLength != name.length()) {
+			return false;
+		}
+
+		for (int i = 0; i < nameLength; i++) {
+			if (json.charAt(nameStart + i) != name.charAt(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Consumes a {@code null} value if it is the next one.
+	 */
+	public boolean nextNull() {
+
+		if (peek() == 'n') {
+			consumeLiteral("null");
+			expectingComma = true;
+			return true;
+		}
+
+		return false;
+	}
+
+	public boolean nextBoolean() {
+
+		boolean value = peek() == 't';
+		consumeLiteral(value ? "true" : "false");
+		expectingComma = true;
+
+		return value;
+	}
+
+	/**
+	 * Reads a string value, or returns {@code null} for a {@code null} value.
+	 */
+	public String nextString() {
+
+		if (nextNull()) {
+			return null;
+		}
+
+		consume('"');
+		int start = position;
+		StringBuilder escaped = null;
+
+		while (true) {
+
+			if (position >= length) {
+				throw syntaxError("Unterminated string");
+			}
+
+			char c = json.charAt(position);
+
+			if (c == '"') {
+				break;
+			}
+
+			if (c == '\\') {
+				if (escaped == null) {
+					escaped = new StringBuilder();
+				}
+				escaped.append(json, start, position);
+				escaped.append(readEscaped());
+				start = position;
+			} else {
+				position++;
+			}
+		}
+
+		String value = escaped == null ? json.subSequence(start, position).toString()
+				: escaped.append(json, start, position).toString();
+
+		position++;
+		expectingComma = true;
+
+		return value;
+	}
+
+	/**
+	 * Reads an integer value, quoted or not.
+	 */
+	public long nextLong() {
+
+		boolean quoted = peek() == '"';
+		if (quoted) {
+			position++;
+		}
+
+		boolean negative = position < length && json.charAt(position) == '-';
+		if (negative) {
+			position++;
+		}
+
+		int start = position;
+		long value = 0;
+
+		while (position < length) {
+			char c = json.charAt(position);
+			if (c < '0' || c > '9') {
+				break;
+			}
+			value = value * 10 + (c - '0');
+			position++;
+		}
+
+		if (position == start) {
+			throw syntaxError("Expected a number");
+		}
+
+		if (quoted) {
+			consume('"');
+		}
+
+		expectingComma = true;
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Reads a decimal value, quoted or not.
+	 */
+	public double nextDouble() {
+
+		boolean quoted = peek() == '"';
+		if (quoted) {
+			position++;
+		}
+
+		int start = position;
+
+		while (position < length) {
+			char c = json.charAt(position);
+			if ((c < '0' || c > '9') && c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') {
+				break;
+			}
+			position++;
+		}
+
+		if (position == start) {
+			throw syntaxError("Expected a number");
+		}
+
+		double value = Double.parseDouble(json.subSequence(start, position).toString());
+
+		if (quoted) {
+			consume('"');
+		}
+
+		expectingComma = true;
+		return value;
+	}
+
+	/**
+	 * Reads a decimal value, quoted or not, as a fixed point value (see
+	 * {@link FixedPoint}) parsed from the characters of the message. Returns 0
+	 * for a {@code null} value.
+	 */
+	public long nextFixedPoint() {
+
+		if (nextNull()) {
+			return 0;
+		}
+
+		boolean quoted = peek() == '"';
+		if (quoted) {
+			position++;
+		}
+
+		int start = position;
+		boolean exponent = false;
+
+		while (position < length) {
+			char c = json.charAt(position);
+			if (c == 'e' || c == 'E') {
+				exponent = true;
+			} else if ((c < '0' || c > '9') && c != '.' && c != '-' && c != '+') {
+				break;
+			}
+			position++;
+		}
+
+		if (position == start) {
+			throw syntaxError("Expected a number");
+		}
+
+		long value;
+		try {
+			// the exchange never sends exponents, but they are valid JSON
+			value = exponent ? FixedPoint.of(Double.parseDouble(json.subSequence(start, position).toString()))
+					: FixedPoint.parse(json, start, position);
+		} catch (NumberFormatException e) {
+			throw syntaxError(e.getMessage());
+		}
+
+		if (quoted) {
+			consume('"');
+		}
+
+		expectingComma = true;
+		return value;
+	}
+
+	/**
+	 * Skips the next value, including nested objects and arrays.
+	 */
+	public void skipValue() {
+
+		char c = peek();
+
+		switch (c) {
+		case '{':
+			beginObject();
+			while (hasNext()) {
+				nextName();
+				skipValue();
+			}
+			endObject();
+			break;
+
+		case '[':
+			beginArray();
+			while (hasNext()) {
+				skipValue();
+			}
+			endArray();
+			break;
+
+		case '"':
+			skipString();
+			break;
+
+		default:
+			// numbers and literals
+			while (position < length) {
+				c = json.charAt(position);
+				if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+					break;
+				}
+				position++;
+			}
+			expectingComma = true;
+			break;
+		}
+	}
+
+	private void skipString() {
+
+		consume('"');
+
+		while (position < length && json.charAt(position) != '"') {
+			if (json.charAt(position) == '\\') {
+				position++;
+			}
+			position++;
+		}
+
+		consume('"');
+		expectingComma = true;
+	}
+
+	private char readEscaped() {
+
+		position++;
+
+		if (position >= length) {
+			throw syntaxError("Unterminated escape sequence");
+		}
+
+		char c = json.charAt(position++);
+
+		switch (c) {
+		case 'u':
+			if (position + 4 > length) {
+				throw syntaxError("Unterminated escape sequence");
+			}
+			char value = (char) Integer.parseInt(json.subSequence(position, position + 4).toString(), 16);
+			position += 4;
+			return value;
+		case 'b':
+			return '\b';
+		case 'f':
+			return '\f';
+		case 'n':
+			return '\n';
+		case 'r':
+			return '\r';
+		case 't':
+			return '\t';
+		default:
+			return c;
+		}
+	}
+
+	private void consumeLiteral(String literal) {
+
+		for (int i = 0; i < literal.length(); i++) {
+			if (position >= length || json.charAt(position) != literal.charAt(i)) {
+				throw syntaxError("Expected " + literal);
+			}
+			position++;
+		}
+	}
+
+	private void consume(char expected) {
+
+		if (peek() != expected) {
+			throw syntaxError("Expected '" + expected + "'");
+		}
+
+		position++;
+	}
+
+	/**
+	 * Skips the whitespaces and returns the next character without consuming
+	 * it.
+	 */
+	private char peek() {
+
+		while (position < length) {
+			char c = json.charAt(position);
+			if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+				return c;
+			}
+			position++;
+		}
+
+		throw syntaxError("Unexpected end of message");
+	}
+
+	private JsonSyntaxException syntaxError(String message) {
+		return new JsonSyntaxException(message + " at position " + position);
+	}
+}
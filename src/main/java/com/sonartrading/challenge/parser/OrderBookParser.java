@@ -0,0 +1,126 @@
+package com.sonartrading.challenge.parser;
+
+import com.sonartrading.challenge.api.dto.BitsoResponse;
+import com.sonartrading.challenge.api.dto.OrderBook;
+import com.sonartrading.challenge.api.dto.OrderBookItems;
+import com.sonartrading.challenge.data.model.FixedPoint;
+
+/**
+ * Reads the response of the order book endpoint, like:
+ *
+ * <pre>
+ * {"success":true,"payload":{"asks":[{"book":"btc_mxn","price":"5632.24","amount":"1.34491802","oid":"VN5lVpgXf02o6vJ6"}],
+ * "bids":[...],"updated_at":"2017-11-17T00:00:00+00:00","sequence":"27214"}}
+ * </pre>
+ *
+ * The orders of every side are stored by columns in {@link OrderBookItems}:
+ * there is no reflection and no object by order, the names are compared in
+ * place, the prices and amounts are parsed as fixed-point values from the
+ * characters of the response (see {@link FixedPoint}) and the repeated
+ * {@code book} of every order is skipped. Only the order IDs are allocated.
+ */
+public class OrderBookParser {
+
+	private OrderBookParser() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	public static BitsoResponse<OrderBook> readOrderBookResponse(JsonScanner scanner) {
+
+		BitsoResponse<OrderBook> response = new BitsoResponse<>();
+
+		scanner.beginObject();
+
+		while (scanner.hasNext()) {
+
+			scanner.nextName();
+
+			if (scanner.nameEquals("success")) {
+				response.setSuccess(scanner.nextNull() ? null : scanner.nextBoolean());
+			} else if (scanner.nameEquals("payload")) {
+				response.setPayload(readOrderBook(scanner));
+			} else {
+				scanner.skipValue();
+			}
+		}
+
+		scanner.endObject();
+
+		return response;
+	}
+
+	private static OrderBook readOrderBook(JsonScanner scanner) {
+
+		if (scanner.nextNull()) {
+			return null;
+		}
+
+		OrderBook orderBook = new OrderBook();
+
+		scanner.beginObject();
+
+		while (scanner.hasNext()) {
+
+			scanner.nextName();
+
+			if (scanner.nameEquals("asks")) {
+				orderBook.setAsks(readItems(scanner));
+			} else if (scanner.nameEquals("bids")) {
+				orderBook.setBids(readItems(scanner));
+			} else if (scanner.nameEquals("sequence")) {
+				orderBook.setSequence(scanner.nextNull() ? null : scanner.nextLong());
+			} else if (scanner.nameEquals("updated_at")) {
+				orderBook.setUpdated_at(scanner.nextString());
+			} else {
+				scanner.skipValue();
+			}
+		}
+
+		scanner.endObject();
+
+		return orderBook;
+	}
+
+	private static OrderBookItems readItems(JsonScanner scanner) {
+
+		if (scanner.nextNull()) {
+			return null;
+		}
+
+		OrderBookItems items = new OrderBookItems(1024);
+
+		scanner.beginArray();
+
+		while (scanner.hasNext()) {
+
+			String oid = null;
+			long price = 0;
+			long amount = 0;
+
+			scanner.beginObject();
+
+			while (scanner.hasNext()) {
+
+				scanner.nextName();
+
+				if (scanner.nameEquals("oid")) {
+					oid = scanner.nextString();
+				} else if (scanner.nameEquals("price")) {
+					price = scanner.nextFixedPoint();
+				} else if (scanner.nameEquals("amount")) {
+					amount = scanner.nextFixedPoint();
+				} else {
+					scanner.skipValue();
+				}
+			}
+
+			scanner.endObject();
+
+			items.add(oid, price, amount);
+		}
+
+		scanner.endArray();
+
+		return items;
+	}
+}
@@ -0,0 +1,99 @@
+package com.sonartrading.challenge.parser;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sonartrading.challenge.data.model.MakerSide;
+import com.sonartrading.challenge.data.model.Trade;
+
+/**
+ * Reads the payload of a trades message, an array of trades like:
+ *
+ * <pre>
+ * [{"i":1234567,"a":"0.0125","r":"68700.00","v":"858.75","mo":"XnWWeF3x3iEBDhu5","to":"CnWWeF3x3iEBDhu5","t":0,"x":1544138431634}]
+ * </pre>
+ *
+ * The maker side is {@code 0} for buy and {@code 1} for sell. If the message
+ * has no timestamp the time of reception is used.
+ */
+public class TradesParser {
+
+	private static final Trade[] EMPTY = new Trade[0];
+
+	private TradesParser() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	public static Trade[] readTrades(JsonScanner scanner) {
+
+		if (scanner.nextNull()) {
+			return null;
+		}
+
+		scanner.beginArray();
+
+		List<Trade> trades = null;
+		Trade first = null;
+
+		while (scanner.hasNext()) {
+
+			Trade trade = readTrade(scanner);
+
+			if (first == null) {
+				first = trade;
+			} else {
+				if (trades == null) {
+					trades = new ArrayList<>();
+					trades.add(first);
+				}
+				trades.add(trade);
+			}
+		}
+
+		scanner.endArray();
+
+		if (trades != null) {
+			return trades.toArray(new Trade[trades.size()]);
+		}
+
+		return first != null ? new Trade[] { first } : EMPTY;
+	}
+
+	private static Trade readTrade(JsonScanner scanner) {
+
+		Long tradeID = null;
+		MakerSide makerSide = null;
+		OffsetDateTime date = null;
+		long amount = 0;
+		long price = 0;
+
+		scanner.beginObject();
+
+		while (scanner.hasNext()) {
+
+			scanner.nextName();
+
+			if (scanner.nameEquals("i")) {
+				tradeID = scanner.nextNull() ? null : scanner.nextLong();
+			} else if (scanner.nameEquals("a")) {
+				amount = scanner.nextFixedPoint();
+			} else if (scanner.nameEquals("r")) {
+				price = scanner.nextFixedPoint();
+			} else if (scanner.nameEquals("t")) {
+				makerSide = scanner.nextNull() ? null : scanner.nextLong() == 0 ? MakerSide.BUY : MakerSide.SELL;
+			} else if (scanner.nameEquals("x")) {
+				date = scanner.nextNull() ? null
+						: OffsetDateTime.ofInstant(Instant.ofEpochMilli(scanner.nextLong()), ZoneOffset.UTC);
+			} else {
+				scanner.skipValue();
+			}
+		}
+
+		scanner.endObject();
+
+		return new Trade(tradeID, makerSide, date != null ? date : OffsetDateTime.now(ZoneOffset.UTC), amount, price);
+	}
+}
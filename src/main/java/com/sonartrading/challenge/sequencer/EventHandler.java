@@ -0,0 +1,21 @@
+package com.sonartrading.challenge.sequencer;
+
+/**
+ * Receives the events published in an {@link EventLoop}, always from the
+ * thread of the loop.
+ */
+public interface EventHandler {
+
+	/**
+	 * Handles an event, the sequence is the one given by the publisher.
+	 */
+	void onEvent(Object payload, long sequence);
+
+	/**
+	 * Called after the last event of a batch of consecutive events for this
+	 * handler, when the loop is going to wait or to handle events of other
+	 * handlers.
+	 */
+	default void onEndOfBatch() {
+	}
+}
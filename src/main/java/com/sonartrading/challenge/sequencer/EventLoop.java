@@ -0,0 +1,297 @@
+package com.sonartrading.challenge.sequencer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single consumer event loop over a pre-allocated ring buffer, in the style of
+ * the LMAX Disruptor.
+ * <p>
+ * Any thread can publish events: a publisher claims the next position of the
+ * ring with an atomic increment, writes the entry and marks it as available.
+ * The events are handled in the order they were claimed by one thread, so the
+ * handlers own their state and need no locks. When the ring is full the
+ * publishers wait for the consumer, so no event is ever dropped, unless they
+ * use {@link #tryPublish(EventHandler, Object, long)}.
+ * <p>
+ * The entries of the ring are reused, so publishing an event does not
+ * allocate memory. Any exception or error thrown by a handler is logged and
+ * the loop goes on with the next event.
+ */
+@Slf4j
+public class EventLoop implements AutoCloseable {
+
+	public static final int DEFAULT_CAPACITY = 1 << 14;
+
+	private static final int SPIN_TRIES = 100;
+	private static final int YIELD_TRIES = 100;
+	private static final long MAX_PARK_NANOS = 1_000_000;
+
+	private final Entry[] entries;
+	private final int mask;
+	private final int indexShift;
+
+	// round of the ring in which every entry was published
+	private final AtomicIntegerArray available;
+
+	private final AtomicLong claimedSequence = new AtomicLong(-1);
+	private final AtomicLong consumedSequence = new AtomicLong(-1);
+
+	private final Thread thread;
+
+	private volatile boolean running = true;
+	private volatile boolean sleeping = false;
+
+	// times of the event being handled, used only by the thread of the loop
+	private long eventTimestamp;
+	private long eventPublishNanos;
+
+	public EventLoop(String name) {
+		this(name, DEFAULT_CAPACITY);
+	}
+
+	public EventLoop(String name, int capacity) {
+
+		if (Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of 2");
+		}
+
+		entries = new Entry[capacity];
+		for (int i = 0; i < capacity; i++) {
+			entries[i] = new Entry();
+		}
+
+		mask = capacity - 1;
+		indexShift = Integer.numberOfTrailingZeros(capacity);
+
+		available = new AtomicIntegerArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			available.set(i, -1);
+		}
+
+		thread = new Thread(this::run, name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Publishes an event for the given handler. It blocks only if the ring is
+	 * full.
+	 */
+	public void publish(EventHandler handler, Object payload, long sequence) {
+		publish(handler, payload, sequence, 0);
+	}
+
+	/**
+	 * Publishes an event with a timestamp given by the publisher, e.g. the
+	 * {@code System.nanoTime()} of the reception of its data. The time of the
+	 * publication is also kept, so the handler can measure how long the event
+	 * waited (see {@link #getEventPublishNanos()}).
+	 */
+	public void publish(EventHandler handler, Object payload, long sequence, long timestamp) {
+
+		long next = claimedSequence.incrementAndGet();
+		long wrapPoint = next - entries.length;
+
+		while (wrapPoint > consumedSequence.get()) {
+			LockSupport.parkNanos(1);
+		}
+
+		write(next, handler, payload, sequence, timestamp);
+	}
+
+	/**
+	 * Publishes an event for the given handler if the ring is not full,
+	 * otherwise returns {@code false} without waiting. Used when a slow
+	 * consumer must not delay the publisher.
+	 */
+	public boolean tryPublish(EventHandler handler, Object payload, long sequence) {
+
+		long current;
+		long next;
+
+		do {
+			current = claimedSequence.get();
+			next = current + 1;
+
+			if (next - entries.length > consumedSequence.get()) {
+				return false;
+			}
+		} while (!claimedSequence.compareAndSet(current, next));
+
+		write(next, handler, payload, sequence, 0);
+		return true;
+	}
+
+	private void write(long next, EventHandler handler, Object payload, long sequence, long timestamp) {
+
+		Entry entry = entries[(int) next & mask];
+		entry.handler = handler;
+		entry.payload = payload;
+		entry.sequence = sequence;
+		entry.timestamp = timestamp;
+		// the clock is read only for the events with timestamp
+		entry.publishNanos = timestamp != 0 ? System.nanoTime() : 0;
+
+		available.lazySet((int) next & mask, (int) (next >>> indexShift));
+
+		if (sleeping) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	/**
+	 * Number of events published and not handled yet
+	 */
+	public int getQueueSize() {
+		return (int) (claimedSequence.get() - consumedSequence.get());
+	}
+
+	public int getCapacity() {
+		return entries.length;
+	}
+
+	/**
+	 * Timestamp given by the publisher of the event being handled, or 0. Only
+	 * valid in {@link EventHandler#onEvent(Object, long)}.
+	 */
+	public long getEventTimestamp() {
+		return eventTimestamp;
+	}
+
+	/**
+	 * {@code System.nanoTime()} of the publication of the event being handled,
+	 * or 0 if the publisher gave no timestamp. Only valid in
+	 * {@link EventHandler#onEvent(Object, long)}.
+	 */
+	public long getEventPublishNanos() {
+		return eventPublishNanos;
+	}
+
+	/**
+	 * Returns {@code true} if the current thread is the one of this loop
+	 */
+	public boolean inEventLoop() {
+		return Thread.currentThread() == thread;
+	}
+
+	@Override
+	public void close() {
+		running = false;
+		LockSupport.unpark(thread);
+	}
+
+	/**
+	 * Waits until the thread of the loop ends after {@link #close()}, so the
+	 * state changed by the handlers can be released. Returns {@code false} if
+	 * it is still running after the timeout.
+	 */
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		thread.join(Math.max(1, unit.toMillis(timeout)));
+		return !thread.isAlive();
+	}
+
+	private void run() {
+
+		long next = 0;
+		int idleCount = 0;
+
+		while (running) {
+
+			long last = getLastAvailable(next);
+
+			if (last < next) {
+				idleCount = idle(next, idleCount);
+				continue;
+			}
+
+			idleCount = 0;
+			EventHandler batchHandler = null;
+
+			for (long sequence = next; sequence <= last; sequence++) {
+
+				Entry entry = entries[(int) sequence & mask];
+				EventHandler handler = entry.handler;
+
+				if (batchHandler != null && batchHandler != handler) {
+					endOfBatch(batchHandler);
+				}
+				batchHandler = handler;
+				eventTimestamp = entry.timestamp;
+				eventPublishNanos = entry.publishNanos;
+
+				try {
+					handler.onEvent(entry.payload, entry.sequence);
+				} catch (Throwable t) {
+					// an error of a handler must not stop the loop of the others
+					log.error("Error handling event {}", entry.sequence, t);
+				}
+
+				entry.handler = null;
+				entry.payload = null;
+			}
+
+			endOfBatch(batchHandler);
+
+			next = last + 1;
+			consumedSequence.lazySet(last);
+		}
+	}
+
+	/**
+	 * Returns the last sequence of the consecutive events available from the
+	 * given one, or {@code next - 1} if there is none.
+	 */
+	private long getLastAvailable(long next) {
+
+		long sequence = next;
+
+		while (available.get((int) sequence & mask) == (int) (sequence >>> indexShift)) {
+			sequence++;
+		}
+
+		return sequence - 1;
+	}
+
+	private int idle(long next, int idleCount) {
+
+		if (idleCount < SPIN_TRIES) {
+			return idleCount + 1;
+		}
+
+		if (idleCount < SPIN_TRIES + YIELD_TRIES) {
+			Thread.yield();
+			return idleCount + 1;
+		}
+
+		sleeping = true;
+
+		// check again, a publisher could have missed the flag
+		if (getLastAvailable(next) < next && running) {
+			LockSupport.parkNanos(this, MAX_PARK_NANOS);
+		}
+
+		sleeping = false;
+		return idleCount;
+	}
+
+	private void endOfBatch(EventHandler handler) {
+		try {
+			handler.onEndOfBatch();
+		} catch (Throwable t) {
+			log.error("Error handling end of batch", t);
+		}
+	}
+
+	private static class Entry {
+		private EventHandler handler;
+		private Object payload;
+		private long sequence;
+		private long timestamp;
+		private long publishNanos;
+	}
+}
@@ -0,0 +1,15 @@
+package com.sonartrading.challenge.store;
+
+/**
+ * Receives the ticks of a range scan of a {@link TickStore}, one at a time
+ * and without objects for every tick.
+ */
+@FunctionalInterface
+public interface TickConsumer {
+
+	/**
+	 * Prices and amounts are fixed-point values, the side is
+	 * {@link TickStore#BUY} or {@link TickStore#SELL}.
+	 */
+	void onTick(long sequence, long timestamp, byte side, long price, long amount);
+}
@@ -0,0 +1,230 @@
+package com.sonartrading.challenge.store;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One memory mapped file of a {@link TickStore} with a fixed capacity of
+ * ticks, stored by columns:
+ *
+ * <pre>
+ * header (64 bytes) | sequence (long[]) | timestamp (long[]) | price (long[]) | amount (long[]) | side (byte[])
+ * </pre>
+ *
+ * The header keeps the number of ticks, the range of sequences and
+ * timestamps and whether they were appended in order, so a segment can be
+ * skipped or binary searched by a scan. Only one thread appends, any thread
+ * can scan the ticks appended before.
+ */
+class TickSegment {
+
+	private static final int MAGIC = 0x534e5254;
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 64;
+	private static final int CAPACITY_OFFSET = 8;
+	private static final int FLAGS_OFFSET = 12;
+	private static final int COUNT_OFFSET = 16;
+	private static final int MIN_SEQUENCE_OFFSET = 24;
+	private static final int MAX_SEQUENCE_OFFSET = 32;
+	private static final int MIN_TIMESTAMP_OFFSET = 40;
+	private static final int MAX_TIMESTAMP_OFFSET = 48;
+
+	private static final int SEQUENCE_SORTED = 1;
+	private static final int TIMESTAMP_SORTED = 2;
+
+	private final Path path;
+	private final MappedByteBuffer buffer;
+	private final int capacity;
+
+	private final int timestampColumn;
+	private final int priceColumn;
+	private final int amountColumn;
+	private final int sideColumn;
+
+	// these values are changed only by the writer, readers use them after the count
+	private int flags;
+	private long minSequence;
+	private long maxSequence;
+	private long minTimestamp;
+	private long maxTimestamp;
+
+	private final AtomicInteger count = new AtomicInteger();
+
+	private TickSegment(Path path, MappedByteBuffer buffer, int capacity) {
+
+		this.path = path;
+		this.buffer = buffer;
+		this.capacity = capacity;
+
+		timestampColumn = HEADER_SIZE + capacity * 8;
+		priceColumn = HEADER_SIZE + capacity * 16;
+		amountColumn = HEADER_SIZE + capacity * 24;
+		sideColumn = HEADER_SIZE + capacity * 32;
+	}
+
+	static TickSegment create(Path path, int capacity) throws IOException {
+
+		TickSegment segment = new TickSegment(path, map(path, HEADER_SIZE + capacity * 33L), capacity);
+
+		segment.flags = SEQUENCE_SORTED | TIMESTAMP_SORTED;
+		segment.buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(CAPACITY_OFFSET, capacity);
+		segment.buffer.putInt(FLAGS_OFFSET, segment.flags);
+
+		return segment;
+	}
+
+	static TickSegment open(Path path) throws IOException {
+
+		MappedByteBuffer buffer = map(path, Files.size(path));
+
+		if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			throw new IOException("Not a tick segment: " + path);
+		}
+
+		TickSegment segment = new TickSegment(path, buffer, buffer.getInt(CAPACITY_OFFSET));
+
+		segment.flags = buffer.getInt(FLAGS_OFFSET);
+		segment.minSequence = buffer.getLong(MIN_SEQUENCE_OFFSET);
+		segment.maxSequence = buffer.getLong(MAX_SEQUENCE_OFFSET);
+		segment.minTimestamp = buffer.getLong(MIN_TIMESTAMP_OFFSET);
+		segment.maxTimestamp = buffer.getLong(MAX_TIMESTAMP_OFFSET);
+		segment.count.set((int) buffer.getLong(COUNT_OFFSET));
+
+		return segment;
+	}
+
+	private static MappedByteBuffer map(Path path, long size) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		}
+	}
+
+	Path getPath() {
+		return path;
+	}
+
+	boolean isFull() {
+		return count.get() == capacity;
+	}
+
+	int size() {
+		return count.get();
+	}
+
+	/**
+	 * Appends a tick, the segment must not be full. Called only by the writer.
+	 */
+	void append(long sequence, long timestamp, byte side, long price, long amount) {
+
+		int index = count.get();
+
+		buffer.putLong(HEADER_SIZE + index * 8, sequence);
+		buffer.putLong(timestampColumn + index * 8, timestamp);
+		buffer.putLong(priceColumn + index * 8, price);
+		buffer.putLong(amountColumn + index * 8, amount);
+		buffer.put(sideColumn + index, side);
+
+		if (index == 0) {
+			minSequence = maxSequence = sequence;
+			minTimestamp = maxTimestamp = timestamp;
+		} else {
+			if (sequence < maxSequence) {
+				flags &= ~SEQUENCE_SORTED;
+			}
+			if (timestamp < maxTimestamp) {
+				flags &= ~TIMESTAMP_SORTED;
+			}
+			minSequence = Math.min(minSequence, sequence);
+			maxSequence = Math.max(maxSequence, sequence);
+			minTimestamp = Math.min(minTimestamp, timestamp);
+			maxTimestamp = Math.max(maxTimestamp, timestamp);
+		}
+
+		buffer.putInt(FLAGS_OFFSET, flags);
+		buffer.putLong(MIN_SEQUENCE_OFFSET, minSequence).putLong(MAX_SEQUENCE_OFFSET, maxSequence);
+		buffer.putLong(MIN_TIMESTAMP_OFFSET, minTimestamp).putLong(MAX_TIMESTAMP_OFFSET, maxTimestamp);
+		buffer.putLong(COUNT_OFFSET, index + 1L);
+
+		// publishes the tick to the readers
+		count.lazySet(index + 1);
+	}
+
+	long scanBySequence(long from, long to, TickConsumer consumer) {
+
+		// the count is read first, so the values of the writer are visible
+		int size = count.get();
+
+		if (size == 0 || to < minSequence || from > maxSequence) {
+			return 0;
+		}
+
+		return scan(HEADER_SIZE, size, (flags & SEQUENCE_SORTED) != 0, from, to, consumer);
+	}
+
+	long scanByTimestamp(long from, long to, TickConsumer consumer) {
+
+		int size = count.get();
+
+		if (size == 0 || to < minTimestamp || from > maxTimestamp) {
+			return 0;
+		}
+
+		return scan(timestampColumn, size, (flags & TIMESTAMP_SORTED) != 0, from, to, consumer);
+	}
+
+	private long scan(int column, int size, boolean sorted, long from, long to, TickConsumer consumer) {
+
+		// sorted columns are binary searched, the others are scanned from the start
+		int index = sorted ? lowerBound(column, size, from) : 0;
+		long ticks = 0;
+
+		for (; index < size; index++) {
+
+			long value = buffer.getLong(column + index * 8);
+
+			if (value > to && sorted) {
+				break;
+			}
+
+			if (value >= from && value <= to) {
+				consumer.onTick(buffer.getLong(HEADER_SIZE + index * 8), buffer.getLong(timestampColumn + index * 8),
+						buffer.get(sideColumn + index), buffer.getLong(priceColumn + index * 8),
+						buffer.getLong(amountColumn + index * 8));
+				ticks++;
+			}
+		}
+
+		return ticks;
+	}
+
+	/**
+	 * Index of the first value not less than the given one
+	 */
+	private int lowerBound(int column, int size, long value) {
+
+		int low = 0;
+		int high = size;
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (buffer.getLong(column + middle * 8) < value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		return low;
+	}
+
+	void force() {
+		buffer.force();
+	}
+}
@@ -0,0 +1,269 @@
+package com.sonartrading.challenge.store;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.sonartrading.challenge.exception.InitializationException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only store of ticks (trades or diff-orders of a book) in memory
+ * mapped segment files, so they can be scanned later for backtests without
+ * parsing JSON again.
+ * <p>
+ * Every tick is a sequence (trade ID or diff-orders sequence), a timestamp in
+ * epoch millis, a side and a fixed-point price and amount, stored by columns
+ * (see {@link TickSegment}). When a segment is full a new one is created, the
+ * files are named {@code <name>-<index>.ticks}.
+ * <p>
+ * Appending a tick only writes to the mapped memory of the current segment,
+ * without objects or locks, so it can be done by the thread that receives the
+ * messages. When the current segment is half full the next one is created
+ * and mapped by a background thread, so a roll only switches to it; the
+ * writer blocks only if that segment is not ready yet. The segments keep the
+ * range of sequences and timestamps of their ticks, which is the index used
+ * by the scans.
+ * <p>
+ * Only one thread can append, any thread can scan.
+ */
+@Slf4j
+public class TickStore implements AutoCloseable {
+
+	public static final byte BUY = 0;
+	public static final byte SELL = 1;
+
+	public static final int DEFAULT_SEGMENT_CAPACITY = 1 << 20;
+	// the segment must be mapped by a single buffer
+	private static final int MAX_SEGMENT_CAPACITY = (Integer.MAX_VALUE - 64) / 33;
+
+	private static final String SEGMENT_EXTENSION = ".ticks";
+
+	// creates the next segments of every store, out of the threads of the writers
+	private static final ExecutorService SEGMENT_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "tick-segments");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final Path directory;
+	private final String name;
+	private final int segmentCapacity;
+	// opened only to be scanned, e.g. by the backtests
+	private final boolean readOnly;
+
+	private final List<TickSegment> segments = new CopyOnWriteArrayList<>();
+	private TickSegment segment;
+	// the segment after the current one, once it is half full
+	private Future<TickSegment> nextSegment;
+
+	public TickStore(Path directory, String name) {
+		this(directory, name, DEFAULT_SEGMENT_CAPACITY);
+	}
+
+	/**
+	 * Opens the store with the given name in the directory, appending after the
+	 * ticks already stored. The capacity is used for the new segments.
+	 */
+	public TickStore(Path directory, String name, int segmentCapacity) {
+		this(directory, name, segmentCapacity, false);
+	}
+
+	private TickStore(Path directory, String name, int segmentCapacity, boolean readOnly) {
+
+		if (segmentCapacity <= 0 || segmentCapacity > MAX_SEGMENT_CAPACITY) {
+			throw new IllegalArgumentException("Invalid segment capacity: " + segmentCapacity);
+		}
+
+		this.directory = directory;
+		this.name = name;
+		this.segmentCapacity = segmentCapacity;
+		this.readOnly = readOnly;
+
+		try {
+			if (!readOnly) {
+				Files.createDirectories(directory);
+			}
+
+			for (Path path : getSegmentPaths()) {
+				segments.add(TickSegment.open(path));
+			}
+
+		} catch (IOException e) {
+			throw new InitializationException("Error trying to open the tick store " + name, e);
+		}
+
+		if (segments.isEmpty()) {
+			if (readOnly) {
+				throw new InitializationException("There is no tick store " + name + " in " + directory);
+			}
+			createFirstSegment();
+		}
+
+		segment = segments.get(segments.size() - 1);
+		log.info("Tick store {} opened with {} segments", name, segments.size());
+	}
+
+	/**
+	 * Opens an existing store only to scan its ticks, nothing is created and
+	 * it fails if the store has no segments.
+	 */
+	public static TickStore openReadOnly(Path directory, String name) {
+		return new TickStore(directory, name, DEFAULT_SEGMENT_CAPACITY, true);
+	}
+
+	private void createFirstSegment() {
+		try {
+			segments.add(TickSegment.create(getSegmentPath(0), segmentCapacity));
+		} catch (IOException e) {
+			throw new InitializationException("Error trying to create the tick store " + name, e);
+		}
+	}
+
+	private List<Path> getSegmentPaths() throws IOException {
+
+		List<Path> paths = new ArrayList<>();
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, name + "-*" + SEGMENT_EXTENSION)) {
+			stream.forEach(paths::add);
+		}
+
+		// the index has a fixed width, so the names are sorted as the segments
+		Collections.sort(paths);
+		return paths;
+	}
+
+	private Path getSegmentPath(int index) {
+		return directory.resolve(String.format("%s-%06d%s", name, index, SEGMENT_EXTENSION));
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	// ******************************** WRITER ********************************
+
+	/**
+	 * Appends a tick, rolling to a new segment if the current one is full.
+	 */
+	public void append(long sequence, long timestamp, byte side, long price, long amount) {
+
+		if (readOnly) {
+			throw new IllegalStateException("The tick store " + name + " is read-only");
+		}
+
+		if (segment.isFull()) {
+			roll();
+		}
+
+		segment.append(sequence, timestamp, side, price, amount);
+
+		if (nextSegment == null && segment.size() >= segmentCapacity / 2) {
+			allocateNextSegment();
+		}
+	}
+
+	private void allocateNextSegment() {
+		Path path = getSegmentPath(segments.size());
+		nextSegment = SEGMENT_EXECUTOR.submit(() -> TickSegment.create(path, segmentCapacity));
+	}
+
+	private void roll() {
+
+		if (nextSegment == null) {
+			allocateNextSegment();
+		}
+
+		TickSegment next = getNextSegment();
+		nextSegment = null;
+
+		segments.add(next);
+		segment = next;
+		log.debug("Tick store {} rolled to {}", name, next.getPath());
+	}
+
+	private TickSegment getNextSegment() {
+
+		try {
+			return nextSegment.get();
+
+		} catch (ExecutionException e) {
+			nextSegment = null;
+			throw new IllegalStateException("Error trying to create a tick segment", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while creating a tick segment", e);
+		}
+	}
+
+	// ******************************** READERS *******************************
+
+	/**
+	 * Gives to the consumer the ticks with a sequence in the range, both
+	 * included, in the order they were appended. Returns the number of ticks.
+	 */
+	public long scanBySequence(long from, long to, TickConsumer consumer) {
+
+		long ticks = 0;
+		for (TickSegment s : segments) {
+			ticks += s.scanBySequence(from, to, consumer);
+		}
+
+		return ticks;
+	}
+
+	/**
+	 * Gives to the consumer the ticks with a timestamp in the range, both
+	 * included, in the order they were appended. Returns the number of ticks.
+	 */
+	public long scanByTimestamp(long from, long to, TickConsumer consumer) {
+
+		long ticks = 0;
+		for (TickSegment s : segments) {
+			ticks += s.scanByTimestamp(from, to, consumer);
+		}
+
+		return ticks;
+	}
+
+	public long size() {
+		return segments.stream().mapToLong(TickSegment::size).sum();
+	}
+
+	public int getNumOfSegments() {
+		return segments.size();
+	}
+
+	/**
+	 * Writes the mapped segments to disk and deletes the next segment if no
+	 * tick was appended to it. Must be called once the writer has stopped.
+	 */
+	@Override
+	public void close() {
+
+		if (readOnly) {
+			return;
+		}
+
+		segments.forEach(TickSegment::force);
+
+		if (nextSegment != null) {
+			try {
+				Files.deleteIfExists(getNextSegment().getPath());
+			} catch (IOException | IllegalStateException e) {
+				log.warn("Error trying to delete the unused segment of {}", name, e);
+			}
+			nextSegment = null;
+		}
+	}
+}
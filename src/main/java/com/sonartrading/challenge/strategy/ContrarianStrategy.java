@@ -1,23 +1,43 @@
 package com.sonartrading.challenge.strategy;
 
 import java.time.OffsetDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
+import com.sonartrading.challenge.data.model.FixedPoint;
 import com.sonartrading.challenge.data.model.MakerSide;
 import com.sonartrading.challenge.data.model.Trade;
+import com.sonartrading.challenge.data.observer.Dispatchers;
 import com.sonartrading.challenge.data.observer.TradesObserver;
 
-import javafx.application.Platform;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Buys after a number of consecutive upticks and sells after a number of
+ * consecutive downticks.
+ * <p>
+ * The decision of every trade is taken by {@link #tick(double)}, which does
+ * not depend on the UI, so it is used by the backtests too. It can observe the
+ * lists of recent trades or be run by the {@link StrategyEngine}, not both.
+ */
 @Slf4j
-public class ContrarianStrategy implements TradesObserver {
+public class ContrarianStrategy implements TradesObserver, Strategy {
 
-	private final List<Trade> recentTrades = new ArrayList<>();
-	private final List<Trade> previousTrades = new ArrayList<>();
+	public static final int DEFAULT_UP_TICKS = 3;
+	public static final int DEFAULT_DOWN_TICKS = 3;
+	public static final double DEFAULT_ORDER_SIZE = 1.0;
 
-	private final List<ImaginaryTradesObserver> tradesObservers = new ArrayList<>();
+	private final int upTicksToBuy;
+	private final int downTicksToSell;
+	private final double orderSize;
+
+	// ID of the newest trade processed, trade IDs always increase
+	private long lastTradeID = -1;
+
+	private final List<ImaginaryTradesObserver> tradesObservers = new CopyOnWriteArrayList<>();
+	// the observers of the imaginary trades can be the UI, by default they run inline
+	private Executor imaginaryTradesExecutor = Dispatchers.INLINE;
 
 	private int upTicks = 0;
 	private int downTicks = 0;
@@ -26,63 +46,150 @@ public class ContrarianStrategy implements TradesObserver {
 
 	private long imaginaryIndex = 0;
 
+	public ContrarianStrategy() {
+		this(DEFAULT_UP_TICKS, DEFAULT_DOWN_TICKS, DEFAULT_ORDER_SIZE);
+	}
+
+	public ContrarianStrategy(int upTicksToBuy, int downTicksToSell, double orderSize) {
+		this.upTicksToBuy = upTicksToBuy;
+		this.downTicksToSell = downTicksToSell;
+		this.orderSize = orderSize;
+	}
+
+	public double getOrderSize() {
+		return orderSize;
+	}
+
 	public void addImaginaryTradesObserver(ImaginaryTradesObserver tradesObserver) {
 		tradesObservers.add(tradesObserver);
 	}
 
+	/**
+	 * Sets the executor that runs the notifications of the imaginary trades,
+	 * e.g. the JavaFX thread. Must be set before the strategy is started.
+	 */
+	public void setImaginaryTradesExecutor(Executor imaginaryTradesExecutor) {
+		this.imaginaryTradesExecutor = imaginaryTradesExecutor;
+	}
+
 	@Override
 	public void tradesUpdated(List<Trade> trades) {
 
-		// process just new trades removing previous ones
-		recentTrades.addAll(trades);
-		recentTrades.removeAll(previousTrades);
+		// we are assuming the list is sorted by date (in desc order), so the
+		// new trades are the ones before the first trade already processed
+		int newTrades = 0;
+		while (newTrades < trades.size() && isNew(trades.get(newTrades))) {
+			newTrades++;
+		}
 
-		if (recentTrades.isEmpty()) {
+		if (newTrades == 0) {
 			log.debug("There is no new trades");
 			return;
 		}
 
-		// prepare collection with trades processed for next update
-		previousTrades.clear();
-		previousTrades.addAll(trades);
+		Long newestTradeID = trades.get(0).getTradeID();
+		if (newestTradeID != null) {
+			lastTradeID = newestTradeID;
+		}
+
+		// process the new trades from the oldest one
+		for (int i = newTrades - 1; i >= 0; i--) {
+
+			double price = FixedPoint.toDouble(trades.get(i).getPrice());
+			MakerSide makerSide = tick(price);
+
+			if (makerSide != null) {
+				trade(makerSide, price);
+			}
+		}
+	}
+
+	// **************************** STRATEGY ENGINE ***************************
+
+	@Override
+	public void onTrade(String book, long tradeID, long timestamp, MakerSide makerSide, double price,
+			double amount) {
+
+		if (tradeID <= lastTradeID) {
+			return;
+		}
+
+		lastTradeID = tradeID;
+
+		MakerSide imaginarySide = tick(price);
+		if (imaginarySide != null) {
+			trade(imaginarySide, price);
+		}
+	}
+
+	// ******************************* DECISION *******************************
+
+	/**
+	 * The imaginary trades are done at the price of the trade that triggered
+	 * them, the same price used by the backtests
+	 */
+	private void trade(MakerSide makerSide, double tradePrice) {
+
+		if (makerSide == MakerSide.BUY) {
+			log.debug("Buying {} BTC", orderSize);
+		} else {
+			log.debug("Selling {} BTC", orderSize);
+		}
+
+		notifyImaginaryTrade(makerSide, tradePrice);
+	}
 
-		// we are assuming the list is sorted by date (in desc order)
-		for (int i = recentTrades.size() - 1; i >= 0; i--) {
+	/**
+	 * Counts the ticks of a new trade price, returns the side of the imaginary
+	 * trade to do or {@code null} if there is none
+	 */
+	public MakerSide tick(double price) {
 
-			Trade trade = recentTrades.get(i);
+		MakerSide makerSide = null;
 
-			if (trade.getPrice() > lastPrice) {
+		if (price > lastPrice) {
 
-				upTicks++;
-				log.debug("UpTick, upTicks: {}, downTicks: {}", upTicks, downTicks);
-				
-				if (upTicks >= 3) {
-					upTicks = 0;
-					log.debug("Buying 1 BTC, upTicks: {}, downTicks: {}", upTicks, downTicks);
-					Platform.runLater(() -> tradesObservers.forEach(o -> o.newImaginaryTrade(
-							new Trade(imaginaryIndex++, MakerSide.BUY, OffsetDateTime.now(), 1.0, trade.getPrice()))));
-				}
+			upTicks++;
+			log.debug("UpTick, upTicks: {}, downTicks: {}", upTicks, downTicks);
 
-			} else if (trade.getPrice() < lastPrice) {
+			if (upTicks >= upTicksToBuy) {
+				upTicks = 0;
+				makerSide = MakerSide.BUY;
+			}
 
-				downTicks++;
-				log.debug("DownTick, upTicks: {}, downTicks: {}", upTicks, downTicks);
+		} else if (price < lastPrice) {
 
-				if (downTicks >= 3) {
-					downTicks = 0;
-					log.debug("Selling 1 BTC, upTicks: {}, downTicks: {}", upTicks, downTicks);
-					Platform.runLater(() -> tradesObservers.forEach(o -> o.newImaginaryTrade(
-							new Trade(imaginaryIndex++, MakerSide.SELL, OffsetDateTime.now(), 1.0, trade.getPrice()))));
-				}
+			downTicks++;
+			log.debug("DownTick, upTicks: {}, downTicks: {}", upTicks, downTicks);
 
-			} else {
-				log.debug("No action. upTicks: {}, downTicks: {}", upTicks, downTicks);
+			if (downTicks >= downTicksToSell) {
+				downTicks = 0;
+				makerSide = MakerSide.SELL;
 			}
 
-			lastPrice = trade.getPrice();
+		} else {
+			log.debug("No action. upTicks: {}, downTicks: {}", upTicks, downTicks);
 		}
 
-		recentTrades.clear();
+		lastPrice = price;
+		return makerSide;
+	}
+
+	private void notifyImaginaryTrade(MakerSide makerSide, double price) {
+
+		if (tradesObservers.isEmpty()) {
+			return;
+		}
+
+		long amount = FixedPoint.of(orderSize);
+		long fixedPointPrice = FixedPoint.of(price);
+
+		imaginaryTradesExecutor.execute(() -> tradesObservers.forEach(o -> o.newImaginaryTrade(
+				new Trade(imaginaryIndex++, makerSide, OffsetDateTime.now(), amount, fixedPointPrice))));
+	}
+
+	private boolean isNew(Trade trade) {
+		return trade.getTradeID() == null || trade.getTradeID() > lastTradeID;
 	}
 
 	@Override
@@ -0,0 +1,91 @@
+package com.sonartrading.challenge.strategy;
+
+import com.sonartrading.challenge.data.model.MakerSide;
+
+/**
+ * A market event published by the {@link StrategyEngine}. The same immutable
+ * event is shared by all the strategies.
+ */
+abstract class MarketEvent {
+
+	private final long publishNanos = System.nanoTime();
+
+	long getPublishNanos() {
+		return publishNanos;
+	}
+
+	abstract void dispatch(Strategy strategy);
+
+	static final class TradeEvent extends MarketEvent {
+
+		private final String book;
+		private final long tradeID;
+		private final long timestamp;
+		private final MakerSide makerSide;
+		private final double price;
+		private final double amount;
+
+		TradeEvent(String book, long tradeID, long timestamp, MakerSide makerSide, double price, double amount) {
+			this.book = book;
+			this.tradeID = tradeID;
+			this.timestamp = timestamp;
+			this.makerSide = makerSide;
+			this.price = price;
+			this.amount = amount;
+		}
+
+		@Override
+		void dispatch(Strategy strategy) {
+			strategy.onTrade(book, tradeID, timestamp, makerSide, price, amount);
+		}
+	}
+
+	static final class BookTopEvent extends MarketEvent {
+
+		private final String book;
+		private final long sequence;
+		private final double bestBid;
+		private final double bestBidAmount;
+		private final double bestAsk;
+		private final double bestAskAmount;
+
+		BookTopEvent(String book, long sequence, double bestBid, double bestBidAmount, double bestAsk,
+				double bestAskAmount) {
+			this.book = book;
+			this.sequence = sequence;
+			this.bestBid = bestBid;
+			this.bestBidAmount = bestBidAmount;
+			this.bestAsk = bestAsk;
+			this.bestAskAmount = bestAskAmount;
+		}
+
+		@Override
+		void dispatch(Strategy strategy) {
+			strategy.onBookTop(book, sequence, bestBid, bestBidAmount, bestAsk, bestAskAmount);
+		}
+	}
+
+	static final class DiffEvent extends MarketEvent {
+
+		private final String book;
+		private final long sequence;
+		private final long timestamp;
+		private final MakerSide makerSide;
+		private final double price;
+		private final double amount;
+
+		DiffEvent(String book, long sequence, long timestamp, MakerSide makerSide, double price, double amount) {
+			this.book = book;
+			this.sequence = sequence;
+			this.timestamp = timestamp;
+			this.makerSide = makerSide;
+			this.price = price;
+			this.amount = amount;
+		}
+
+		@Override
+		void dispatch(Strategy strategy) {
+			strategy.onDiff(book, sequence, timestamp, makerSide, price, amount);
+		}
+	}
+}
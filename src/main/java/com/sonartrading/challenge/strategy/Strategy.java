@@ -0,0 +1,14 @@
+package com.sonartrading.challenge.strategy;
+
+import com.sonartrading.challenge.data.observer.MarketObserver;
+
+/**
+ * A strategy run by the {@link StrategyEngine}. Its callbacks are always
+ * called by the same thread, one at a time, so it needs no locks.
+ */
+public interface Strategy extends MarketObserver {
+
+	default String getName() {
+		return getClass().getSimpleName();
+	}
+}
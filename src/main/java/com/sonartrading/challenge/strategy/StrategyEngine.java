@@ -0,0 +1,197 @@
+package com.sonartrading.challenge.strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.sonartrading.challenge.data.model.MakerSide;
+import com.sonartrading.challenge.data.observer.MarketObserver;
+import com.sonartrading.challenge.exception.InitializationException;
+import com.sonartrading.challenge.sequencer.EventLoop;
+import com.sonartrading.challenge.strategy.MarketEvent.BookTopEvent;
+import com.sonartrading.challenge.strategy.MarketEvent.DiffEvent;
+import com.sonartrading.challenge.strategy.MarketEvent.TradeEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs any number of strategies over the market events of the books it
+ * observes (see {@link MarketObserver}).
+ * <p>
+ * Every strategy is run by the event loop of its name, shared with the
+ * engines of other books (see {@link StrategyEventLoops}), or by any event
+ * loop given, so the threads of the managers only publish the events. The
+ * events are published without waiting: a slow strategy drops its own events
+ * and does not delay the managers or the other strategies.
+ * Every type of event is published only to the strategies that override its
+ * callback, so the events nobody uses (usually the diff-orders) are not even
+ * created.
+ * <p>
+ * The time every strategy spends deciding is measured, see
+ * {@link #getStats()}.
+ */
+@Slf4j
+public class StrategyEngine implements MarketObserver, AutoCloseable {
+
+	// arrays, so they can be iterated by the publishers without allocations
+	private volatile StrategyRunner[] runners = new StrategyRunner[0];
+	private volatile StrategyRunner[] tradeRunners = new StrategyRunner[0];
+	private volatile StrategyRunner[] bookTopRunners = new StrategyRunner[0];
+	private volatile StrategyRunner[] diffRunners = new StrategyRunner[0];
+
+	// event loops of the strategies added without one, closed with the
+	// engine only if it created them
+	private final StrategyEventLoops eventLoops;
+	private final boolean ownEventLoops;
+
+	/**
+	 * Creates an engine whose strategies are run by its own threads
+	 */
+	public StrategyEngine() {
+		this(new StrategyEventLoops(), true);
+	}
+
+	/**
+	 * Creates an engine whose strategies are run by the given event loops,
+	 * which can be shared with the engines of other books and are not closed
+	 * by this engine
+	 */
+	public StrategyEngine(StrategyEventLoops eventLoops) {
+		this(eventLoops, false);
+	}
+
+	private StrategyEngine(StrategyEventLoops eventLoops, boolean ownEventLoops) {
+		this.eventLoops = eventLoops;
+		this.ownEventLoops = ownEventLoops;
+	}
+
+	/**
+	 * Adds a strategy run by the event loop of its name, see
+	 * {@link StrategyEventLoops}
+	 */
+	public synchronized void addStrategy(Strategy strategy) {
+		addStrategy(strategy, eventLoops.get(strategy.getName()));
+	}
+
+	/**
+	 * Adds a strategy run by the given event loop, which can be shared with
+	 * other strategies
+	 */
+	public synchronized void addStrategy(Strategy strategy, EventLoop eventLoop) {
+
+		StrategyRunner runner = new StrategyRunner(strategy, eventLoop);
+
+		if (overrides(strategy, "onTrade", String.class, long.class, long.class, MakerSide.class, double.class,
+				double.class)) {
+			tradeRunners = append(tradeRunners, runner);
+		}
+		if (overrides(strategy, "onBookTop", String.class, long.class, double.class, double.class, double.class,
+				double.class)) {
+			bookTopRunners = append(bookTopRunners, runner);
+		}
+		if (overrides(strategy, "onDiff", String.class, long.class, long.class, MakerSide.class, double.class,
+				double.class)) {
+			diffRunners = append(diffRunners, runner);
+		}
+
+		runners = append(runners, runner);
+
+		log.info("Strategy {} added", strategy.getName());
+	}
+
+	private static StrategyRunner[] append(StrategyRunner[] runners, StrategyRunner runner) {
+
+		StrategyRunner[] newRunners = Arrays.copyOf(runners, runners.length + 1);
+		newRunners[runners.length] = runner;
+		return newRunners;
+	}
+
+	/**
+	 * Returns {@code true} if the strategy overrides the empty callback of
+	 * {@link MarketObserver} with the given name and parameters
+	 */
+	private static boolean overrides(Strategy strategy, String callback, Class<?>... parameterTypes) {
+
+		try {
+			return strategy.getClass().getMethod(callback, parameterTypes).getDeclaringClass() != MarketObserver.class;
+		} catch (NoSuchMethodException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * Adds the strategies of the given comma separated list of class names,
+	 * every class with a public constructor without arguments
+	 */
+	public void addStrategies(String classNames) {
+
+		for (String className : classNames.split(",")) {
+
+			if (className.trim().isEmpty()) {
+				continue;
+			}
+
+			try {
+				addStrategy((Strategy) Class.forName(className.trim()).getDeclaredConstructor().newInstance());
+			} catch (ReflectiveOperationException | ClassCastException e) {
+				throw new InitializationException("Error trying to create the strategy " + className, e);
+			}
+		}
+	}
+
+	// ***************************** MARKET EVENTS ****************************
+
+	@Override
+	public void onTrade(String book, long tradeID, long timestamp, MakerSide makerSide, double price, double amount) {
+		StrategyRunner[] current = tradeRunners;
+		if (current.length > 0) {
+			publish(current, new TradeEvent(book, tradeID, timestamp, makerSide, price, amount));
+		}
+	}
+
+	@Override
+	public void onBookTop(String book, long sequence, double bestBid, double bestBidAmount, double bestAsk,
+			double bestAskAmount) {
+		StrategyRunner[] current = bookTopRunners;
+		if (current.length > 0) {
+			publish(current, new BookTopEvent(book, sequence, bestBid, bestBidAmount, bestAsk, bestAskAmount));
+		}
+	}
+
+	@Override
+	public void onDiff(String book, long sequence, long timestamp, MakerSide makerSide, double price,
+			double amount) {
+		StrategyRunner[] current = diffRunners;
+		if (current.length > 0) {
+			publish(current, new DiffEvent(book, sequence, timestamp, makerSide, price, amount));
+		}
+	}
+
+	private static void publish(StrategyRunner[] runners, MarketEvent event) {
+		for (StrategyRunner runner : runners) {
+			runner.publish(event);
+		}
+	}
+
+	// ******************************** STATS *********************************
+
+	public List<StrategyStats> getStats() {
+
+		List<StrategyStats> stats = new ArrayList<>();
+		for (StrategyRunner runner : runners) {
+			stats.add(runner.getStats());
+		}
+
+		return stats;
+	}
+
+	@Override
+	public synchronized void close() {
+
+		getStats().forEach(s -> log.info("{}", s));
+
+		if (ownEventLoops) {
+			eventLoops.close();
+		}
+	}
+}
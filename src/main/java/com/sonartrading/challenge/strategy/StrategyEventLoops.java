@@ -0,0 +1,29 @@
+package com.sonartrading.challenge.strategy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.sonartrading.challenge.sequencer.EventLoop;
+
+/**
+ * The event loops of the strategies, one by name of strategy, created when
+ * first needed. Shared by the engines of several books, every strategy is run
+ * by one thread for all the books instead of one thread by book.
+ */
+public class StrategyEventLoops implements AutoCloseable {
+
+	private final Map<String, EventLoop> eventLoops = new LinkedHashMap<>();
+
+	/**
+	 * Returns the event loop of the strategy with the given name
+	 */
+	public synchronized EventLoop get(String name) {
+		return eventLoops.computeIfAbsent(name, n -> new EventLoop("strategy-" + n));
+	}
+
+	@Override
+	public synchronized void close() {
+		eventLoops.values().forEach(EventLoop::close);
+		eventLoops.clear();
+	}
+}
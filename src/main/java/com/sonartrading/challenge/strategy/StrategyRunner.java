@@ -0,0 +1,62 @@
+package com.sonartrading.challenge.strategy;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sonartrading.challenge.sequencer.EventHandler;
+import com.sonartrading.challenge.sequencer.EventLoop;
+
+/**
+ * Delivers the events of the engine to one strategy from its event loop and
+ * measures the time of its decisions.
+ */
+class StrategyRunner implements EventHandler {
+
+	private final Strategy strategy;
+	private final EventLoop eventLoop;
+
+	private final LongAdder dropped = new LongAdder();
+
+	// written only by the event loop thread
+	private volatile long events;
+	private volatile long totalDecisionNanos;
+	private volatile long maxDecisionNanos;
+	private volatile long maxLagNanos;
+
+	StrategyRunner(Strategy strategy, EventLoop eventLoop) {
+		this.strategy = strategy;
+		this.eventLoop = eventLoop;
+	}
+
+	/**
+	 * Publishes the event without waiting, if the strategy is so slow that its
+	 * ring is full the event is dropped, so it does not delay the publisher
+	 */
+	void publish(MarketEvent event) {
+		if (!eventLoop.tryPublish(this, event, -1)) {
+			dropped.increment();
+		}
+	}
+
+	@Override
+	public void onEvent(Object payload, long sequence) {
+
+		MarketEvent event = (MarketEvent) payload;
+		long start = System.nanoTime();
+
+		event.dispatch(strategy);
+
+		long decisionNanos = System.nanoTime() - start;
+
+		events++;
+		totalDecisionNanos += decisionNanos;
+		maxDecisionNanos = Math.max(maxDecisionNanos, decisionNanos);
+		maxLagNanos = Math.max(maxLagNanos, start - event.getPublishNanos());
+	}
+
+	StrategyStats getStats() {
+
+		long count = events;
+		return new StrategyStats(strategy.getName(), count, dropped.sum(), count > 0 ? totalDecisionNanos / count : 0,
+				maxDecisionNanos, maxLagNanos);
+	}
+}
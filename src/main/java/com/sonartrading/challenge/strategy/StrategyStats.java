@@ -0,0 +1,22 @@
+package com.sonartrading.challenge.strategy;
+
+import lombok.Value;
+
+/**
+ * Counters of a strategy run by the {@link StrategyEngine}. The decision time
+ * is the time spent in the callbacks of the strategy, the lag is the time an
+ * event waited to be handled since it was published.
+ */
+@Value
+public class StrategyStats {
+
+	private String name;
+
+	private long events;
+	// events not delivered because the strategy was too slow
+	private long dropped;
+
+	private long meanDecisionNanos;
+	private long maxDecisionNanos;
+	private long maxLagNanos;
+}
@@ -0,0 +1,179 @@
+package com.sonartrading.challenge.view;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * The rows of a table, updated from any thread and applied to the items of
+ * the table in the JavaFX thread, see {@link #apply()}.
+ * <p>
+ * The updates received between two calls to apply are conflated: only the
+ * last list of rows is kept, and the rows changed in place are kept once. When
+ * they are applied only the rows that are different, or that were changed,
+ * are replaced, so the table redraws those rows instead of all of them. The
+ * rows inserted and removed at an index are applied in order after the last
+ * list of rows, one by one.
+ */
+public class ConflatedRows<T> {
+
+	// the items of the table, only changed by the JavaFX thread
+	private final ObservableList<T> items = FXCollections.observableArrayList();
+
+	// ********* pending updates, guarded by this *********
+	private List<T> pendingRows;
+	private List<T> pendingAdditions = new ArrayList<>();
+	// rows can be mutable objects with value equality, they are compared by identity
+	private Set<T> pendingChanges = Collections.newSetFromMap(new IdentityHashMap<>());
+	private List<Delta<T>> pendingDeltas = new ArrayList<>();
+
+	public ObservableList<T> getItems() {
+		return items;
+	}
+
+	/**
+	 * Replaces all the rows, the list is not modified later by the caller
+	 */
+	public synchronized void setRows(List<T> rows) {
+		pendingRows = rows;
+		pendingAdditions.clear();
+		pendingDeltas.clear();
+	}
+
+	/**
+	 * A row changed in place, e.g. the amount of an order
+	 */
+	public synchronized void rowChanged(T row) {
+		pendingChanges.add(row);
+	}
+
+	/**
+	 * Inserts a row at the given index, the ones after it move down
+	 */
+	public synchronized void insertRow(int index, T row) {
+		pendingDeltas.add(new Delta<>(index, row, true));
+	}
+
+	/**
+	 * Removes the row at the given index, the ones after it move up
+	 */
+	public synchronized void removeRow(int index, T row) {
+		pendingDeltas.add(new Delta<>(index, row, false));
+	}
+
+	/**
+	 * Adds a row at the end
+	 */
+	public synchronized void addRow(T row) {
+		pendingAdditions.add(row);
+	}
+
+	/**
+	 * Applies the pending updates to the items, must be called by the JavaFX
+	 * thread. Returns {@code false} if there was nothing to apply.
+	 */
+	public boolean apply() {
+
+		List<T> rows;
+		List<T> additions;
+		Set<T> changes;
+		List<Delta<T>> deltas;
+
+		synchronized (this) {
+
+			if (pendingRows == null && pendingAdditions.isEmpty() && pendingChanges.isEmpty()
+					&& pendingDeltas.isEmpty()) {
+				return false;
+			}
+
+			rows = pendingRows;
+			pendingRows = null;
+
+			additions = pendingAdditions;
+			pendingAdditions = additions.isEmpty() ? additions : new ArrayList<>();
+
+			changes = pendingChanges;
+			pendingChanges = changes.isEmpty() ? changes : Collections.newSetFromMap(new IdentityHashMap<>());
+
+			deltas = pendingDeltas;
+			pendingDeltas = deltas.isEmpty() ? deltas : new ArrayList<>();
+		}
+
+		if (rows != null) {
+			replaceRows(rows, changes);
+		} else if (!changes.isEmpty()) {
+			for (int i = 0; i < items.size(); i++) {
+				T item = items.get(i);
+				if (changes.contains(item)) {
+					items.set(i, item);
+				}
+			}
+		}
+
+		for (Delta<T> delta : deltas) {
+			applyDelta(delta);
+		}
+
+		items.addAll(additions);
+
+		return true;
+	}
+
+	private void applyDelta(Delta<T> delta) {
+
+		if (delta.insert) {
+			items.add(Math.min(delta.index, items.size()), delta.row);
+			return;
+		}
+
+		// the items could have been truncated by the table, the row is looked
+		// for only if it is not at its index
+		if (delta.index < items.size() && items.get(delta.index) == delta.row) {
+			items.remove(delta.index);
+			return;
+		}
+
+		for (int i = 0; i < items.size(); i++) {
+			if (items.get(i) == delta.row) {
+				items.remove(i);
+				return;
+			}
+		}
+	}
+
+	private void replaceRows(List<T> rows, Set<T> changes) {
+
+		int common = Math.min(items.size(), rows.size());
+
+		for (int i = 0; i < common; i++) {
+			T row = rows.get(i);
+			if (items.get(i) != row || changes.contains(row)) {
+				items.set(i, row);
+			}
+		}
+
+		if (items.size() > rows.size()) {
+			items.remove(rows.size(), items.size());
+		} else if (rows.size() > common) {
+			items.addAll(rows.subList(common, rows.size()));
+		}
+	}
+
+	private static class Delta<T> {
+
+		private final int index;
+		private final T row;
+		private final boolean insert;
+
+		private Delta(int index, T row, boolean insert) {
+			this.index = index;
+			this.row = row;
+			this.insert = insert;
+		}
+	}
+}
@@ -1,10 +1,14 @@
 package com.sonartrading.challenge.view;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import com.sonartrading.challenge.data.OrdersManager;
 import com.sonartrading.challenge.data.TradesManager;
+import com.sonartrading.challenge.data.model.FixedPoint;
 import com.sonartrading.challenge.data.model.MakerSide;
 import com.sonartrading.challenge.data.model.Order;
 import com.sonartrading.challenge.data.model.Trade;
@@ -12,7 +16,8 @@ import com.sonartrading.challenge.data.observer.OrdersObserver;
 import com.sonartrading.challenge.data.observer.TradesObserver;
 import com.sonartrading.challenge.strategy.ImaginaryTradesObserver;
 
-import javafx.collections.FXCollections;
+import javafx.animation.AnimationTimer;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.fxml.FXML;
@@ -28,9 +33,15 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class MainController implements OrdersObserver, TradesObserver, ImaginaryTradesObserver {
 
+	// the tables are updated at most 60 times per second
+	private static final long MIN_FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+
 	private static final String[] ORDER_FIELD_NAMES = { "orderID", "amount", "price" };
 	private static final String[] ORDER_TABLE_COLUMN_NAMES = { "Order ID", "Amount", "Price" };
 
+	// the prices and amounts are fixed point, displayed as decimals
+	private static final Set<String> FIXED_POINT_FIELD_NAMES = new HashSet<>(Arrays.asList("amount", "price"));
+
 	private static final String[] TRADE_FIELD_NAMES = { "tradeID", "makerSide", "date", "amount", "price" };
 	private static final String[] TRADE_TABLE_COLUMN_NAMES = { "Trade ID", "Maker Side", "Date", "Amount", "Price" };
 
@@ -49,9 +60,6 @@ public class MainController implements OrdersObserver, TradesObserver, Imaginary
 	@FXML
 	private MenuItem quitMenuItem;
 
-	@FXML
-	private TextField tradesPollingTime;
-
 	@FXML
 	private TextField numOfTradesToDisplay;
 	private int lastNumberOfTradesToDisplay = TradesManager.DEFAULT_TRADES_TO_OBSERVE;
@@ -63,11 +71,31 @@ public class MainController implements OrdersObserver, TradesObserver, Imaginary
 	private OrdersManager ordersManager;
 	private TradesManager tradesManager;
 
-	private List<Trade> recentTrades = new ArrayList<>();
-	private List<Order> recentAskOrders = new ArrayList<>();
-	private List<Order> recentBidOrders = new ArrayList<>();
+	// the observers are notified by the threads of the managers, the rows are
+	// applied to the tables by the JavaFX thread once per frame
+	private final ConflatedRows<Trade> recentTrades = new ConflatedRows<>();
+	private final ConflatedRows<Order> recentAskOrders = new ConflatedRows<>();
+	private final ConflatedRows<Order> recentBidOrders = new ConflatedRows<>();
+	private final ConflatedRows<Trade> imaginaryTrades = new ConflatedRows<>();
+
+	private final AnimationTimer frameTimer = new AnimationTimer() {
 
-	private List<Trade> imaginaryTrades = new ArrayList<>();
+		private long lastFrame;
+
+		@Override
+		public void handle(long now) {
+
+			if (now - lastFrame < MIN_FRAME_NANOS) {
+				return;
+			}
+			lastFrame = now;
+
+			recentBidOrders.apply();
+			recentAskOrders.apply();
+			recentTrades.apply();
+			imaginaryTrades.apply();
+		}
+	};
 
 	@FXML
 	public void initialize() {
@@ -77,23 +105,34 @@ public class MainController implements OrdersObserver, TradesObserver, Imaginary
 		initOrdersTableView(recentTradesTable, TRADE_TABLE_COLUMN_NAMES, TRADE_FIELD_NAMES);
 		initOrdersTableView(imaginaryTradesTable, TRADE_TABLE_COLUMN_NAMES, TRADE_FIELD_NAMES);
 
-		imaginaryTradesTable.setItems(FXCollections.observableList(imaginaryTrades));
-		recentTradesTable.setItems(FXCollections.observableList(recentTrades));
+		buyOrdersTable.setItems(recentBidOrders.getItems());
+		sellOrdersTable.setItems(recentAskOrders.getItems());
+		imaginaryTradesTable.setItems(imaginaryTrades.getItems());
+		recentTradesTable.setItems(recentTrades.getItems());
+
+		frameTimer.start();
 
 		numOfOrdersToDisplay.setText(Integer.toString(OrdersManager.DEFAULT_ORDERS_TO_OBSERVE));
 		numOfOrdersToDisplay.setOnKeyPressed(ordersToDisplayEvent);
 
 		numOfTradesToDisplay.setText(Integer.toString(TradesManager.DEFAULT_TRADES_TO_OBSERVE));
 		numOfTradesToDisplay.setOnKeyPressed(tradesToDisplayEvent);
-
-		tradesPollingTime.setText(Integer.toString(TradesManager.DEFAULT_TIME_TO_POLL_TRADES));
-		tradesPollingTime.setOnKeyPressed(tradesPollingTimeEvent);
 	}
 
 	private <T> void initOrdersTableView(TableView<T> tableView, String columnNames[], String fieldNames[]) {
 		for (int index = 0; index < columnNames.length; index++) {
-			TableColumn<T, String> column = new TableColumn<>(columnNames[index]);
-			column.setCellValueFactory(new PropertyValueFactory<T, String>(fieldNames[index]));
+			TableColumn<T, Object> column = new TableColumn<>(columnNames[index]);
+			PropertyValueFactory<T, Object> property = new PropertyValueFactory<>(fieldNames[index]);
+
+			if (FIXED_POINT_FIELD_NAMES.contains(fieldNames[index])) {
+				column.setCellValueFactory(c -> {
+					Object value = property.call(c).getValue();
+					return new ReadOnlyObjectWrapper<>(value != null ? FixedPoint.toString((Long) value) : null);
+				});
+			} else {
+				column.setCellValueFactory(property);
+			}
+
 			column.setEditable(false);
 			column.setSortable(false);
 			tableView.getColumns().add(column);
@@ -120,10 +159,7 @@ public class MainController implements OrdersObserver, TradesObserver, Imaginary
 	@Override
 	public void tradesUpdated(List<Trade> trades) {
 		log.debug("Updating trades table with {} items", trades.size());
-
-		recentTrades.clear();
-		recentTrades.addAll(trades);
-		recentTradesTable.refresh();
+		recentTrades.setRows(trades);
 	}
 
 	@Override
@@ -133,50 +169,54 @@ public class MainController implements OrdersObserver, TradesObserver, Imaginary
 
 		switch (order.getMarkerSide()) {
 		case BUY:
-			buyOrdersTable.refresh();
+			recentBidOrders.rowChanged(order);
 			break;
 
 		case SELL:
-			sellOrdersTable.refresh();
+			recentAskOrders.rowChanged(order);
 			break;
 		}
 	}
 
+	@Override
+	public void orderInserted(Order order, int index) {
+
+		log.debug("Order inserted at index {}", index);
+		getOrderRows(order.getMarkerSide()).insertRow(index, order);
+	}
+
+	@Override
+	public void orderRemoved(Order order, int index) {
+
+		log.debug("Order removed at index {}", index);
+		getOrderRows(order.getMarkerSide()).removeRow(index, order);
+	}
+
+	private ConflatedRows<Order> getOrderRows(MakerSide makerSide) {
+		return makerSide == MakerSide.BUY ? recentBidOrders : recentAskOrders;
+	}
+
 	@Override
 	public void ordersUpdated(List<Order> orders, MakerSide makerSide, int changeIndex) {
 
 		log.debug("Updating orders {} table with {} items", makerSide, orders.size());
 
-		List<Order> recentOrders;
-		TableView<Order> tableView;
-
 		if (makerSide == MakerSide.BUY) {
-			recentOrders = recentBidOrders;
-			tableView = buyOrdersTable;
+			recentBidOrders.setRows(orders);
 		} else {
-			recentOrders = recentAskOrders;
-			tableView = sellOrdersTable;
+			recentAskOrders.setRows(orders);
 		}
-
-		recentOrders.clear();
-		recentOrders.addAll(orders);
-		tableView.refresh();
 	}
 
 	@Override
 	public void setOrders(List<Order> askOrders, List<Order> bidOrders) {
-
-		recentBidOrders.addAll(bidOrders);
-		buyOrdersTable.setItems(FXCollections.observableList(recentBidOrders));
-
-		recentAskOrders.addAll(askOrders);
-		sellOrdersTable.setItems(FXCollections.observableList(recentAskOrders));
+		recentBidOrders.setRows(bidOrders);
+		recentAskOrders.setRows(askOrders);
 	}
 
 	@Override
 	public void newImaginaryTrade(Trade trade) {
-		imaginaryTrades.add(trade);
-		imaginaryTradesTable.refresh();
+		imaginaryTrades.addRow(trade);
 	}
 
 	private final EventHandler<? super KeyEvent> ordersToDisplayEvent = event -> {
@@ -186,10 +226,8 @@ public class MainController implements OrdersObserver, TradesObserver, Imaginary
 				int number = Integer.parseInt(numOfOrdersToDisplay.getText());
 
 				if (lastNumberOfOrdersToDisplay > number) {
-					recentAskOrders.subList(number, recentAskOrders.size()).clear();
-					recentBidOrders.subList(number, recentBidOrders.size()).clear();
-					buyOrdersTable.refresh();
-					sellOrdersTable.refresh();
+					truncate(recentAskOrders.getItems(), number);
+					truncate(recentBidOrders.getItems(), number);
 				}
 
 				lastNumberOfOrdersToDisplay = number;
@@ -207,8 +245,7 @@ public class MainController implements OrdersObserver, TradesObserver, Imaginary
 				int number = Integer.parseInt(numOfTradesToDisplay.getText());
 
 				if (lastNumberOfTradesToDisplay > number) {
-					recentTrades.subList(number, recentTrades.size()).clear();
-					recentTradesTable.refresh();
+					truncate(recentTrades.getItems(), number);
 				}
 
 				lastNumberOfTradesToDisplay = number;
@@ -219,16 +256,11 @@ public class MainController implements OrdersObserver, TradesObserver, Imaginary
 		}
 	};
 
-	private final EventHandler<? super KeyEvent> tradesPollingTimeEvent = event -> {
-
-		if (event.getCode() == KeyCode.ENTER && tradesManager != null) {
-			try {
-				tradesManager.setPollingTime(Integer.parseInt(tradesPollingTime.getText()));
-			} catch (NumberFormatException nfe) {
-				// nothing
-			}
+	private static void truncate(List<?> items, int size) {
+		if (items.size() > size) {
+			items.subList(size, items.size()).clear();
 		}
-	};
+	}
 
 	@Override
 	public ObserverType getObserverType() {
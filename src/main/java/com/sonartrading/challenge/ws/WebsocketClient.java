@@ -1,69 +1,278 @@
 package com.sonartrading.challenge.ws;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.neovisionaries.ws.client.WebSocket;
 import com.neovisionaries.ws.client.WebSocketAdapter;
 import com.neovisionaries.ws.client.WebSocketException;
 import com.neovisionaries.ws.client.WebSocketFactory;
+import com.neovisionaries.ws.client.WebSocketFrame;
 import com.sonartrading.challenge.exception.InitializationException;
+import com.sonartrading.challenge.journal.JournalWriter;
+import com.sonartrading.challenge.latency.LatencyMonitor;
 import com.sonartrading.challenge.ws.dto.Subscribe;
-import com.sonartrading.challenge.ws.dto.WebsocketMessage;
 import com.sonartrading.challenge.ws.handler.WebsocketHandler;
 
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Websocket connection shared by the managers of the books.
+ * <p>
+ * When the connection is lost it is opened again with an exponential backoff
+ * with jitter (from {@value #MIN_BACKOFF_MILLIS} ms to
+ * {@value #MAX_BACKOFF_MILLIS} ms), the subscriptions of the handlers are sent
+ * again and the handlers are told with
+ * {@link WebsocketHandler#onReconnect()}, so they can recover the messages
+ * lost meanwhile keeping what they have in memory. The number of reconnections
+ * and the time of the last one are exposed.
+ */
 @Slf4j
 public class WebsocketClient extends WebSocketAdapter {
 
+	static final long MIN_BACKOFF_MILLIS = 100;
+	static final long MAX_BACKOFF_MILLIS = 30_000;
+
 	private final Gson gson = new Gson();
-	private final Type messageType = new TypeToken<WebsocketMessage<?>>() {
-	}.getType();
 
-	private WebSocket websocket;
+	// messages are received always by the same thread
+	private final WebsocketDispatcher dispatcher = new WebsocketDispatcher();
+
+	private volatile WebSocket websocket;
+
+	// if set, every frame received is recorded before it is dispatched
+	private volatile JournalWriter journal;
+
+	// if set, the frames are timestamped on reception
+	private volatile LatencyMonitor latencyMonitor;
+
+	// reconnections, only in the thread of the executor
+	private ScheduledExecutorService reconnectExecutor;
+	private int reconnectAttempts;
+	private long disconnectedTime;
+	private volatile boolean closed;
 
-	private Map<String, Map<String, WebsocketHandler>> handlers = new HashMap<String, Map<String, WebsocketHandler>>();
+	// metrics
+	private volatile long reconnects = 0;
+	private volatile long lastReconnectMillis = 0;
+	private final LongAdder framesReceived = new LongAdder();
+	private final LongAdder charsReceived = new LongAdder();
+
+	/**
+	 * Creates a client without connection, its frames are given by
+	 * {@link #onTextMessage(WebSocket, String)} (replays, benchmarks).
+	 */
+	public WebsocketClient() {
+	}
 
 	public WebsocketClient(String serverUri) {
+		this(createSocket(serverUri));
+	}
+
+	/**
+	 * Creates a client that opens the given websocket, not connected yet
+	 */
+	WebsocketClient(WebSocket websocket) {
+
+		reconnectExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "websocket-reconnect");
+			thread.setDaemon(true);
+			return thread;
+		});
+
 		try {
-			websocket = new WebSocketFactory().createSocket(serverUri).addListener(this).connect();
-		} catch (WebSocketException | IOException e) {
+			this.websocket = websocket.addListener(this).connect();
+		} catch (WebSocketException e) {
+			reconnectExecutor.shutdownNow();
+			throw new InitializationException("Error trying to create websocket connection", e);
+		}
+	}
+
+	private static WebSocket createSocket(String serverUri) {
+
+		try {
+			return new WebSocketFactory().createSocket(serverUri);
+		} catch (IOException e) {
 			throw new InitializationException("Error trying to create websocket connection", e);
 		}
 	}
 
-	public void addHandler(String book, String type, WebsocketHandler handler) {
+	public void addHandler(String book, String type, WebsocketHandler<?> handler) {
 
-		Map<String, WebsocketHandler> bookHandler = handlers.get(book);
+		dispatcher.addHandler(book, type, handler);
 
-		if (bookHandler == null) {
-			bookHandler = new HashMap<>();
-			handlers.put(book, bookHandler);
+		WebSocket ws = websocket;
+		if (ws != null && ws.isOpen()) {
+			ws.sendText(gson.toJson(new Subscribe(book, type)));
 		}
+	}
+
+	public void setJournal(JournalWriter journal) {
+		this.journal = journal;
+	}
+
+	/**
+	 * Measures the latency of the frames from their reception, see
+	 * {@link LatencyMonitor}.
+	 */
+	public void setLatencyMonitor(LatencyMonitor latencyMonitor) {
+		this.latencyMonitor = latencyMonitor;
+		dispatcher.setLatencyMonitor(latencyMonitor);
+	}
+
+	/**
+	 * Number of times the connection has been opened again
+	 */
+	public long getReconnects() {
+		return reconnects;
+	}
+
+	/**
+	 * Time of the last reconnection, from the disconnection to the
+	 * subscriptions sent again
+	 */
+	public long getLastReconnectMillis() {
+		return lastReconnectMillis;
+	}
 
-		bookHandler.put(type, handler);
-		websocket.sendText(gson.toJson(new Subscribe(book, type)));
+	/**
+	 * Text frames received since the start
+	 */
+	public long getFramesReceived() {
+		return framesReceived.sum();
+	}
+
+	/**
+	 * Characters of the text frames received since the start, the same as
+	 * their bytes as the messages are ASCII
+	 */
+	public long getBytesReceived() {
+		return charsReceived.sum();
+	}
+
+	public boolean isConnected() {
+		WebSocket ws = websocket;
+		return ws != null && ws.isOpen();
+	}
+
+	/**
+	 * Closes the connection, it is not opened again.
+	 */
+	public void close() {
+
+		closed = true;
+
+		if (reconnectExecutor != null) {
+			reconnectExecutor.shutdownNow();
+		}
+
+		WebSocket ws = websocket;
+		if (ws != null) {
+			ws.disconnect();
+		}
 	}
 
 	@Override
 	public void onTextMessage(WebSocket websocket, String data) throws Exception {
 
+		long receivedNanos = latencyMonitor != null ? System.nanoTime() : 0;
+
+		framesReceived.increment();
+		charsReceived.add(data.length());
+
 		log.debug("Message received: {}", data);
-		WebsocketMessage<?> message = gson.fromJson(data, messageType);
 
-		Map<String, WebsocketHandler> bookHandler = handlers.get(message.getBook());
-		if (bookHandler != null && bookHandler.containsKey(message.getType())) {
-			bookHandler.get(message.getType()).handleMessage(message);
+		JournalWriter journalWriter = journal;
+		if (journalWriter != null) {
+			journalWriter.appendFrame(data);
 		}
+
+		dispatcher.dispatch(data, receivedNanos);
 	}
 
 	@Override
 	public void onError(WebSocket websocket, WebSocketException cause) throws Exception {
-		throw new RuntimeException("Error on websocket connection", cause);
+		log.error("Error on websocket connection", cause);
+	}
+
+	@Override
+	public void onDisconnected(WebSocket websocket, WebSocketFrame serverCloseFrame, WebSocketFrame clientCloseFrame,
+			boolean closedByServer) throws Exception {
+
+		if (closed) {
+			return;
+		}
+
+		log.warn("Websocket disconnected (by server: {}), reconnecting", closedByServer);
+
+		long disconnected = System.nanoTime();
+		reconnectExecutor.execute(() -> {
+			disconnectedTime = disconnected;
+			reconnectAttempts = 0;
+			scheduleReconnect();
+		});
+	}
+
+	// ****************************** RECONNECTION ******************************
+
+	private void scheduleReconnect() {
+
+		if (closed) {
+			return;
+		}
+
+		long delay = getBackoffMillis(reconnectAttempts++);
+		log.info("Reconnecting websocket in {} ms, attempt {}", delay, reconnectAttempts);
+
+		reconnectExecutor.schedule(this::reconnect, delay, TimeUnit.MILLISECONDS);
+	}
+
+	private void reconnect() {
+
+		if (closed) {
+			return;
+		}
+
+		try {
+			websocket = websocket.recreate().connect();
+		} catch (WebSocketException | IOException e) {
+			log.warn("Error trying to reconnect websocket: {}", e.getMessage());
+			scheduleReconnect();
+			return;
+		}
+
+		lastReconnectMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - disconnectedTime);
+		reconnects++;
+		log.info("Websocket reconnected in {} ms after {} attempts", lastReconnectMillis, reconnectAttempts);
+
+		// the handlers resync before the first message of the new subscriptions
+		dispatcher.reconnected();
+
+		// the subscriptions of the connection lost
+		for (Map.Entry<String, List<String>> subscriptions : dispatcher.getSubscriptions().entrySet()) {
+			for (String type : subscriptions.getValue()) {
+				websocket.sendText(gson.toJson(new Subscribe(subscriptions.getKey(), type)));
+			}
+		}
+	}
+
+	/**
+	 * Exponential backoff with "equal jitter": half of the delay is fixed and
+	 * the other half is random, so the clients disconnected at the same time
+	 * do not reconnect at the same time.
+	 */
+	static long getBackoffMillis(int attempt) {
+
+		long delay = Math.min(MAX_BACKOFF_MILLIS, MIN_BACKOFF_MILLIS << Math.min(attempt, 20));
+		long half = delay >> 1;
+
+		return half + ThreadLocalRandom.current().nextLong(half + 1);
 	}
 }
@@ -0,0 +1,146 @@
+package com.sonartrading.challenge.ws;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sonartrading.challenge.latency.LatencyMonitor;
+import com.sonartrading.challenge.latency.Stage;
+import com.sonartrading.challenge.parser.JsonScanner;
+import com.sonartrading.challenge.ws.dto.WebsocketMessage;
+import com.sonartrading.challenge.ws.handler.WebsocketHandler;
+
+/**
+ * Reads the text frames received by the websocket and delivers them to the
+ * handler of their book and type. The frame is read in a single pass with a
+ * {@link JsonScanner}, and the payload is read by the handler itself, so it
+ * is converted straight to its final type.
+ * <p>
+ * Frames must be dispatched always by the same thread, handlers can be added
+ * from any thread.
+ */
+public class WebsocketDispatcher {
+
+	private final JsonScanner scanner = new JsonScanner();
+
+	private final Map<String, Map<String, WebsocketHandler<?>>> handlers = new ConcurrentHashMap<>();
+
+	// if set, the time to parse every frame is recorded
+	private volatile LatencyMonitor latencyMonitor;
+
+	public void addHandler(String book, String type, WebsocketHandler<?> handler) {
+		handlers.computeIfAbsent(book, b -> new ConcurrentHashMap<>()).put(type, handler);
+	}
+
+	/**
+	 * Returns the types of messages subscribed by book, i.e. the ones with a
+	 * handler.
+	 */
+	public Map<String, List<String>> getSubscriptions() {
+
+		Map<String, List<String>> subscriptions = new HashMap<>();
+		handlers.forEach((book, types) -> subscriptions.put(book, new ArrayList<>(types.keySet())));
+
+		return subscriptions;
+	}
+
+	/**
+	 * Tells every handler that the connection was opened again, before the
+	 * subscriptions are sent, so no message of the new connection is handled
+	 * before its handler is reset.
+	 */
+	public void reconnected() {
+		handlers.values().forEach(types -> types.values().forEach(WebsocketHandler::onReconnect));
+	}
+
+	public void setLatencyMonitor(LatencyMonitor latencyMonitor) {
+		this.latencyMonitor = latencyMonitor;
+	}
+
+	/**
+	 * Returns {@code true} if the frame was delivered to a handler.
+	 */
+	public boolean dispatch(String data) {
+		return dispatch(data, 0);
+	}
+
+	/**
+	 * Dispatches a frame received at the given {@code System.nanoTime()}, which
+	 * is given to the handler with the message. Returns {@code true} if the
+	 * frame was delivered to a handler.
+	 */
+	public boolean dispatch(String data, long receivedNanos) {
+
+		String type = null;
+		String book = null;
+		Long sequence = null;
+
+		WebsocketHandler<?> handler = null;
+		Object payload = null;
+		int payloadPosition = -1;
+
+		scanner.reset(data).beginObject();
+
+		while (scanner.hasNext()) {
+
+			scanner.nextName();
+
+			if (scanner.nameEquals("type")) {
+				type = scanner.nextString();
+			} else if (scanner.nameEquals("book")) {
+				book = scanner.nextString();
+			} else if (scanner.nameEquals("sequence")) {
+				sequence = scanner.nextNull() ? null : scanner.nextLong();
+			} else if (scanner.nameEquals("payload")) {
+				if (type != null && book != null) {
+					handler = getHandler(book, type);
+					if (handler != null) {
+						payload = handler.readPayload(scanner);
+					} else {
+						scanner.skipValue();
+					}
+				} else {
+					// the payload is read once the type and the book are known
+					payloadPosition = scanner.getPosition();
+					scanner.skipValue();
+				}
+			} else {
+				scanner.skipValue();
+			}
+		}
+
+		if (payloadPosition >= 0 && (handler = getHandler(book, type)) != null) {
+			scanner.setPosition(payloadPosition);
+			payload = handler.readPayload(scanner);
+		}
+
+		if (handler == null) {
+			return false;
+		}
+
+		LatencyMonitor monitor = latencyMonitor;
+		if (monitor != null && receivedNanos != 0) {
+			monitor.record(Stage.PARSE, System.nanoTime() - receivedNanos);
+		}
+
+		handleMessage(handler, new WebsocketMessage<>(type, book, sequence, payload, receivedNanos));
+		return true;
+	}
+
+	private WebsocketHandler<?> getHandler(String book, String type) {
+
+		if (book == null || type == null) {
+			return null;
+		}
+
+		Map<String, WebsocketHandler<?>> bookHandler = handlers.get(book);
+		return bookHandler != null ? bookHandler.get(type) : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> void handleMessage(WebsocketHandler<T> handler, WebsocketMessage<?> message) {
+		handler.handleMessage((WebsocketMessage<T>) message);
+	}
+}
@@ -1,6 +1,8 @@
 package com.sonartrading.challenge.ws.dto;
 
+import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.sonartrading.challenge.parser.FixedPointAdapter;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -14,18 +16,23 @@ public class DiffOrder {
 	@SerializedName("d")
 	private Long timestamp;
 
+	// prices and amounts are fixed point, see FixedPoint
 	@SerializedName("r")
-	private String rate;
+	@JsonAdapter(FixedPointAdapter.class)
+	private long rate;
 
 	// 0 indicates buy 1 indicates sell
 	@SerializedName("t")
 	private Short orderType;
 	
+	// 0 when the order was cancelled
 	@SerializedName("a")
-	private String amount;
+	@JsonAdapter(FixedPointAdapter.class)
+	private long amount;
 
 	@SerializedName("v")
-	private String value;
+	@JsonAdapter(FixedPointAdapter.class)
+	private long value;
 
 	@SerializedName("o")
 	private String orderID;
@@ -13,4 +13,11 @@ public class WebsocketMessage<T> {
 	private String book;
 	private Long sequence;
 	private T payload;
+
+	// System.nanoTime() of the frame received, 0 if it is not measured
+	private long receivedNanos;
+
+	public WebsocketMessage(String type, String book, Long sequence, T payload) {
+		this(type, book, sequence, payload, 0);
+	}
 }
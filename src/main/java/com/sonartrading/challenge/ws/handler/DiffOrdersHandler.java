@@ -2,23 +2,28 @@ package com.sonartrading.challenge.ws.handler;
 
 import java.util.LinkedList;
 
-import com.google.gson.Gson;
+import com.sonartrading.challenge.parser.DiffOrdersParser;
+import com.sonartrading.challenge.parser.JsonScanner;
 import com.sonartrading.challenge.ws.dto.DiffOrder;
 import com.sonartrading.challenge.ws.dto.WebsocketMessage;
 
-public class DiffOrdersHandler implements WebsocketHandler {
+public class DiffOrdersHandler implements WebsocketHandler<DiffOrder[]> {
 
 //	public DiffOrdersHandler(String book, String type) {
 //		super(book, type);
 //	}
 	
-	private final Gson gson = new Gson();
 	private final LinkedList<DiffOrder> diffOrders = new LinkedList<>();
 	
 	private long lastSequence = -1;
 
 	@Override
-	public void handleMessage(WebsocketMessage<?> response) {
+	public DiffOrder[] readPayload(JsonScanner scanner) {
+		return DiffOrdersParser.readDiffOrders(scanner);
+	}
+
+	@Override
+	public void handleMessage(WebsocketMessage<DiffOrder[]> response) {
 
 		if (response.getPayload() == null) {
 			return;
@@ -29,10 +34,9 @@ public class DiffOrdersHandler implements WebsocketHandler {
 		}
 
 		lastSequence = response.getSequence();
-		DiffOrder newOrders[] = gson.fromJson(gson.toJson(response.getPayload()), DiffOrder[].class);
-		
-		if(newOrders.length > 0) {
-			addDiffOrder(newOrders[0]);
+
+		for (DiffOrder diffOrder : response.getPayload()) {
+			addDiffOrder(diffOrder);
 		}
 	}
 	
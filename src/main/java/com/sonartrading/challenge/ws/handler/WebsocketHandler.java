@@ -1,8 +1,22 @@
 package com.sonartrading.challenge.ws.handler;
 
+import com.sonartrading.challenge.parser.JsonScanner;
 import com.sonartrading.challenge.ws.dto.WebsocketMessage;
 
-public interface WebsocketHandler {
+public interface WebsocketHandler<T> {
 
-	void handleMessage(WebsocketMessage<?> response);
+	/**
+	 * Reads the payload of a message, the scanner is placed at the beginning
+	 * of its value.
+	 */
+	T readPayload(JsonScanner scanner);
+
+	void handleMessage(WebsocketMessage<T> response);
+
+	/**
+	 * Called when the websocket connection was lost and it has been opened
+	 * again: the messages sent meanwhile were lost.
+	 */
+	default void onReconnect() {
+	}
 }
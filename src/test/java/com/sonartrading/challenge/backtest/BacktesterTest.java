@@ -0,0 +1,44 @@
+package com.sonartrading.challenge.backtest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class BacktesterTest {
+
+	private static final double DELTA = 1e-9;
+
+	// up, up, up (buy at 4), down, down, down (sell at 1)
+	private final TradeSeries trades = new TradeSeries(new long[] { 1, 2, 3, 4, 5, 6, 7 },
+			new double[] { 1, 2, 3, 4, 3, 2, 1 });
+
+	@Test
+	public void testRun() {
+
+		BacktestResult result = new Backtester(trades).run(new BacktestParameters(3, 3, 2));
+
+		assertEquals(7, result.getTrades());
+		assertEquals(2, result.getFills());
+		assertEquals(0, result.getPosition(), DELTA);
+		assertEquals(-6, result.getPnl(), DELTA);
+	}
+
+	@Test
+	public void testSweep() {
+
+		List<BacktestParameters> parameters = Backtester.grid(3, 3, 1, 2);
+		List<BacktestResult> results = new Backtester(trades).sweep(parameters);
+
+		assertEquals(18, results.size());
+		for (int i = 0; i < parameters.size(); i++) {
+			assertEquals(parameters.get(i), results.get(i).getParameters());
+		}
+
+		// buys at 2, 3 and 4 (one every uptick), then sells at 3, 2 and 1
+		BacktestResult everyTick = results.get(0);
+		assertEquals(6, everyTick.getFills());
+		assertEquals(-3, everyTick.getPnl(), DELTA);
+	}
+}
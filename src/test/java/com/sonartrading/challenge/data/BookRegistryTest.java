@@ -0,0 +1,87 @@
+package com.sonartrading.challenge.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.sonartrading.challenge.api.RestAPI;
+import com.sonartrading.challenge.api.dto.BitsoResponse;
+import com.sonartrading.challenge.api.dto.OrderBook;
+import com.sonartrading.challenge.ws.WebsocketClient;
+
+import retrofit2.Retrofit;
+import retrofit2.mock.BehaviorDelegate;
+import retrofit2.mock.MockRetrofit;
+import retrofit2.mock.NetworkBehavior;
+
+public class BookRegistryTest {
+
+	private WebsocketClient wsClient = Mockito.mock(WebsocketClient.class);
+
+	private ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+	private BookRegistry bookRegistry;
+
+	@Before
+	public void setUp() throws Exception {
+
+		NetworkBehavior networkBehavior = NetworkBehavior.create();
+		networkBehavior.setDelay(0, TimeUnit.MILLISECONDS);
+		networkBehavior.setFailurePercent(0);
+
+		Retrofit retrofit = new Retrofit.Builder().baseUrl("http://mytest.com").build();
+		BehaviorDelegate<RestAPI> delegate = new MockRetrofit.Builder(retrofit).backgroundExecutor(executorService)
+				.networkBehavior(networkBehavior).build().create(RestAPI.class);
+		BitsoResponse<OrderBook> response = new BitsoResponse<>(true,
+				new OrderBook(Collections.emptyList(), Collections.emptyList(), "", 0l));
+
+		// every mocked call can be executed just once
+		RestAPI restAPI = Mockito.mock(RestAPI.class);
+		Mockito.when(restAPI.getOpenOrders(Mockito.anyString(), Mockito.anyBoolean()))
+				.thenAnswer(i -> delegate.returningResponse(response).getOpenOrders(null, false));
+		Mockito.when(restAPI.getRecentTrades(Mockito.anyString(), Mockito.anyString(), Mockito.anyInt()))
+				.thenAnswer(i -> delegate.returningResponse(new BitsoResponse<>(true, Collections.emptyList()))
+						.getRecentTrades(null, null, null));
+
+		bookRegistry = new BookRegistry(restAPI, wsClient, executorService, 2);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		bookRegistry.close();
+	}
+
+	@Test
+	public void testAddBooks() {
+
+		bookRegistry.addBook("btc_mxn");
+		bookRegistry.addBook("eth_mxn");
+		bookRegistry.addBook("xrp_btc");
+		bookRegistry.addBook("btc_mxn");
+
+		assertEquals(Arrays.asList("btc_mxn", "eth_mxn", "xrp_btc"), bookRegistry.getBooks());
+		assertEquals("eth_mxn", bookRegistry.getOrdersManager("eth_mxn").getBook());
+		assertEquals("xrp_btc", bookRegistry.getTradesManager("xrp_btc").getBook());
+		assertNotSame(bookRegistry.getOrdersManager("btc_mxn"), bookRegistry.getOrdersManager("eth_mxn"));
+		assertNull(bookRegistry.getOrdersManager("ltc_mxn"));
+
+		// every book subscribes to its diff-orders over the same connection
+		OrdersManager ordersManager = bookRegistry.getOrdersManager("btc_mxn");
+		Mockito.verify(wsClient).addHandler("btc_mxn", "diff-orders", ordersManager);
+		Mockito.verify(wsClient).addHandler(Mockito.eq("eth_mxn"), Mockito.eq("diff-orders"), Mockito.any());
+		Mockito.verify(wsClient).addHandler("xrp_btc", "trades", bookRegistry.getTradesManager("xrp_btc"));
+		assertSame(ordersManager, bookRegistry.getOrdersManager("btc_mxn"));
+	}
+}
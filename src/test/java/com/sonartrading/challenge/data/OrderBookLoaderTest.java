@@ -0,0 +1,67 @@
+package com.sonartrading.challenge.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.sonartrading.challenge.api.dto.OrderBookItems;
+import com.sonartrading.challenge.data.book.OrderBookSide;
+import com.sonartrading.challenge.data.book.PriceLevelBookSide;
+import com.sonartrading.challenge.data.model.MakerSide;
+import com.sonartrading.challenge.data.model.Order;
+
+public class OrderBookLoaderTest {
+
+	@Test
+	public void testSortedBook() {
+
+		// best first, two orders at 10
+		OrderBookItems asks = new OrderBookItems(4);
+		asks.add("a", 9, 1);
+		asks.add("b", 10, 2);
+		asks.add("c", 10, 3);
+		asks.add("d", 12, 4);
+
+		assertOrders(asks, "a", "b", "c", "d");
+		assertLevels(asks);
+	}
+
+	@Test
+	public void testUnsortedBook() {
+
+		OrderBookItems asks = new OrderBookItems(4);
+		asks.add("d", 12, 4);
+		asks.add("b", 10, 2);
+		asks.add("a", 9, 1);
+		asks.add("c", 10, 3);
+
+		assertOrders(asks, "a", "b", "c", "d");
+		assertLevels(asks);
+	}
+
+	private static void assertOrders(OrderBookItems asks, String... orderIDs) {
+
+		OrderBookSide orderBookSide = OrderBookLoader.loadOrders(asks, MakerSide.SELL);
+		List<Order> orders = orderBookSide.getBestOrders(orderIDs.length);
+
+		assertEquals(orderIDs.length, orderBookSide.size());
+		for (int i = 0; i < orderIDs.length; i++) {
+			assertEquals(orderIDs[i], orders.get(i).getOrderID());
+			assertEquals(i, orderBookSide.indexOf(orderIDs[i]));
+		}
+	}
+
+	private static void assertLevels(OrderBookItems asks) {
+
+		PriceLevelBookSide levels = OrderBookLoader.loadPriceLevels(asks, MakerSide.SELL);
+
+		assertEquals(3, levels.getNumOfLevels());
+		assertEquals(9, levels.getPrice(0));
+		assertEquals(10, levels.getPrice(1));
+		assertEquals(5, levels.getAmount(1));
+		assertEquals(2, levels.getCount(1));
+		assertEquals(12, levels.getPrice(2));
+	}
+}
@@ -5,14 +5,17 @@ import static org.junit.Assert.assertEquals;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.reflect.Type;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -25,16 +28,25 @@ import com.google.gson.reflect.TypeToken;
 import com.sonartrading.challenge.api.RestAPI;
 import com.sonartrading.challenge.api.dto.BitsoResponse;
 import com.sonartrading.challenge.api.dto.OrderBook;
+import com.sonartrading.challenge.api.dto.TradeBook;
+import com.sonartrading.challenge.data.book.BookSnapshot;
+import com.sonartrading.challenge.data.model.FixedPoint;
 import com.sonartrading.challenge.data.model.MakerSide;
 import com.sonartrading.challenge.data.model.Order;
+import com.sonartrading.challenge.data.observer.MarketObserver;
 import com.sonartrading.challenge.data.observer.OrdersObserver;
 import com.sonartrading.challenge.ws.WebsocketClient;
 import com.sonartrading.challenge.ws.dto.DiffOrder;
 import com.sonartrading.challenge.ws.dto.WebsocketMessage;
 
 import javafx.embed.swing.JFXPanel;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.mock.BehaviorDelegate;
+import retrofit2.mock.Calls;
 import retrofit2.mock.MockRetrofit;
 import retrofit2.mock.NetworkBehavior;
 
@@ -91,7 +103,6 @@ public class OrdersManagerTest {
 	}
 
 	@Test
-	@SuppressWarnings("unchecked")
 	public void testHandleMessageNewOrder() throws InterruptedException {
 
 		OrderBook orderBook = new OrderBook(Collections.emptyList(), Collections.emptyList(), "", 0l);
@@ -111,9 +122,8 @@ public class OrdersManagerTest {
 			}
 
 			@Override
-			public void ordersUpdated(List<Order> orders, MakerSide makerSide, int index) {
-				result.put("orders", orders);
-				result.put("makerSide", makerSide);
+			public void orderInserted(Order order, int index) {
+				result.put("order", order);
 				result.put("index", index);
 				resultLock.countDown();
 			}
@@ -122,15 +132,15 @@ public class OrdersManagerTest {
 		initializationLock.await(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS);
 
 		WebsocketMessage<DiffOrder[]> message = new WebsocketMessage<>(null, null, 1l,
-				new DiffOrder[] { new DiffOrder(10000000000000l, "100", (short) 0, "0.1", "10", "abcd", 1l) });
+				new DiffOrder[] { diffOrder("100", 0, "0.1", "10", "abcd", 1l) });
 
 		ordersManager.handleMessage(message);
 
 		resultLock.await(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS);
 
-		assertEquals(MakerSide.BUY, result.get("makerSide"));
+		assertEquals(MakerSide.BUY, ((Order) result.get("order")).getMarkerSide());
 		assertEquals(0, result.get("index"));
-		assertEquals("abcd", ((List<Order>) result.get("orders")).get(0).getOrderID());
+		assertEquals("abcd", ((Order) result.get("order")).getOrderID());
 	}
 
 	@Test
@@ -161,8 +171,7 @@ public class OrdersManagerTest {
 		initializationLock.await(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS);
 
 		WebsocketMessage<DiffOrder[]> message = new WebsocketMessage<>(null, null, 27215l,
-				new DiffOrder[] { new DiffOrder(10000000000000l, "13227.14", (short) 1, "0.4259", "5633.44",
-						"RP8lVpgXf04o6vJ6", 27215l) });
+				new DiffOrder[] { diffOrder("5633.44", 1, "0.3", "1689.03", "RP8lVpgXf04o6vJ6", 27215l) });
 
 		ordersManager.handleMessage(message);
 
@@ -173,11 +182,11 @@ public class OrdersManagerTest {
 	}
 
 	@Test
-	@SuppressWarnings("unchecked")
-	public void testHandleMessageRemoveOrder() throws InterruptedException {
+	public void testHandleMessageRepriceOrder() throws InterruptedException {
 
 		CountDownLatch initializationLock = new CountDownLatch(1);
 		CountDownLatch resultLock = new CountDownLatch(1);
+		CountDownLatch windowLock = new CountDownLatch(2);
 
 		ordersManager = new OrdersManager(null, restAPI.returningResponse(getSimpleResponse()), wsClient,
 				executorService);
@@ -190,10 +199,74 @@ public class OrdersManagerTest {
 				initializationLock.countDown();
 			}
 
+			@Override
+			public void orderRemoved(Order order, int index) {
+				result.put("removed", order);
+				result.put("removedIndex", index);
+			}
+
+			@Override
+			public void orderInserted(Order order, int index) {
+				result.put("inserted", order);
+				result.put("insertedIndex", index);
+				resultLock.countDown();
+			}
+
 			@Override
 			public void ordersUpdated(List<Order> orders, MakerSide makerSide, int index) {
-				result.put("orders", orders);
-				result.put("makerSide", makerSide);
+				result.put(makerSide == MakerSide.SELL ? "askOrders" : "bidOrders", orders);
+				windowLock.countDown();
+			}
+		});
+
+		initializationLock.await(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS);
+
+		// the second ask becomes the best one
+		ordersManager.handleMessage(new WebsocketMessage<>(null, null, 27215l,
+				new DiffOrder[] { diffOrder("5600", 1, "0.4259", "2385.04", "RP8lVpgXf04o6vJ6", 27215l) }));
+
+		resultLock.await(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS);
+
+		assertEquals("RP8lVpgXf04o6vJ6", ((Order) result.get("removed")).getOrderID());
+		assertEquals(1, result.get("removedIndex"));
+		assertEquals("RP8lVpgXf04o6vJ6", ((Order) result.get("inserted")).getOrderID());
+		assertEquals(0, result.get("insertedIndex"));
+
+		// the orders and the levels of the book agree on the new price
+		BookSnapshot snapshot = awaitSequence(27215);
+		assertEquals(3, snapshot.getNumOfAskLevels());
+		assertEquals(5600, snapshot.getBestAsk(), 0.001);
+
+		ordersManager.setNumOfOrdersToObserve(OrdersManager.DEFAULT_ORDERS_TO_OBSERVE + 1);
+		windowLock.await(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS);
+
+		@SuppressWarnings("unchecked")
+		List<Order> askOrders = (List<Order>) result.get("askOrders");
+		assertEquals("RP8lVpgXf04o6vJ6", askOrders.get(0).getOrderID());
+		assertEquals("VN5lVpgXf02o6vJ6", askOrders.get(1).getOrderID());
+		assertEquals("46efbiv72drbphig", askOrders.get(2).getOrderID());
+	}
+
+	@Test
+	public void testHandleMessageRemoveOrder() throws InterruptedException {
+
+		CountDownLatch initializationLock = new CountDownLatch(1);
+		CountDownLatch resultLock = new CountDownLatch(1);
+
+		ordersManager = new OrdersManager(null, restAPI.returningResponse(getSimpleResponse()), wsClient,
+				executorService);
+
+		Map<String, Object> result = new HashMap<>();
+		ordersManager.addOrdersObserver(new MockOrdersObserver() {
+
+			@Override
+			public void setOrders(List<Order> newAskOrders, List<Order> newBidOrders) {
+				initializationLock.countDown();
+			}
+
+			@Override
+			public void orderRemoved(Order order, int index) {
+				result.put("order", order);
 				result.put("index", index);
 				resultLock.countDown();
 			}
@@ -202,15 +275,15 @@ public class OrdersManagerTest {
 		initializationLock.await(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS);
 
 		WebsocketMessage<DiffOrder[]> message = new WebsocketMessage<>(null, null, 27215l, new DiffOrder[] {
-				new DiffOrder(10000000000000l, "13227.14", (short) 1, "0", "5633.44", "RP8lVpgXf04o6vJ6", 27215l) });
+				diffOrder("13227.14", 1, "0", "5633.44", "RP8lVpgXf04o6vJ6", 27215l) });
 
 		ordersManager.handleMessage(message);
 
 		resultLock.await(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS);
 
-		assertEquals(MakerSide.SELL, result.get("makerSide"));
+		assertEquals(MakerSide.SELL, ((Order) result.get("order")).getMarkerSide());
 		assertEquals(1, result.get("index"));
-		assertEquals(2, ((List<Order>) result.get("orders")).size());
+		assertEquals("RP8lVpgXf04o6vJ6", ((Order) result.get("order")).getOrderID());
 	}
 
 	@Test
@@ -238,10 +311,10 @@ public class OrdersManagerTest {
 		});
 
 		ordersManager.handleMessage(new WebsocketMessage<>(null, null, 27215l, new DiffOrder[] {
-				new DiffOrder(10000000000000l, "28210.7", (short) 1, "5", "5642.14", "46efbiv72drbphig", 27215l) }));
+				diffOrder("28210.7", 1, "5", "5642.14", "46efbiv72drbphig", 27215l) }));
 
-		ordersManager.handleMessage(new WebsocketMessage<>(null, null, 27215l, new DiffOrder[] {
-				new DiffOrder(10000000000000l, "13227.14", (short) 1, "0", "5633.44", "RP8lVpgXf04o6vJ6", 27216l) }));
+		ordersManager.handleMessage(new WebsocketMessage<>(null, null, 27216l, new DiffOrder[] {
+				diffOrder("13227.14", 1, "0", "5633.44", "RP8lVpgXf04o6vJ6", 27216l) }));
 
 		lock.await(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS);
 
@@ -250,7 +323,7 @@ public class OrdersManagerTest {
 		assertEquals(2, result.get("bidOrders").size());
 		assertEquals(2, result.get("askOrders").size());
 		assertEquals("46efbiv72drbphig", result.get("askOrders").get(1).getOrderID());
-		assertEquals(5, result.get("askOrders").get(1).getAmount(), 0.001);
+		assertEquals(5, FixedPoint.toDouble(result.get("askOrders").get(1).getAmount()), 0.001);
 	}
 	
 	@Test
@@ -321,6 +394,288 @@ public class OrdersManagerTest {
 		Assert.assertEquals(2, result.get("bidOrders").size());
 	}
 
+	@Test
+	public void testInsertInFullWindow() throws InterruptedException {
+
+		InputStream inputStream = this.getClass().getResourceAsStream("/json/large_order_book.json");
+		BitsoResponse<OrderBook> response = gson.fromJson(new InputStreamReader(inputStream), ORDER_BOOK_TYPE);
+
+		CountDownLatch initializationLock = new CountDownLatch(1);
+		CountDownLatch resultLock = new CountDownLatch(1);
+		ordersManager = new OrdersManager(null, restAPI.returningResponse(response), wsClient, executorService);
+
+		Map<String, Object> result = new HashMap<>();
+		ordersManager.addOrdersObserver(new MockOrdersObserver() {
+			@Override
+			public void setOrders(List<Order> askOrders, List<Order> bidOrders) {
+				result.put("askOrders", askOrders);
+				initializationLock.countDown();
+			}
+
+			@Override
+			public void orderInserted(Order order, int index) {
+				result.put("inserted", order);
+				result.put("insertedIndex", index);
+			}
+
+			@Override
+			public void orderRemoved(Order order, int index) {
+				result.put("removed", order);
+				result.put("removedIndex", index);
+				resultLock.countDown();
+			}
+		});
+
+		initializationLock.await(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS);
+
+		@SuppressWarnings("unchecked")
+		Order lastAsk = ((List<Order>) result.get("askOrders")).get(OrdersManager.DEFAULT_ORDERS_TO_OBSERVE - 1);
+
+		// a new best ask, the last one of the window leaves it
+		ordersManager.handleMessage(new WebsocketMessage<>(null, null, 27215l,
+				new DiffOrder[] { diffOrder("1", 1, "0.1", "0.1", "best", 27215l) }));
+
+		resultLock.await(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS);
+
+		assertEquals("best", ((Order) result.get("inserted")).getOrderID());
+		assertEquals(0, result.get("insertedIndex"));
+		assertEquals(lastAsk, result.get("removed"));
+		assertEquals(OrdersManager.DEFAULT_ORDERS_TO_OBSERVE, result.get("removedIndex"));
+	}
+
+	@Test
+	public void testOutOfOrderDiffOrders() throws InterruptedException {
+
+		ordersManager = new OrdersManager(null, getImmediateRestAPI(getSimpleResponse(), getSimpleResponse()), wsClient,
+				executorService);
+
+		awaitSequence(27214);
+
+		ordersManager.handleMessage(new WebsocketMessage<>(null, null, 27216l, new DiffOrder[] {
+				diffOrder("5000", 1, "1", "5000", "newOrder2", 27216l) }));
+		ordersManager.handleMessage(new WebsocketMessage<>(null, null, 27215l, new DiffOrder[] {
+				diffOrder("5001", 1, "1", "5001", "newOrder1", 27215l) }));
+
+		BookSnapshot snapshot = awaitSequence(27216);
+
+		assertEquals(0, ordersManager.getBufferedMessages());
+		assertEquals(0, ordersManager.getResyncs());
+		assertEquals(5, snapshot.getNumOfAskLevels());
+		assertEquals(5000, snapshot.getBestAsk(), 0.001);
+	}
+
+	@Test
+	public void testRepeatedSequences() throws InterruptedException {
+
+		ordersManager = new OrdersManager(null, getImmediateRestAPI(getSimpleResponse(), getSimpleResponse()), wsClient,
+				executorService);
+
+		List<Long> diffs = new CopyOnWriteArrayList<>();
+		ordersManager.addMarketObserver(new MarketObserver() {
+			@Override
+			public void onDiff(String book, long sequence, long timestamp, MakerSide makerSide, double price,
+					double amount) {
+				diffs.add(sequence);
+			}
+		});
+
+		awaitSequence(27214);
+
+		// the sequence of the REST snapshot is already in the book
+		ordersManager.handleMessage(new WebsocketMessage<>(null, null, 27214l, new DiffOrder[] {
+				diffOrder("5000", 1, "1", "5000", "snapshotOrder", 27214l) }));
+		ordersManager.handleMessage(new WebsocketMessage<>(null, null, 27215l, new DiffOrder[] {
+				diffOrder("5001", 1, "1", "5001", "newOrder1", 27215l) }));
+		ordersManager.handleMessage(new WebsocketMessage<>(null, null, 27215l, new DiffOrder[] {
+				diffOrder("5001", 1, "1", "5001", "newOrder1", 27215l) }));
+		ordersManager.handleMessage(new WebsocketMessage<>(null, null, 27216l, new DiffOrder[] {
+				diffOrder("5002", 1, "1", "5002", "newOrder2", 27216l) }));
+
+		BookSnapshot snapshot = awaitSequence(27216);
+
+		assertEquals(Arrays.asList(27215l, 27216l), diffs);
+		assertEquals(2, ordersManager.getStaleDiffOrders());
+		assertEquals(5, snapshot.getNumOfAskLevels());
+		assertEquals(5001, snapshot.getBestAsk(), 0.001);
+	}
+
+	@Test
+	public void testResyncAfterGap() throws InterruptedException {
+
+		OrderBook orderBook = new OrderBook(Collections.emptyList(), Collections.emptyList(), "", 27240l);
+
+		ordersManager = new OrdersManager(null,
+				getImmediateRestAPI(getSimpleResponse(), new BitsoResponse<>(true, orderBook)), wsClient,
+				executorService);
+
+		awaitSequence(27214);
+
+		// 27215 is lost
+		for (long sequence = 27216; sequence <= 27216 + OrdersManager.MAX_OUT_OF_ORDER_MESSAGES; sequence++) {
+			ordersManager.handleMessage(new WebsocketMessage<>(null, null, sequence, new DiffOrder[] {
+					diffOrder(Long.toString(sequence), 1, "1", "1", "o" + sequence, sequence) }));
+		}
+
+		BookSnapshot snapshot = awaitSequence(27216 + OrdersManager.MAX_OUT_OF_ORDER_MESSAGES);
+
+		assertEquals(1, ordersManager.getResyncs());
+		assertEquals(0, ordersManager.getBufferedMessages());
+		// only the orders after the new REST snapshot
+		assertEquals(27216 + OrdersManager.MAX_OUT_OF_ORDER_MESSAGES - 27240, snapshot.getNumOfAskLevels());
+		assertEquals(27241, snapshot.getBestAsk(), 0.001);
+	}
+
+	@Test
+	public void testResyncAfterReconnect() throws InterruptedException {
+
+		OrderBook orderBook = new OrderBook(Collections.emptyList(), Collections.emptyList(), "", 27220l);
+
+		ordersManager = new OrdersManager(null,
+				getImmediateRestAPI(getSimpleResponse(), new BitsoResponse<>(true, orderBook)), wsClient,
+				executorService);
+
+		awaitSequence(27214);
+
+		// nothing lost while reconnecting
+		ordersManager.onReconnect();
+		ordersManager.handleMessage(new WebsocketMessage<>(null, null, 27215l,
+				new DiffOrder[] { diffOrder("5001", 1, "1", "5001", "o27215", 27215l) }));
+
+		awaitSequence(27215);
+		assertEquals(0, ordersManager.getResyncs());
+
+		// 27216 is lost while reconnecting, the first gap resynchronizes the book
+		ordersManager.onReconnect();
+		for (long sequence = 27217; sequence <= 27221; sequence++) {
+			ordersManager.handleMessage(new WebsocketMessage<>(null, null, sequence, new DiffOrder[] {
+					diffOrder(Long.toString(sequence), 1, "1", "1", "o" + sequence, sequence) }));
+		}
+
+		BookSnapshot snapshot = awaitSequence(27221);
+
+		assertEquals(1, ordersManager.getResyncs());
+		assertEquals(1, snapshot.getNumOfAskLevels());
+		assertEquals(27221, snapshot.getBestAsk(), 0.001);
+	}
+
+	@Test
+	public void testResyncAfterErrorResponses() throws InterruptedException {
+
+		OrderBook orderBook = new OrderBook(Collections.emptyList(), Collections.emptyList(), "", 27240l);
+
+		// the resync gets an HTTP error and an unsuccessful response before the book
+		ordersManager = new OrdersManager(null,
+				getImmediateRestAPI(getSimpleResponse(),
+						Response.error(500, ResponseBody.create(MediaType.parse("application/json"), "{}")),
+						new BitsoResponse<>(false, null), new BitsoResponse<>(true, orderBook)),
+				wsClient, executorService);
+
+		awaitSequence(27214);
+
+		// 27215 is lost
+		for (long sequence = 27216; sequence <= 27216 + OrdersManager.MAX_OUT_OF_ORDER_MESSAGES; sequence++) {
+			ordersManager.handleMessage(new WebsocketMessage<>(null, null, sequence, new DiffOrder[] {
+					diffOrder(Long.toString(sequence), 1, "1", "1", "o" + sequence, sequence) }));
+		}
+
+		BookSnapshot snapshot = awaitSequence(27216 + OrdersManager.MAX_OUT_OF_ORDER_MESSAGES);
+
+		assertEquals(1, ordersManager.getResyncs());
+		assertEquals(0, ordersManager.getBufferedMessages());
+		assertEquals(27216 + OrdersManager.MAX_OUT_OF_ORDER_MESSAGES - 27240, snapshot.getNumOfAskLevels());
+		assertEquals(27241, snapshot.getBestAsk(), 0.001);
+	}
+
+	@Test
+	public void testResyncAgainWhenQueueIsFull() throws InterruptedException {
+
+		long restart = 27216 + OrdersManager.MAX_QUEUED_MESSAGES;
+		OrderBook orderBook = new OrderBook(Collections.emptyList(), Collections.emptyList(), "", restart);
+
+		// the first resync never gets an answer
+		ordersManager = new OrdersManager(null, getImmediateRestAPI(getSimpleResponse(), Mockito.mock(Call.class),
+				new BitsoResponse<>(true, orderBook)), wsClient, executorService);
+
+		awaitSequence(27214);
+
+		// 27215 is lost, the queue reaches its limit with the message of the
+		// new snapshot, which requests it again
+		for (long sequence = 27216; sequence <= restart + 4; sequence++) {
+			ordersManager.handleMessage(new WebsocketMessage<>(null, null, sequence, new DiffOrder[] {
+					diffOrder(Long.toString(sequence), 1, "1", "1", "o" + sequence, sequence) }));
+		}
+
+		BookSnapshot snapshot = awaitSequence(restart + 4);
+
+		assertEquals(2, ordersManager.getResyncs());
+		assertEquals(0, ordersManager.getBufferedMessages());
+		assertEquals(4, snapshot.getNumOfAskLevels());
+		assertEquals(restart + 1, snapshot.getBestAsk(), 0.001);
+	}
+
+	/**
+	 * Returns a REST API without delays nor failures that answers with the
+	 * given responses in order, and with the last one after that. Every
+	 * response is an order book, an HTTP response or a call.
+	 */
+	@SuppressWarnings("unchecked")
+	private RestAPI getImmediateRestAPI(Object... responses) {
+
+		NetworkBehavior networkBehavior = NetworkBehavior.create();
+		networkBehavior.setDelay(0, TimeUnit.MILLISECONDS);
+		networkBehavior.setVariancePercent(0);
+		networkBehavior.setFailurePercent(0);
+
+		BehaviorDelegate<RestAPI> delegate = new MockRetrofit.Builder(retrofit).backgroundExecutor(executorService)
+				.networkBehavior(networkBehavior).build().create(RestAPI.class);
+
+		AtomicInteger calls = new AtomicInteger();
+
+		return new RestAPI() {
+
+			@Override
+			public Call<BitsoResponse<OrderBook>> getOpenOrders(String book, Boolean aggregate) {
+
+				Object response = responses[Math.min(calls.getAndIncrement(), responses.length - 1)];
+
+				// every mocked call can be executed just once
+				if (response instanceof Call) {
+					return (Call<BitsoResponse<OrderBook>>) response;
+				} else if (response instanceof Response) {
+					return delegate.returning(Calls.response((Response<BitsoResponse<OrderBook>>) response))
+							.getOpenOrders(book, aggregate);
+				}
+				return delegate.returningResponse(response).getOpenOrders(book, aggregate);
+			}
+
+			@Override
+			public Call<BitsoResponse<List<TradeBook>>> getRecentTrades(String book, String order, Integer limit) {
+				return null;
+			}
+
+			@Override
+			public Call<BitsoResponse<List<TradeBook>>> getTrades(String book, Long marker, String order,
+					Integer limit) {
+				return null;
+			}
+		};
+	}
+
+	/**
+	 * Waits until the book snapshot reaches the given sequence
+	 */
+	private BookSnapshot awaitSequence(long sequence) throws InterruptedException {
+
+		long timeout = System.currentTimeMillis() + DEFAULT_AWAIT_TIME;
+
+		while (ordersManager.getBookSnapshot().getSequence() != sequence && System.currentTimeMillis() < timeout) {
+			TimeUnit.MILLISECONDS.sleep(10);
+		}
+
+		assertEquals(sequence, ordersManager.getBookSnapshot().getSequence());
+		return ordersManager.getBookSnapshot();
+	}
+
 	private BitsoResponse<OrderBook> getSimpleResponse() {
 
 		if (simpleBitsoReponse == null) {
@@ -331,6 +686,12 @@ public class OrdersManagerTest {
 		return simpleBitsoReponse;
 	}
 
+	private static DiffOrder diffOrder(String rate, int orderType, String amount, String value, String orderID,
+			long sequence) {
+		return new DiffOrder(10000000000000l, FixedPoint.parse(rate), (short) orderType, FixedPoint.parse(amount),
+				FixedPoint.parse(value), orderID, sequence);
+	}
+
 	abstract class MockOrdersObserver implements OrdersObserver {
 
 		@Override
@@ -338,6 +699,16 @@ public class OrdersManagerTest {
 
 		}
 
+		@Override
+		public void orderInserted(Order order, int index) {
+
+		}
+
+		@Override
+		public void orderRemoved(Order order, int index) {
+
+		}
+
 		@Override
 		public void ordersUpdated(List<Order> orders, MakerSide makerSide, int index) {
 
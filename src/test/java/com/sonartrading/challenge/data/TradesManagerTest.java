@@ -0,0 +1,261 @@
+package com.sonartrading.challenge.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.sonartrading.challenge.api.RestAPI;
+import com.sonartrading.challenge.api.dto.BitsoResponse;
+import com.sonartrading.challenge.api.dto.TradeBook;
+import com.sonartrading.challenge.data.model.FixedPoint;
+import com.sonartrading.challenge.data.model.MakerSide;
+import com.sonartrading.challenge.data.model.Trade;
+import com.sonartrading.challenge.data.observer.MarketObserver;
+import com.sonartrading.challenge.data.observer.TradesObserver;
+import com.sonartrading.challenge.ws.WebsocketClient;
+import com.sonartrading.challenge.ws.dto.WebsocketMessage;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.mock.BehaviorDelegate;
+import retrofit2.mock.MockRetrofit;
+import retrofit2.mock.NetworkBehavior;
+
+public class TradesManagerTest {
+
+	private static final int DEFAULT_AWAIT_TIME = 4000;
+
+	private WebsocketClient wsClient = Mockito.mock(WebsocketClient.class);
+	private RestAPI restAPI = Mockito.mock(RestAPI.class);
+
+	private ExecutorService executorService = Executors.newSingleThreadExecutor();
+	private BehaviorDelegate<RestAPI> delegate;
+
+	private TradesManager tradesManager;
+	private final BlockingQueue<List<Trade>> notifications = new ArrayBlockingQueue<>(16);
+
+	@Before
+	public void setUp() throws Exception {
+
+		NetworkBehavior networkBehavior = NetworkBehavior.create();
+		networkBehavior.setDelay(0, TimeUnit.MILLISECONDS);
+		networkBehavior.setFailurePercent(0);
+
+		Retrofit retrofit = new Retrofit.Builder().baseUrl("http://mytest.com").build();
+		delegate = new MockRetrofit.Builder(retrofit).backgroundExecutor(executorService)
+				.networkBehavior(networkBehavior).build().create(RestAPI.class);
+
+		Mockito.when(restAPI.getRecentTrades(Mockito.any(), Mockito.any(), Mockito.any()))
+				.thenAnswer(i -> delegate.returningResponse(tradesResponse(2, 1)).getRecentTrades(null, null, null));
+		Mockito.when(restAPI.getTrades(Mockito.any(), Mockito.eq(3l), Mockito.any(), Mockito.any()))
+				.thenAnswer(i -> delegate.returningResponse(tradesResponse(4)).getTrades(null, null, null, null));
+
+		tradesManager = new TradesManager(null, restAPI, wsClient, executorService);
+		tradesManager.addTradesObserver(new TradesObserver() {
+
+			@Override
+			public void tradesUpdated(List<Trade> trades) {
+				notifications.add(trades);
+			}
+
+			@Override
+			public ObserverType getObserverType() {
+				return ObserverType.LOGIC;
+			}
+		});
+	}
+
+	@Test
+	public void testWebsocketTrades() throws InterruptedException {
+
+		assertTradeIDs(nextNotification(), 2, 1);
+
+		tradesManager.handleMessage(new WebsocketMessage<>(null, null, 10l, new Trade[] { trade(3) }));
+		assertTradeIDs(nextNotification(), 3, 2, 1);
+
+		// trade 4 is lost with the message 11, trade 5 waits for the backfill
+		tradesManager.handleMessage(new WebsocketMessage<>(null, null, 12l, new Trade[] { trade(5) }));
+		assertTradeIDs(nextNotification(), 5, 4, 3, 2, 1);
+
+		Mockito.verify(restAPI).getTrades(null, 3l, RestAPI.SortType.ASC, 100);
+	}
+
+	@Test
+	public void testGapDeliversEveryTradeOnce() throws InterruptedException {
+
+		List<Long> delivered = new CopyOnWriteArrayList<>();
+		tradesManager.addMarketObserver(new MarketObserver() {
+			@Override
+			public void onTrade(String book, long tradeID, long timestamp, MakerSide makerSide, double price,
+					double amount) {
+				delivered.add(tradeID);
+			}
+		});
+
+		// the backfill is answered when the test decides
+		BlockingQueue<Callback<BitsoResponse<List<TradeBook>>>> backfills = new ArrayBlockingQueue<>(1);
+		@SuppressWarnings("unchecked")
+		Call<BitsoResponse<List<TradeBook>>> backfillCall = Mockito.mock(Call.class);
+		Mockito.doAnswer(i -> backfills.add(i.getArgument(0))).when(backfillCall).enqueue(Mockito.any());
+		Mockito.when(restAPI.getTrades(Mockito.any(), Mockito.eq(3l), Mockito.any(), Mockito.any()))
+				.thenReturn(backfillCall);
+
+		assertTradeIDs(nextNotification(), 2, 1);
+
+		tradesManager.handleMessage(new WebsocketMessage<>(null, null, 10l, new Trade[] { trade(3) }));
+		assertTradeIDs(nextNotification(), 3, 2, 1);
+
+		// trades 4 and 5 are lost with the message 11, the next ones arrive before the backfill
+		tradesManager.handleMessage(new WebsocketMessage<>(null, null, 12l, new Trade[] { trade(7), trade(6) }));
+		tradesManager.handleMessage(new WebsocketMessage<>(null, null, 13l, new Trade[] { trade(8) }));
+
+		Callback<BitsoResponse<List<TradeBook>>> backfill = backfills.poll(DEFAULT_AWAIT_TIME,
+				TimeUnit.MILLISECONDS);
+		backfill.onResponse(backfillCall, Response.success(tradesResponse(4, 5, 6)));
+
+		assertTradeIDs(nextNotification(), 8, 7, 6, 5, 4, 3, 2, 1);
+		assertEquals(Arrays.asList(1l, 2l, 3l, 4l, 5l, 6l, 7l, 8l), delivered);
+		assertEquals(1, tradesManager.getStaleTrades());
+
+		// the live trades are delivered again as they come
+		tradesManager.handleMessage(new WebsocketMessage<>(null, null, 14l, new Trade[] { trade(9) }));
+		assertTradeIDs(nextNotification(), 9, 8, 7, 6, 5, 4, 3, 2, 1);
+		assertEquals(9, delivered.size());
+	}
+
+	@Test
+	public void testBackfillRetriedAfterErrorResponses() throws InterruptedException {
+
+		List<Long> delivered = deliveredTrades();
+		BlockingQueue<Callback<BitsoResponse<List<TradeBook>>>> backfills = new ArrayBlockingQueue<>(4);
+		Call<BitsoResponse<List<TradeBook>>> backfillCall = heldBackfill(backfills);
+
+		assertTradeIDs(nextNotification(), 2, 1);
+
+		tradesManager.handleMessage(new WebsocketMessage<>(null, null, 10l, new Trade[] { trade(3) }));
+		assertTradeIDs(nextNotification(), 3, 2, 1);
+
+		// trade 4 is lost with the message 11, trade 5 waits for the backfill
+		tradesManager.handleMessage(new WebsocketMessage<>(null, null, 12l, new Trade[] { trade(5) }));
+
+		// an HTTP error and an unsuccessful response, then the trades
+		nextBackfill(backfills).onResponse(backfillCall, Response.error(500,
+				ResponseBody.create(MediaType.parse("application/json"), "{}")));
+		nextBackfill(backfills).onResponse(backfillCall, Response.success(new BitsoResponse<>(false, null)));
+		nextBackfill(backfills).onResponse(backfillCall, Response.success(tradesResponse(4)));
+
+		assertTradeIDs(nextNotification(), 5, 4, 3, 2, 1);
+		assertEquals(Arrays.asList(1l, 2l, 3l, 4l, 5l), delivered);
+	}
+
+	@Test
+	public void testFailedBackfillReleasesTrades() throws InterruptedException {
+
+		List<Long> delivered = deliveredTrades();
+		BlockingQueue<Callback<BitsoResponse<List<TradeBook>>>> backfills = new ArrayBlockingQueue<>(4);
+		Call<BitsoResponse<List<TradeBook>>> backfillCall = heldBackfill(backfills);
+
+		assertTradeIDs(nextNotification(), 2, 1);
+
+		tradesManager.handleMessage(new WebsocketMessage<>(null, null, 10l, new Trade[] { trade(3) }));
+		assertTradeIDs(nextNotification(), 3, 2, 1);
+
+		tradesManager.handleMessage(new WebsocketMessage<>(null, null, 12l, new Trade[] { trade(5) }));
+
+		// every retry fails, trade 4 is given up and trade 5 is released
+		for (int i = 0; i <= TradesManager.BACKFILL_RETRIES; i++) {
+			nextBackfill(backfills).onResponse(backfillCall, Response.error(503,
+					ResponseBody.create(MediaType.parse("application/json"), "{}")));
+		}
+
+		assertTradeIDs(nextNotification(), 5, 3, 2, 1);
+		assertEquals(Arrays.asList(1l, 2l, 3l, 5l), delivered);
+
+		// the live trades are delivered again as they come
+		tradesManager.handleMessage(new WebsocketMessage<>(null, null, 13l, new Trade[] { trade(6) }));
+		assertTradeIDs(nextNotification(), 6, 5, 3, 2, 1);
+		assertEquals(Arrays.asList(1l, 2l, 3l, 5l, 6l), delivered);
+	}
+
+	private List<Long> deliveredTrades() {
+
+		List<Long> delivered = new CopyOnWriteArrayList<>();
+		tradesManager.addMarketObserver(new MarketObserver() {
+			@Override
+			public void onTrade(String book, long tradeID, long timestamp, MakerSide makerSide, double price,
+					double amount) {
+				delivered.add(tradeID);
+			}
+		});
+
+		return delivered;
+	}
+
+	/**
+	 * The backfills after trade 3 are answered when the test decides
+	 */
+	private Call<BitsoResponse<List<TradeBook>>> heldBackfill(
+			BlockingQueue<Callback<BitsoResponse<List<TradeBook>>>> backfills) {
+
+		@SuppressWarnings("unchecked")
+		Call<BitsoResponse<List<TradeBook>>> backfillCall = Mockito.mock(Call.class);
+		Mockito.doAnswer(i -> backfills.add(i.getArgument(0))).when(backfillCall).enqueue(Mockito.any());
+		Mockito.when(restAPI.getTrades(Mockito.any(), Mockito.eq(3l), Mockito.any(), Mockito.any()))
+				.thenReturn(backfillCall);
+
+		return backfillCall;
+	}
+
+	private static Callback<BitsoResponse<List<TradeBook>>> nextBackfill(
+			BlockingQueue<Callback<BitsoResponse<List<TradeBook>>>> backfills) throws InterruptedException {
+		return backfills.poll(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS);
+	}
+
+	private List<Trade> nextNotification() throws InterruptedException {
+		return notifications.poll(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS);
+	}
+
+	private static void assertTradeIDs(List<Trade> trades, long... tradeIDs) {
+		assertEquals(Arrays.stream(tradeIDs).boxed().collect(Collectors.toList()),
+				trades.stream().map(Trade::getTradeID).collect(Collectors.toList()));
+	}
+
+	private static Trade trade(long tradeID) {
+		return new Trade(tradeID, MakerSide.BUY, OffsetDateTime.now(), FixedPoint.SCALE, FixedPoint.SCALE);
+	}
+
+	private static BitsoResponse<List<TradeBook>> tradesResponse(long... tradeIDs) {
+
+		if (tradeIDs.length == 0) {
+			return new BitsoResponse<>(true, Collections.emptyList());
+		}
+
+		return new BitsoResponse<>(true, Arrays.stream(tradeIDs).mapToObj(tid -> {
+			TradeBook tradeBook = new TradeBook();
+			tradeBook.setTid(tid);
+			tradeBook.setMarkerSide("buy");
+			tradeBook.setCreated_at("2018-12-06T23:20:31+0000");
+			tradeBook.setAmount(FixedPoint.SCALE);
+			tradeBook.setPrice(FixedPoint.SCALE);
+			return tradeBook;
+		}).collect(Collectors.toList()));
+	}
+}
@@ -0,0 +1,68 @@
+package com.sonartrading.challenge.data.book;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.sonartrading.challenge.data.model.MakerSide;
+import com.sonartrading.challenge.data.model.Order;
+
+public class BookSnapshotTest {
+
+	@Test
+	public void testOfOrderBookSides() {
+
+		OrderBookSide bids = new OrderBookSide(MakerSide.BUY);
+		bids.add(order("a", MakerSide.BUY), 9_000);
+		bids.add(order("b", MakerSide.BUY), 9_900);
+		bids.add(order("c", MakerSide.BUY), 9_900);
+
+		OrderBookSide asks = new OrderBookSide(MakerSide.SELL);
+		asks.add(order("d", MakerSide.SELL), 10_100);
+		asks.add(order("e", MakerSide.SELL), 10_500);
+		asks.add(order("f", MakerSide.SELL), 11_000);
+
+		BookSnapshot snapshot = BookSnapshot.of(7, bids, asks, 2, 100);
+
+		assertEquals(7, snapshot.getSequence());
+		assertEquals(2, snapshot.getNumOfBidLevels());
+		assertEquals(2, snapshot.getNumOfAskLevels());
+		assertEquals(99, snapshot.getBestBid(), 0);
+		assertEquals(2, snapshot.getBidAmount(0), 0);
+		assertEquals(90, snapshot.getBidPrice(1), 0);
+		assertEquals(101, snapshot.getBestAsk(), 0);
+		assertEquals(105, snapshot.getAskPrice(1), 0);
+		assertEquals(2, snapshot.getSpread(), 0);
+		assertEquals(100, snapshot.getMidPrice(), 0);
+
+		assertTrue(Double.isNaN(BookSnapshot.EMPTY.getMidPrice()));
+	}
+
+	@Test
+	public void testOfPriceLevelBookSides() {
+
+		PriceLevelBookSide bids = new PriceLevelBookSide(MakerSide.BUY);
+		bids.apply("a", 9_000, 100);
+		bids.apply("b", 9_900, 100);
+		bids.apply("c", 9_900, 100);
+
+		PriceLevelBookSide asks = new PriceLevelBookSide(MakerSide.SELL);
+		asks.apply("d", 10_100, 100);
+
+		BookSnapshot snapshot = BookSnapshot.of(7, bids, asks, 2, 100);
+
+		assertEquals(2, snapshot.getNumOfBidLevels());
+		assertEquals(99, snapshot.getBestBid(), 0);
+		assertEquals(2, snapshot.getBidAmount(0), 0);
+		assertEquals(2, snapshot.getBidCount(0));
+		assertEquals(1, snapshot.getBidCount(1));
+		assertEquals(101, snapshot.getBestAsk(), 0);
+		assertEquals(1, snapshot.getAskCount(0));
+	}
+
+	private static Order order(String orderID, MakerSide makerSide) {
+		// fixed-point amount of 1 with the scale of the snapshots
+		return new Order(orderID, makerSide, 100, 1);
+	}
+}
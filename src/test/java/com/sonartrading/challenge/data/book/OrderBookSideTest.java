@@ -0,0 +1,230 @@
+package com.sonartrading.challenge.data.book;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.sonartrading.challenge.data.model.MakerSide;
+import com.sonartrading.challenge.data.model.Order;
+
+public class OrderBookSideTest {
+
+	@Test
+	public void testBidsSortedByPriceDesc() {
+
+		OrderBookSide bids = new OrderBookSide(MakerSide.BUY);
+		bids.add(order("a", MakerSide.BUY), 100);
+		bids.add(order("b", MakerSide.BUY), 300);
+		bids.add(order("c", MakerSide.BUY), 200);
+		bids.add(order("d", MakerSide.BUY), 300);
+
+		assertEquals(4, bids.size());
+		assertEquals(3, bids.getNumOfLevels());
+		assertOrders(bids.getBestOrders(10), "b", "d", "c", "a");
+		assertEquals(0, bids.indexOf("b"));
+		assertEquals(1, bids.indexOf("d"));
+		assertEquals(3, bids.indexOf("a"));
+	}
+
+	@Test
+	public void testAsksSortedByPriceAsc() {
+
+		OrderBookSide asks = new OrderBookSide(MakerSide.SELL);
+		asks.add(order("a", MakerSide.SELL), 100);
+		asks.add(order("b", MakerSide.SELL), 300);
+		asks.add(order("c", MakerSide.SELL), 200);
+
+		assertOrders(asks.getBestOrders(2), "a", "c");
+		assertEquals(2, asks.indexOf("b"));
+		assertEquals(-1, asks.indexOf("z"));
+	}
+
+	@Test
+	public void testRemove() {
+
+		OrderBookSide asks = new OrderBookSide(MakerSide.SELL);
+		Order order = order("a", MakerSide.SELL);
+		asks.add(order, 100);
+		asks.add(order("b", MakerSide.SELL), 100);
+		asks.add(order("c", MakerSide.SELL), 200);
+
+		assertSame(order, asks.remove("a"));
+		assertNull(asks.remove("a"));
+		assertNull(asks.get("a"));
+		assertEquals(0, asks.indexOf("b"));
+
+		asks.remove("b");
+		assertEquals(1, asks.getNumOfLevels());
+		assertOrders(asks.getBestOrders(10), "c");
+	}
+
+	@Test
+	public void testUpdate() {
+
+		OrderBookSide bids = new OrderBookSide(MakerSide.BUY);
+		bids.add(order("a", MakerSide.BUY), 100);
+		bids.add(order("b", MakerSide.BUY), 100);
+		bids.add(order("c", MakerSide.BUY), 100);
+
+		// same price keeps the position in the queue
+		assertTrue(bids.update("a", 100));
+		assertOrders(bids.getBestOrders(10), "a", "b", "c");
+
+		// a new price moves the order to the end of the queue
+		assertTrue(bids.update("a", 50));
+		assertTrue(bids.update("a", 100));
+		assertOrders(bids.getBestOrders(10), "b", "c", "a");
+
+		assertFalse(bids.update("z", 100));
+	}
+
+	@Test
+	public void testGetOrder() {
+
+		OrderBookSide asks = new OrderBookSide(MakerSide.SELL);
+		asks.add(order("a", MakerSide.SELL), 300);
+		asks.add(order("b", MakerSide.SELL), 100);
+		asks.add(order("c", MakerSide.SELL), 200);
+		asks.add(order("d", MakerSide.SELL), 100);
+
+		assertEquals("b", asks.getOrder(0).getOrderID());
+		assertEquals("d", asks.getOrder(1).getOrderID());
+		assertEquals("c", asks.getOrder(2).getOrderID());
+		assertEquals("a", asks.getOrder(3).getOrderID());
+		assertNull(asks.getOrder(4));
+		assertNull(asks.getOrder(-1));
+	}
+
+	@Test
+	public void testIndexMatchesBestOrders() {
+
+		OrderBookSide bids = new OrderBookSide(MakerSide.BUY, 1, 1);
+		Random random = new Random(7);
+
+		for (int i = 0; i < 5000; i++) {
+			String orderID = Integer.toString(random.nextInt(1000));
+			if (bids.get(orderID) == null) {
+				bids.add(order(orderID, MakerSide.BUY), random.nextInt(300));
+			} else {
+				bids.remove(orderID);
+			}
+		}
+
+		List<Order> orders = bids.getBestOrders(bids.size());
+		assertEquals(bids.size(), orders.size());
+
+		for (int i = 0; i < orders.size(); i++) {
+			assertEquals(i, bids.indexOf(orders.get(i).getOrderID()));
+			assertSame(orders.get(i), bids.getOrder(i));
+		}
+	}
+
+	@Test
+	public void testDuplicatedOrder() {
+
+		OrderBookSide bids = new OrderBookSide(MakerSide.BUY);
+
+		assertTrue(bids.add(order("a", MakerSide.BUY), 100));
+		assertFalse(bids.add(order("a", MakerSide.BUY), 200));
+		assertEquals(1, bids.size());
+	}
+
+	@Test
+	public void testGrowAndReuseSlots() {
+
+		OrderBookSide asks = new OrderBookSide(MakerSide.SELL, 1, 1);
+
+		for (int i = 0; i < 1000; i++) {
+			asks.add(order(Integer.toString(i), MakerSide.SELL), i % 100);
+		}
+
+		assertEquals(1000, asks.size());
+		assertEquals(100, asks.getNumOfLevels());
+		assertEquals(10, asks.indexOf("1"));
+
+		for (int i = 0; i < 1000; i += 2) {
+			asks.remove(Integer.toString(i));
+		}
+
+		for (int i = 0; i < 1000; i += 2) {
+			asks.add(order(Integer.toString(i), MakerSide.SELL), 1000 + i);
+		}
+
+		assertEquals(1000, asks.size());
+		assertEquals(550, asks.getNumOfLevels());
+		assertEquals(499, asks.indexOf("999"));
+		assertEquals(500, asks.indexOf("0"));
+	}
+
+	@Test
+	public void testLevelAmounts() {
+
+		Random random = new Random(7);
+		OrderBookSide asks = new OrderBookSide(MakerSide.SELL, 16, 16);
+
+		// new orders, cancellations, new amounts and new prices
+		for (int i = 0; i < 10_000; i++) {
+
+			String orderID = "o" + random.nextInt(300);
+			long price = 1_000 + random.nextInt(50);
+			long amount = random.nextInt(5);
+
+			Order order = asks.get(orderID);
+			if (amount == 0) {
+				asks.remove(orderID);
+			} else if (order == null) {
+				asks.add(new Order(orderID, MakerSide.SELL, amount, price), price);
+			} else {
+				order.update(amount, random.nextBoolean() ? order.getPrice() : price);
+				asks.update(orderID, order.getPrice());
+			}
+		}
+
+		long[] prices = new long[50];
+		long[] amounts = new long[50];
+		int[] counts = new int[50];
+		int numOfLevels = asks.getBestLevels(50, prices, amounts, counts);
+
+		assertEquals(asks.getNumOfLevels(), numOfLevels);
+
+		// the totals kept by level are the sums of their orders
+		List<Order> orders = asks.getBestOrders(asks.size());
+		int index = 0;
+
+		for (int level = 0; level < numOfLevels; level++) {
+
+			long amount = 0;
+			int count = 0;
+
+			for (; index < orders.size() && orders.get(index).getPrice() == prices[level]; index++) {
+				amount += orders.get(index).getAmount();
+				count++;
+			}
+
+			assertEquals(amount, amounts[level]);
+			assertEquals(count, counts[level]);
+		}
+
+		assertEquals(orders.size(), index);
+	}
+
+	private static Order order(String orderID, MakerSide makerSide) {
+		return new Order(orderID, makerSide, 100, 1);
+	}
+
+	private static void assertOrders(List<Order> orders, String... orderIDs) {
+
+		assertEquals(orderIDs.length, orders.size());
+
+		for (int i = 0; i < orderIDs.length; i++) {
+			assertEquals(orderIDs[i], orders.get(i).getOrderID());
+		}
+	}
+}
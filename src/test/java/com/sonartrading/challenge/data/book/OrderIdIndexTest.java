@@ -0,0 +1,89 @@
+package com.sonartrading.challenge.data.book;
+
+import static com.sonartrading.challenge.data.book.OrderIdIndex.NOT_FOUND;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class OrderIdIndexTest {
+
+	private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+	@Test
+	public void testSameAsHashMap() {
+
+		Random random = new Random(7);
+		OrderIdIndex index = new OrderIdIndex(16);
+		Map<String, Integer> expected = new HashMap<>();
+		List<String> orderIDs = new ArrayList<>();
+
+		// grows from 64 entries, removes from the probe sequences
+		for (int i = 0; i < 20_000; i++) {
+
+			if (orderIDs.isEmpty() || random.nextInt(3) > 0) {
+				String orderID = randomOrderID(random);
+				orderIDs.add(orderID);
+				index.put(orderID, i);
+				expected.put(orderID, i);
+			} else {
+				String orderID = orderIDs.remove(random.nextInt(orderIDs.size()));
+				Integer value = expected.remove(orderID);
+				assertEquals(value != null ? (int) value : NOT_FOUND, index.remove(orderID));
+			}
+		}
+
+		assertEquals(expected.size(), index.size());
+		expected.forEach((orderID, value) -> assertEquals((int) value, index.get(orderID)));
+		assertEquals(NOT_FOUND, index.get("unknown"));
+	}
+
+	@Test
+	public void testIdsThatDoNotFit() {
+
+		OrderIdIndex index = new OrderIdIndex(16);
+
+		String longID = "0123456789abcdefXYZ";
+		String nonAscii = "ñ";
+
+		index.put("", 0);
+		index.put("0123456789abcdef", 1);
+		index.put(longID, 2);
+		index.put(nonAscii, 3);
+
+		assertEquals(4, index.size());
+		assertEquals(0, index.get(""));
+		assertEquals(1, index.get("0123456789abcdef"));
+		assertEquals(2, index.get(longID));
+		assertEquals(3, index.get(nonAscii));
+
+		// the same prefix, different length
+		assertEquals(NOT_FOUND, index.get("0123456789abcde"));
+
+		assertEquals(2, index.remove(longID));
+		assertEquals(NOT_FOUND, index.get(longID));
+
+		index.clear();
+		assertEquals(0, index.size());
+		assertEquals(NOT_FOUND, index.get("0123456789abcdef"));
+		assertEquals(NOT_FOUND, index.get(nonAscii));
+	}
+
+	private static String randomOrderID(Random random) {
+
+		// 16 characters like the exchange, some shorter
+		int length = random.nextInt(8) == 0 ? 1 + random.nextInt(15) : 16;
+
+		StringBuilder orderID = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			orderID.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+		}
+
+		return orderID.toString();
+	}
+}
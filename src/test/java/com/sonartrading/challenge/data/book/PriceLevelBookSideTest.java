@@ -0,0 +1,89 @@
+package com.sonartrading.challenge.data.book;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.sonartrading.challenge.data.model.MakerSide;
+import com.sonartrading.challenge.data.model.Order;
+
+public class PriceLevelBookSideTest {
+
+	@Test
+	public void testLevels() {
+
+		PriceLevelBookSide asks = new PriceLevelBookSide(MakerSide.SELL);
+		asks.apply("a", 200, 5);
+		asks.apply("b", 100, 3);
+		asks.apply("c", 100, 2);
+
+		assertEquals(3, asks.size());
+		assertEquals(2, asks.getNumOfLevels());
+		assertEquals(100, asks.getPrice(0));
+		assertEquals(5, asks.getAmount(0));
+		assertEquals(2, asks.getCount(0));
+		assertEquals(200, asks.getPrice(1));
+
+		// partially filled
+		asks.apply("b", 100, 1);
+		assertEquals(3, asks.getAmount(0));
+		assertEquals(2, asks.getCount(0));
+
+		// moved to another level
+		asks.apply("c", 200, 2);
+		assertEquals(1, asks.getAmount(0));
+		assertEquals(1, asks.getCount(0));
+		assertEquals(7, asks.getAmount(1));
+		assertEquals(2, asks.getCount(1));
+
+		// removed, with the empty level
+		assertTrue(asks.apply("b", 100, 0));
+		assertFalse(asks.apply("b", 100, 0));
+		assertEquals(2, asks.size());
+		assertEquals(1, asks.getNumOfLevels());
+		assertEquals(200, asks.getPrice(0));
+	}
+
+	@Test
+	public void testSameLevelsAsOrderBookSide() {
+
+		Random random = new Random(42);
+		OrderBookSide orders = new OrderBookSide(MakerSide.BUY, 16, 16);
+		PriceLevelBookSide levels = new PriceLevelBookSide(MakerSide.BUY, 16, 16);
+
+		for (int i = 0; i < 10_000; i++) {
+
+			String orderID = "o" + random.nextInt(500);
+			long price = 1_000 + random.nextInt(100);
+			long amount = random.nextInt(4);
+
+			levels.apply(orderID, price, amount);
+
+			Order order = orders.get(orderID);
+			if (amount == 0) {
+				orders.remove(orderID);
+			} else if (order == null) {
+				orders.add(new Order(orderID, MakerSide.BUY, amount, price), price);
+			} else {
+				order.update(amount, price);
+				orders.update(orderID, price);
+			}
+		}
+
+		BookSnapshot expected = BookSnapshot.of(1, orders, orders, 50, 1);
+		BookSnapshot actual = BookSnapshot.of(1, levels, levels, 50, 1);
+
+		assertEquals(orders.size(), levels.size());
+		assertEquals(expected.getNumOfBidLevels(), actual.getNumOfBidLevels());
+
+		for (int i = 0; i < expected.getNumOfBidLevels(); i++) {
+			assertEquals(expected.getBidPrice(i), actual.getBidPrice(i), 0);
+			assertEquals(expected.getBidAmount(i), actual.getBidAmount(i), 0);
+			assertEquals(expected.getBidCount(i), actual.getBidCount(i));
+		}
+	}
+}
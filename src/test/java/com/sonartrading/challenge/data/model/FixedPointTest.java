@@ -0,0 +1,47 @@
+package com.sonartrading.challenge.data.model;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class FixedPointTest {
+
+	@Test
+	public void testParse() {
+
+		assertEquals(6870001000000l, FixedPoint.parse("68700.01"));
+		assertEquals(1_250_000, FixedPoint.parse("0.0125"));
+		assertEquals(100_000_000, FixedPoint.parse("1"));
+		assertEquals(50_000_000, FixedPoint.parse(".5"));
+		assertEquals(-1, FixedPoint.parse("-0.00000001"));
+
+		// a part of a message
+		assertEquals(6870000000000l, FixedPoint.parse("\"r\":\"68700.00\"", 5, 13));
+	}
+
+	@Test
+	public void testParseRounding() {
+		assertEquals(2, FixedPoint.parse("0.000000015"));
+		assertEquals(1, FixedPoint.parse("0.0000000149"));
+		assertEquals(100_000_000, FixedPoint.parse("0.999999999"));
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void testParseInvalid() {
+		FixedPoint.parse("68,700.00");
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void testParseTooLarge() {
+		FixedPoint.parse("100000000000");
+	}
+
+	@Test
+	public void testToString() {
+		assertEquals("68700.01", FixedPoint.toString(6870001000000l));
+		assertEquals("68700", FixedPoint.toString(6870000000000l));
+		assertEquals("0.0125", FixedPoint.toString(1_250_000));
+		assertEquals("-0.00000001", FixedPoint.toString(-1));
+		assertEquals("0", FixedPoint.toString(0));
+	}
+}
@@ -0,0 +1,95 @@
+package com.sonartrading.challenge.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sonartrading.challenge.api.dto.BitsoResponse;
+import com.sonartrading.challenge.api.dto.OrderBook;
+import com.sonartrading.challenge.journal.JournalRecord.RecordType;
+import com.sonartrading.challenge.parser.DiffOrdersParser;
+import com.sonartrading.challenge.parser.JsonScanner;
+import com.sonartrading.challenge.ws.WebsocketClient;
+import com.sonartrading.challenge.ws.dto.DiffOrder;
+import com.sonartrading.challenge.ws.dto.WebsocketMessage;
+import com.sonartrading.challenge.ws.handler.WebsocketHandler;
+
+public class JournalTest {
+
+	private static final String ORDER_BOOK_KEY = "order_book?book=btc_mxn&aggregate=false";
+	private static final String ORDER_BOOK = "{\"success\":true,\"payload\":{\"asks\":[],\"bids\":[],\"sequence\":\"10\"}}";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testWriteAndRead() throws IOException {
+
+		Path path = folder.newFile().toPath();
+
+		try (JournalWriter writer = new JournalWriter(path)) {
+			writer.append(RecordType.REST, 1, ORDER_BOOK_KEY, ORDER_BOOK);
+			writer.append(RecordType.FRAME, 2, "", diffOrders(11));
+			// bigger than the buffer
+			writer.append(RecordType.FRAME, 3, "", new String(new char[100_000]).replace('\0', 'x'));
+		}
+
+		try (JournalReader reader = new JournalReader(path)) {
+			assertEquals(new JournalRecord(RecordType.REST, 1, ORDER_BOOK_KEY, ORDER_BOOK), reader.next());
+			assertEquals(new JournalRecord(RecordType.FRAME, 2, "", diffOrders(11)), reader.next());
+			assertEquals(100_000, reader.next().getData().length());
+			assertFalse(reader.hasNext());
+		}
+	}
+
+	@Test
+	public void testReplay() throws IOException {
+
+		Path path = folder.newFile().toPath();
+
+		try (JournalWriter writer = new JournalWriter(path)) {
+			writer.appendRest(ORDER_BOOK_KEY, ORDER_BOOK);
+			writer.appendFrame(diffOrders(11));
+			writer.appendFrame(diffOrders(12));
+		}
+
+		try (ReplayDriver replayDriver = new ReplayDriver(path, ReplayDriver.AS_FAST_AS_POSSIBLE)) {
+
+			BitsoResponse<OrderBook> orderBook = replayDriver.getRestAPI().getOpenOrders("btc_mxn", false).execute()
+					.body();
+			assertEquals(Long.valueOf(10), orderBook.getPayload().getSequence());
+
+			List<Long> sequences = new ArrayList<>();
+			WebsocketClient websocketClient = new WebsocketClient();
+			websocketClient.addHandler("btc_mxn", "diff-orders", new WebsocketHandler<DiffOrder[]>() {
+
+				@Override
+				public DiffOrder[] readPayload(JsonScanner scanner) {
+					return DiffOrdersParser.readDiffOrders(scanner);
+				}
+
+				@Override
+				public void handleMessage(WebsocketMessage<DiffOrder[]> response) {
+					sequences.add(response.getSequence());
+				}
+			});
+
+			assertEquals(2, replayDriver.replay(websocketClient));
+			assertEquals(2, sequences.size());
+			assertEquals(Long.valueOf(12), sequences.get(1));
+		}
+	}
+
+	private static String diffOrders(long sequence) {
+		return "{\"type\":\"diff-orders\",\"book\":\"btc_mxn\",\"sequence\":" + sequence
+				+ ",\"payload\":[{\"o\":\"a1\",\"d\":1544138431634,\"r\":\"68700.00\",\"t\":1,\"a\":\"0.5\",\"v\":\"34350\",\"s\":\"open\"}]}";
+	}
+}
@@ -0,0 +1,60 @@
+package com.sonartrading.challenge.latency;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LatencyMonitorTest {
+
+	@Test
+	public void testPercentilesOfTheInterval() {
+
+		LatencyMonitor monitor = new LatencyMonitor();
+
+		// 1 to 1000 us
+		for (int i = 1; i <= 1000; i++) {
+			monitor.record(Stage.APPLY, TimeUnit.MICROSECONDS.toNanos(i));
+		}
+		monitor.sample();
+
+		StageLatency apply = monitor.getStage(Stage.APPLY);
+		assertEquals(1000, apply.getCount());
+		assertEquals(500, apply.getP50Micros(), 1);
+		assertEquals(990, apply.getP99Micros(), 1);
+		assertEquals(1000, apply.getMaxMicros(), 1);
+		assertEquals(0, monitor.getStage(Stage.PARSE).getCount());
+
+		// the next interval starts empty
+		monitor.record(Stage.APPLY, TimeUnit.MICROSECONDS.toNanos(5));
+		monitor.sample();
+
+		assertEquals(1, apply.getCount());
+		assertEquals(5, apply.getMaxMicros(), 0.01);
+	}
+
+	@Test
+	public void testOutOfRange() {
+
+		LatencyMonitor monitor = new LatencyMonitor();
+
+		monitor.record(Stage.QUEUE, -1);
+		monitor.record(Stage.QUEUE, TimeUnit.HOURS.toNanos(1));
+		monitor.sample();
+
+		assertEquals(2, monitor.getStage(Stage.QUEUE).getCount());
+		assertTrue(monitor.getStage(Stage.QUEUE).getMaxMicros() >= TimeUnit.MINUTES.toMicros(1));
+	}
+
+	@Test
+	public void testQueueDepths() {
+
+		LatencyMonitor monitor = new LatencyMonitor();
+		monitor.addQueueDepth("books-0", () -> 3);
+
+		assertEquals(Collections.singletonMap("books-0", 3), monitor.getQueueDepths());
+	}
+}
@@ -0,0 +1,50 @@
+package com.sonartrading.challenge.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.Test;
+
+public class MetricsRegistryTest {
+
+	@Test
+	public void testCountersAndRates() throws InterruptedException {
+
+		LongAdder messages = new LongAdder();
+
+		MetricsRegistry registry = new MetricsRegistry();
+		registry.addCounter("messages", messages::sum);
+		registry.sample();
+
+		messages.add(100);
+		TimeUnit.MILLISECONDS.sleep(100);
+		registry.sample();
+
+		assertEquals(Collections.singletonMap("messages", 100L), registry.getCounters());
+
+		// 100 messages in 100 ms or a bit more
+		double rate = registry.getRates().get("messages");
+		assertTrue(rate > 100 && rate <= 1000);
+
+		// nothing new in the next interval
+		registry.sample();
+		assertEquals(0, registry.getRates().get("messages"), 0);
+	}
+
+	@Test
+	public void testGauges() {
+
+		int[] depth = { 3 };
+
+		MetricsRegistry registry = new MetricsRegistry();
+		registry.addGauge("depth", () -> depth[0]);
+		assertEquals(Collections.singletonMap("depth", 3L), registry.getGauges());
+
+		depth[0] = 5;
+		assertEquals(Collections.singletonMap("depth", 5L), registry.getGauges());
+	}
+}
@@ -0,0 +1,95 @@
+package com.sonartrading.challenge.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.google.gson.JsonSyntaxException;
+import com.sonartrading.challenge.data.model.FixedPoint;
+import com.sonartrading.challenge.ws.dto.DiffOrder;
+
+public class DiffOrdersParserTest {
+
+	private final JsonScanner scanner = new JsonScanner();
+
+	@Test
+	public void testReadDiffOrders() {
+
+		String message = "{\"type\":\"diff-orders\",\"book\":\"btc_mxn\",\"sequence\":2999,\"payload\":["
+				+ "{\"o\":\"CnWWeF3x3iEBDhu5\",\"d\":1544138431634,\"r\":\"68700.00\",\"t\":1,\"a\":\"0.001\",\"v\":\"68.7\",\"s\":\"open\"},"
+				+ " {\"o\":\"XnWWeF3x3iEBDhu5\", \"d\":1544138431635, \"r\":\"68600.00\", \"t\":0, \"s\":\"cancelled\"}]}";
+
+		DiffOrder[] diffOrders = readPayload(message);
+
+		assertEquals(2, diffOrders.length);
+
+		assertEquals("CnWWeF3x3iEBDhu5", diffOrders[0].getOrderID());
+		assertEquals(Long.valueOf(1544138431634l), diffOrders[0].getTimestamp());
+		assertEquals(FixedPoint.parse("68700.00"), diffOrders[0].getRate());
+		assertEquals(Short.valueOf((short) 1), diffOrders[0].getOrderType());
+		assertEquals(100_000, diffOrders[0].getAmount());
+		assertEquals(FixedPoint.parse("68.7"), diffOrders[0].getValue());
+
+		assertEquals("XnWWeF3x3iEBDhu5", diffOrders[1].getOrderID());
+		assertEquals(Short.valueOf((short) 0), diffOrders[1].getOrderType());
+		assertEquals(0, diffOrders[1].getAmount());
+	}
+
+	@Test
+	public void testReadEmptyAndNullPayload() {
+		assertEquals(0, readPayload("{\"payload\":[]}").length);
+		assertNull(readPayload("{\"payload\":null}"));
+	}
+
+	@Test
+	public void testSkipUnknownValues() {
+
+		String message = "{\"payload\":[{\"x\":{\"y\":[1,2,{\"z\":\"a\\\"b\"}]},\"o\":\"a\\u0062c\",\"n\":null,\"b\":true}]}";
+
+		DiffOrder[] diffOrders = readPayload(message);
+
+		assertEquals(1, diffOrders.length);
+		assertEquals("abc", diffOrders[0].getOrderID());
+	}
+
+	@Test(expected = JsonSyntaxException.class)
+	public void testMalformedMessage() {
+		readPayload("{\"payload\":[{\"o\":\"abc\"");
+	}
+
+	@Test
+	public void testPayloadBeforeHeader() {
+
+		scanner.reset("{\"payload\":[{\"o\":\"abc\"}],\"sequence\":7}").beginObject();
+
+		scanner.hasNext();
+		scanner.nextName();
+		int position = scanner.getPosition();
+		scanner.skipValue();
+
+		assertTrue(scanner.hasNext());
+		scanner.nextName();
+		assertTrue(scanner.nameEquals("sequence"));
+		assertEquals(7, scanner.nextLong());
+
+		scanner.setPosition(position);
+		assertEquals("abc", DiffOrdersParser.readDiffOrders(scanner)[0].getOrderID());
+	}
+
+	private DiffOrder[] readPayload(String message) {
+
+		scanner.reset(message).beginObject();
+
+		while (scanner.hasNext()) {
+			scanner.nextName();
+			if (scanner.nameEquals("payload")) {
+				return DiffOrdersParser.readDiffOrders(scanner);
+			}
+			scanner.skipValue();
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,75 @@
+package com.sonartrading.challenge.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.sonartrading.challenge.api.dto.BitsoResponse;
+import com.sonartrading.challenge.api.dto.OrderBook;
+import com.sonartrading.challenge.api.dto.OrderBookItem;
+import com.sonartrading.challenge.api.dto.OrderBookItems;
+
+public class OrderBookParserTest {
+
+	private static final Type ORDER_BOOK_TYPE = new TypeToken<BitsoResponse<OrderBook>>() {
+	}.getType();
+
+	@Test
+	public void testSameAsGson() throws IOException {
+
+		String json = load("/json/large_order_book.json");
+
+		BitsoResponse<OrderBook> expected = new Gson().fromJson(json, ORDER_BOOK_TYPE);
+		BitsoResponse<OrderBook> actual = OrderBookParser.readOrderBookResponse(new JsonScanner().reset(json));
+
+		assertTrue(actual.getSuccess());
+		assertEquals(expected.getPayload().getSequence(), actual.getPayload().getSequence());
+		assertEquals(expected.getPayload().getUpdated_at(), actual.getPayload().getUpdated_at());
+		assertItems(expected.getPayload().getAsks(), actual.getPayload().getAsks());
+		assertItems(expected.getPayload().getBids(), actual.getPayload().getBids());
+	}
+
+	@Test
+	public void testErrorResponse() {
+
+		BitsoResponse<OrderBook> response = OrderBookParser.readOrderBookResponse(new JsonScanner()
+				.reset("{\"success\":false,\"error\":{\"code\":\"0301\",\"message\":\"Unknown book\"}}"));
+
+		assertEquals(false, response.getSuccess());
+		assertNull(response.getPayload());
+	}
+
+	private static void assertItems(List<OrderBookItem> expected, List<OrderBookItem> actual) {
+
+		assertTrue(actual instanceof OrderBookItems);
+		OrderBookItems items = (OrderBookItems) actual;
+
+		assertEquals(expected.size(), items.size());
+
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getOid(), items.getOid(i));
+			assertEquals(expected.get(i).getPrice(), items.getPrice(i));
+			assertEquals(expected.get(i).getAmount(), items.getAmount(i));
+		}
+	}
+
+	private String load(String resource) throws IOException {
+
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(getClass().getResourceAsStream(resource), StandardCharsets.UTF_8))) {
+			return reader.lines().collect(Collectors.joining("\n"));
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package com.sonartrading.challenge.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.Test;
+
+import com.sonartrading.challenge.data.model.FixedPoint;
+import com.sonartrading.challenge.data.model.MakerSide;
+import com.sonartrading.challenge.data.model.Trade;
+
+public class TradesParserTest {
+
+	private final JsonScanner scanner = new JsonScanner();
+
+	@Test
+	public void testReadTrades() {
+
+		scanner.reset("[{\"i\":1234567,\"a\":\"0.0125\",\"r\":\"68700.00\",\"v\":\"858.75\",\"mo\":\"XnWWeF3x3iEBDhu5\","
+				+ "\"to\":\"CnWWeF3x3iEBDhu5\",\"t\":0,\"x\":1544138431634}, {\"i\":1234568,\"a\":0.5,\"r\":68701,\"t\":1}]");
+
+		Trade[] trades = TradesParser.readTrades(scanner);
+
+		assertEquals(2, trades.length);
+
+		assertEquals(Long.valueOf(1234567), trades[0].getTradeID());
+		assertEquals(MakerSide.BUY, trades[0].getMakerSide());
+		assertEquals(1_250_000, trades[0].getAmount());
+		assertEquals(68700 * FixedPoint.SCALE, trades[0].getPrice());
+		assertEquals(1544138431634l, trades[0].getDate().toInstant().toEpochMilli());
+
+		assertEquals(MakerSide.SELL, trades[1].getMakerSide());
+		assertEquals(FixedPoint.parse("0.5"), trades[1].getAmount());
+		assertEquals(68701 * FixedPoint.SCALE, trades[1].getPrice());
+		assertNotNull(trades[1].getDate());
+	}
+
+	@Test
+	public void testReadEmptyTrades() {
+		assertEquals(0, TradesParser.readTrades(scanner.reset("[]")).length);
+	}
+}
@@ -0,0 +1,138 @@
+package com.sonartrading.challenge.sequencer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class EventLoopTest {
+
+	private static final int DEFAULT_AWAIT_TIME = 4000;
+
+	// small ring, so the publishers have to wait for the consumer
+	private final EventLoop eventLoop = new EventLoop("test", 16);
+
+	@After
+	public void tearDown() {
+		eventLoop.close();
+	}
+
+	@Test
+	public void testEventsOfEachPublisherInOrder() throws InterruptedException {
+
+		int publishers = 4;
+		int events = 10_000;
+
+		List<Long> received = new ArrayList<>();
+		AtomicInteger outOfLoop = new AtomicInteger();
+		CountDownLatch lock = new CountDownLatch(publishers * events);
+
+		// the handler only records, the checks are done by the test thread
+		EventHandler handler = (payload, sequence) -> {
+			if (!eventLoop.inEventLoop()) {
+				outOfLoop.incrementAndGet();
+			}
+			received.add(sequence);
+			lock.countDown();
+		};
+
+		for (int p = 0; p < publishers; p++) {
+			long publisher = p;
+			new Thread(() -> {
+				for (long i = 0; i < events; i++) {
+					eventLoop.publish(handler, null, publisher * events + i);
+				}
+			}).start();
+		}
+
+		assertTrue(lock.await(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS));
+		assertEquals(0, outOfLoop.get());
+
+		long[] lastByPublisher = new long[publishers];
+		for (long sequence : received) {
+			int publisher = (int) (sequence / events);
+			assertTrue(sequence >= lastByPublisher[publisher]);
+			lastByPublisher[publisher] = sequence;
+		}
+		assertEquals(publishers * events, received.size());
+	}
+
+	@Test
+	public void testEndOfBatch() throws InterruptedException {
+
+		CountDownLatch lock = new CountDownLatch(1);
+
+		eventLoop.publish(new EventHandler() {
+
+			@Override
+			public void onEvent(Object payload, long sequence) {
+				// nothing to do
+			}
+
+			@Override
+			public void onEndOfBatch() {
+				lock.countDown();
+			}
+		}, null, 0);
+
+		assertTrue(lock.await(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testErrorOfHandler() throws InterruptedException {
+
+		CountDownLatch lock = new CountDownLatch(1);
+
+		eventLoop.publish((payload, sequence) -> {
+			throw new AssertionError("Failed in the handler");
+		}, null, 0);
+		eventLoop.publish(new EventHandler() {
+
+			@Override
+			public void onEvent(Object payload, long sequence) {
+				throw new IllegalStateException("Failed in the handler");
+			}
+
+			@Override
+			public void onEndOfBatch() {
+				throw new StackOverflowError();
+			}
+		}, null, 1);
+
+		// the loop is still running
+		eventLoop.publish((payload, sequence) -> lock.countDown(), null, 2);
+
+		assertTrue(lock.await(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testAwaitTermination() throws InterruptedException {
+
+		CountDownLatch started = new CountDownLatch(1);
+		AtomicInteger handled = new AtomicInteger();
+
+		eventLoop.publish((payload, sequence) -> {
+			started.countDown();
+			try {
+				TimeUnit.MILLISECONDS.sleep(200);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			handled.incrementAndGet();
+		}, null, 0);
+
+		assertTrue(started.await(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS));
+		eventLoop.close();
+
+		// the event being handled ends before the thread
+		assertTrue(eventLoop.awaitTermination(DEFAULT_AWAIT_TIME, TimeUnit.MILLISECONDS));
+		assertEquals(1, handled.get());
+	}
+}
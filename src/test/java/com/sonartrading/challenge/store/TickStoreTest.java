@@ -0,0 +1,160 @@
+package com.sonartrading.challenge.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sonartrading.challenge.exception.InitializationException;
+
+public class TickStoreTest {
+
+	private static final int DEFAULT_AWAIT_TIME = 2000;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testRollingSegments() throws IOException {
+
+		Path directory = folder.newFolder().toPath();
+
+		try (TickStore tickStore = new TickStore(directory, "btc_mxn-trades", 4)) {
+			for (long sequence = 1; sequence <= 10; sequence++) {
+				tickStore.append(sequence, sequence * 1000, TickStore.BUY, sequence * 100, 1);
+			}
+
+			assertEquals(3, tickStore.getNumOfSegments());
+			assertEquals(10, tickStore.size());
+
+			List<Long> sequences = new ArrayList<>();
+			assertEquals(4, tickStore.scanBySequence(3, 6, (s, t, side, p, a) -> sequences.add(s)));
+			assertEquals(5, tickStore.scanByTimestamp(6000, 20000, (s, t, side, p, a) -> sequences.add(p)));
+			assertEquals(list(3, 4, 5, 6, 600, 700, 800, 900, 1000), sequences);
+		}
+
+		// the ticks are kept when the store is opened again
+		try (TickStore tickStore = new TickStore(directory, "btc_mxn-trades", 4)) {
+			tickStore.append(11, 11000, TickStore.SELL, 1100, 1);
+
+			assertEquals(3, tickStore.getNumOfSegments());
+			assertEquals(11, tickStore.size());
+
+			List<Long> sides = new ArrayList<>();
+			tickStore.scanBySequence(10, 11, (s, t, side, p, a) -> sides.add((long) side));
+			assertEquals(list(TickStore.BUY, TickStore.SELL), sides);
+		}
+	}
+
+	@Test
+	public void testNextSegmentAllocatedAhead() throws IOException {
+
+		Path directory = folder.newFolder().toPath();
+
+		try (TickStore tickStore = new TickStore(directory, "btc_mxn-trades", 4)) {
+
+			tickStore.append(1, 1000, TickStore.BUY, 100, 1);
+			assertEquals(1, segmentFiles(directory));
+
+			// half full, the next segment is created before the roll
+			tickStore.append(2, 2000, TickStore.BUY, 200, 1);
+			waitForSegmentFiles(directory, 2);
+			assertEquals(1, tickStore.getNumOfSegments());
+
+			for (long sequence = 3; sequence <= 5; sequence++) {
+				tickStore.append(sequence, sequence * 1000, TickStore.BUY, sequence * 100, 1);
+			}
+			assertEquals(2, tickStore.getNumOfSegments());
+			assertEquals(5, tickStore.size());
+		}
+
+		// the next segment was not used, it is deleted when closed
+		assertEquals(2, segmentFiles(directory));
+	}
+
+	@Test
+	public void testOpenReadOnly() throws IOException {
+
+		Path directory = folder.newFolder().toPath();
+
+		try (TickStore tickStore = new TickStore(directory, "btc_mxn-trades", 4)) {
+			tickStore.append(1, 1000, TickStore.BUY, 100, 1);
+		}
+
+		try (TickStore tickStore = TickStore.openReadOnly(directory, "btc_mxn-trades")) {
+			assertEquals(1, tickStore.size());
+			tickStore.append(2, 2000, TickStore.BUY, 200, 1);
+			fail("A read-only store can not be appended");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		// a store that does not exist is not created
+		try {
+			TickStore.openReadOnly(directory, "btc_mxm-trades");
+			fail("The store does not exist");
+		} catch (InitializationException e) {
+			assertEquals(1, segmentFiles(directory));
+		}
+
+		Path missing = directory.resolve("missing");
+		try {
+			TickStore.openReadOnly(missing, "btc_mxn-trades");
+			fail("The directory does not exist");
+		} catch (InitializationException e) {
+			assertFalse(Files.exists(missing));
+		}
+	}
+
+	@Test
+	public void testUnsortedTicks() throws IOException {
+
+		try (TickStore tickStore = new TickStore(folder.newFolder().toPath(), "btc_mxn-trades", 8)) {
+
+			// a backfilled trade is stored after newer ones
+			tickStore.append(1, 1000, TickStore.BUY, 100, 1);
+			tickStore.append(3, 3000, TickStore.BUY, 300, 1);
+			tickStore.append(2, 2000, TickStore.BUY, 200, 1);
+
+			List<Long> sequences = new ArrayList<>();
+			assertEquals(2, tickStore.scanBySequence(2, 3, (s, t, side, p, a) -> sequences.add(s)));
+			assertEquals(list(3, 2), sequences);
+		}
+	}
+
+	private static long segmentFiles(Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.count();
+		}
+	}
+
+	private static void waitForSegmentFiles(Path directory, long expected) throws IOException {
+
+		long deadline = System.currentTimeMillis() + DEFAULT_AWAIT_TIME;
+		while (segmentFiles(directory) < expected && System.currentTimeMillis() < deadline) {
+			Thread.yield();
+		}
+
+		assertEquals(expected, segmentFiles(directory));
+	}
+
+	private static List<Long> list(long... values) {
+
+		List<Long> list = new ArrayList<>();
+		for (long value : values) {
+			list.add(value);
+		}
+
+		return list;
+	}
+}
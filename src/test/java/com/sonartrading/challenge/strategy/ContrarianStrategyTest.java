@@ -1,21 +1,38 @@
 package com.sonartrading.challenge.strategy;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
 
+import com.sonartrading.challenge.api.RestAPI;
+import com.sonartrading.challenge.api.dto.BitsoResponse;
+import com.sonartrading.challenge.api.dto.TradeBook;
+import com.sonartrading.challenge.data.TradesManager;
+import com.sonartrading.challenge.data.model.FixedPoint;
 import com.sonartrading.challenge.data.model.MakerSide;
 import com.sonartrading.challenge.data.model.Trade;
 import com.sonartrading.challenge.data.observer.TradesObserver.ObserverType;
+import com.sonartrading.challenge.ws.WebsocketClient;
+import com.sonartrading.challenge.ws.dto.WebsocketMessage;
 
 import javafx.embed.swing.JFXPanel;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
 
 public class ContrarianStrategyTest {
 
@@ -34,8 +51,8 @@ public class ContrarianStrategyTest {
 		generateImaginaryTrade(Arrays.asList(trade(3), trade(2), trade(1), trade(0)));
 
 		assertEquals(MakerSide.BUY, imaginaryTrade.getMakerSide());
-		assertEquals(new Double(1), imaginaryTrade.getAmount());
-		assertEquals(new Double(3), imaginaryTrade.getPrice());
+		assertEquals(FixedPoint.of(1), imaginaryTrade.getAmount());
+		assertEquals(FixedPoint.of(3), imaginaryTrade.getPrice());
 	}
 
 	@Test
@@ -43,8 +60,73 @@ public class ContrarianStrategyTest {
 		generateImaginaryTrade(Arrays.asList(trade(0), trade(1), trade(2), trade(3)));
 
 		assertEquals(MakerSide.SELL, imaginaryTrade.getMakerSide());
-		assertEquals(new Double(1), imaginaryTrade.getAmount());
-		assertEquals(new Double(0), imaginaryTrade.getPrice());
+		assertEquals(FixedPoint.of(1), imaginaryTrade.getAmount());
+		assertEquals(FixedPoint.of(0), imaginaryTrade.getPrice());
+	}
+
+	@Test
+	public void testEngineTradesAtTradePrice() {
+
+		BlockingQueue<Trade> imaginaryTrades = new ArrayBlockingQueue<>(1);
+		contrarianStrategy.addImaginaryTradesObserver(imaginaryTrades::add);
+
+		// the top of the book does not change the price, as in the backtests
+		contrarianStrategy.onBookTop("btc_mxn", 1, 100, 1, 200, 1);
+		for (int i = 0; i < 4; i++) {
+			contrarianStrategy.onTrade("btc_mxn", i, 0, MakerSide.BUY, 150 + i, 1);
+		}
+
+		Trade imaginaryTrade = imaginaryTrades.poll();
+		assertEquals(MakerSide.BUY, imaginaryTrade.getMakerSide());
+		assertEquals(FixedPoint.of(153), imaginaryTrade.getPrice());
+	}
+
+	@Test
+	public void testTradesAlreadyProcessed() {
+
+		// two upticks, the trades of the window are received again with a new one
+		contrarianStrategy.tradesUpdated(Arrays.asList(trade(3, 3), trade(2, 2), trade(1, 1)));
+		generateImaginaryTrade(Arrays.asList(trade(4, 4), trade(3, 3), trade(2, 2)));
+
+		assertEquals(MakerSide.BUY, imaginaryTrade.getMakerSide());
+		assertEquals(FixedPoint.of(4), imaginaryTrade.getPrice());
+	}
+
+	@Test
+	public void testTradesBackfilledAfterGap() throws InterruptedException {
+
+		RestAPI restAPI = Mockito.mock(RestAPI.class);
+		BlockingQueue<Callback<BitsoResponse<List<TradeBook>>>> backfills = new ArrayBlockingQueue<>(1);
+		@SuppressWarnings("unchecked")
+		Call<BitsoResponse<List<TradeBook>>> backfillCall = Mockito.mock(Call.class);
+		Mockito.doAnswer(i -> backfills.add(i.getArgument(0))).when(backfillCall).enqueue(Mockito.any());
+		Mockito.when(restAPI.getTrades(Mockito.any(), Mockito.eq(2l), Mockito.any(), Mockito.any()))
+				.thenReturn(backfillCall);
+
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		TradesManager tradesManager = new TradesManager("btc_mxn", restAPI, Mockito.mock(WebsocketClient.class),
+				executorService, executorService);
+		tradesManager.addMarketObserver(contrarianStrategy);
+
+		BlockingQueue<Trade> imaginaryTrades = new ArrayBlockingQueue<>(4);
+		contrarianStrategy.addImaginaryTradesObserver(imaginaryTrades::add);
+
+		// three upticks, the second one is lost with the message 12
+		tradesManager.handleMessage(new WebsocketMessage<>(null, null, 10l, new Trade[] { trade(1, 1) }));
+		tradesManager.handleMessage(new WebsocketMessage<>(null, null, 11l, new Trade[] { trade(2, 2) }));
+		tradesManager.handleMessage(new WebsocketMessage<>(null, null, 13l, new Trade[] { trade(4, 4) }));
+
+		// the lost trade is backfilled after the newer one was received
+		backfills.poll(2000, TimeUnit.MILLISECONDS).onResponse(backfillCall,
+				Response.success(new BitsoResponse<>(true, Arrays.asList(tradeBook(3, 3)))));
+
+		Trade imaginaryTrade = imaginaryTrades.poll(2000, TimeUnit.MILLISECONDS);
+		assertEquals(MakerSide.BUY, imaginaryTrade.getMakerSide());
+		assertEquals(FixedPoint.of(4), imaginaryTrade.getPrice());
+
+		executorService.shutdown();
+		assertTrue(executorService.awaitTermination(2000, TimeUnit.MILLISECONDS));
+		assertTrue(imaginaryTrades.isEmpty());
 	}
 
 	@Test
@@ -75,7 +157,22 @@ public class ContrarianStrategyTest {
 	}
 
 	private Trade trade(double value) {
-		return new Trade(0l, MakerSide.BUY, null, 1.0, value);
+		return trade(0l, value);
+	}
+
+	private Trade trade(long tradeID, double value) {
+		return new Trade(tradeID, MakerSide.BUY, OffsetDateTime.now(), FixedPoint.of(1), FixedPoint.of(value));
+	}
+
+	private TradeBook tradeBook(long tradeID, double value) {
+
+		TradeBook tradeBook = new TradeBook();
+		tradeBook.setTid(tradeID);
+		tradeBook.setMarkerSide("buy");
+		tradeBook.setCreated_at("2018-12-06T23:20:31+0000");
+		tradeBook.setAmount(FixedPoint.of(1));
+		tradeBook.setPrice(FixedPoint.of(value));
+		return tradeBook;
 	}
 
 	@SuppressWarnings("unused")
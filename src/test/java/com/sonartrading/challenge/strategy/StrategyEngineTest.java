@@ -0,0 +1,156 @@
+package com.sonartrading.challenge.strategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.sonartrading.challenge.data.model.MakerSide;
+import com.sonartrading.challenge.sequencer.EventLoop;
+
+public class StrategyEngineTest {
+
+	private static final int EVENTS = 100;
+
+	private final StrategyEngine strategyEngine = new StrategyEngine();
+	private final EventLoop slowEventLoop = new EventLoop("slow-strategy", 4);
+
+	@After
+	public void tearDown() {
+		strategyEngine.close();
+		slowEventLoop.close();
+	}
+
+	@Test
+	public void testSlowStrategyIsolated() throws InterruptedException {
+
+		CountDownLatch trades = new CountDownLatch(EVENTS);
+		CountDownLatch release = new CountDownLatch(1);
+
+		strategyEngine.addStrategy(new Strategy() {
+
+			@Override
+			public void onTrade(String book, long tradeID, long timestamp, MakerSide makerSide, double price,
+					double amount) {
+				trades.countDown();
+			}
+		});
+
+		strategyEngine.addStrategy(new Strategy() {
+
+			@Override
+			public void onTrade(String book, long tradeID, long timestamp, MakerSide makerSide, double price,
+					double amount) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, slowEventLoop);
+
+		for (int i = 0; i < EVENTS; i++) {
+			strategyEngine.onTrade("btc_mxn", i, 0, MakerSide.BUY, 1, 1);
+		}
+
+		// the fast strategy gets all the trades while the slow one is blocked
+		assertTrue(trades.await(1, TimeUnit.SECONDS));
+		release.countDown();
+
+		// the stats are updated after the callback
+		long timeout = System.currentTimeMillis() + 1000;
+		while (strategyEngine.getStats().get(0).getEvents() < EVENTS && System.currentTimeMillis() < timeout) {
+			TimeUnit.MILLISECONDS.sleep(1);
+		}
+
+		StrategyStats fast = strategyEngine.getStats().get(0);
+		assertEquals(EVENTS, fast.getEvents());
+		assertEquals(0, fast.getDropped());
+
+		StrategyStats slow = strategyEngine.getStats().get(1);
+		assertTrue(slow.getDropped() > 0);
+	}
+
+	@Test
+	public void testEventsOnlyToSubscribers() throws InterruptedException {
+
+		CountDownLatch trades = new CountDownLatch(1);
+
+		strategyEngine.addStrategy(new Strategy() {
+
+			@Override
+			public void onTrade(String book, long tradeID, long timestamp, MakerSide makerSide, double price,
+					double amount) {
+				trades.countDown();
+			}
+		});
+
+		for (int i = 0; i < EVENTS; i++) {
+			strategyEngine.onDiff("btc_mxn", i, 0, MakerSide.SELL, 1, 1);
+			strategyEngine.onBookTop("btc_mxn", i, 1, 1, 2, 1);
+		}
+		strategyEngine.onTrade("btc_mxn", 1, 0, MakerSide.BUY, 1, 1);
+
+		assertTrue(trades.await(1, TimeUnit.SECONDS));
+
+		// the stats are updated after the callback
+		long timeout = System.currentTimeMillis() + 1000;
+		while (strategyEngine.getStats().get(0).getEvents() < 1 && System.currentTimeMillis() < timeout) {
+			TimeUnit.MILLISECONDS.sleep(1);
+		}
+
+		// the diff-orders and the tops of the book are not published to it
+		StrategyStats stats = strategyEngine.getStats().get(0);
+		assertEquals(1, stats.getEvents());
+		assertEquals(0, stats.getDropped());
+	}
+
+	@Test
+	public void testEventLoopsSharedByBooks() throws InterruptedException {
+
+		Map<String, Thread> threads = new ConcurrentHashMap<>();
+		CountDownLatch trades = new CountDownLatch(2);
+
+		try (StrategyEventLoops eventLoops = new StrategyEventLoops()) {
+
+			StrategyEngine btcEngine = new StrategyEngine(eventLoops);
+			StrategyEngine ethEngine = new StrategyEngine(eventLoops);
+
+			for (StrategyEngine engine : Arrays.asList(btcEngine, ethEngine)) {
+				engine.addStrategy(new Strategy() {
+
+					@Override
+					public void onTrade(String book, long tradeID, long timestamp, MakerSide makerSide, double price,
+							double amount) {
+						threads.put(book, Thread.currentThread());
+						trades.countDown();
+					}
+
+					@Override
+					public String getName() {
+						return "shared";
+					}
+				});
+			}
+
+			btcEngine.onTrade("btc_mxn", 1, 0, MakerSide.BUY, 1, 1);
+			ethEngine.onTrade("eth_mxn", 1, 0, MakerSide.BUY, 1, 1);
+			assertTrue(trades.await(1, TimeUnit.SECONDS));
+
+			// the same strategy of both books is run by one thread
+			assertSame(threads.get("btc_mxn"), threads.get("eth_mxn"));
+			assertEquals("strategy-shared", threads.get("btc_mxn").getName());
+
+			btcEngine.close();
+			ethEngine.close();
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.sonartrading.challenge.view;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.sonartrading.challenge.data.model.MakerSide;
+import com.sonartrading.challenge.data.model.Order;
+
+import javafx.collections.ListChangeListener.Change;
+
+public class ConflatedRowsTest {
+
+	private final ConflatedRows<Order> rows = new ConflatedRows<>();
+
+	private final Order first = new Order("1", MakerSide.BUY, 1, 10);
+	private final Order second = new Order("2", MakerSide.BUY, 1, 9);
+	private final Order third = new Order("3", MakerSide.BUY, 1, 8);
+
+	@Test
+	public void testLastRowsApplied() {
+
+		rows.setRows(Arrays.asList(first));
+		rows.setRows(Arrays.asList(first, third));
+		rows.setRows(Arrays.asList(first, second, third));
+
+		assertTrue(rows.apply());
+		assertEquals(Arrays.asList(first, second, third), rows.getItems());
+
+		// nothing pending
+		assertFalse(rows.apply());
+	}
+
+	@Test
+	public void testOnlyChangedRowsReplaced() {
+
+		rows.setRows(Arrays.asList(first, second, third));
+		rows.apply();
+
+		List<Integer> replaced = new ArrayList<>();
+		rows.getItems().addListener((Change<? extends Order> c) -> {
+			while (c.next()) {
+				if (c.wasReplaced()) {
+					replaced.add(c.getFrom());
+				}
+			}
+		});
+
+		// the amount of the third order is updated twice before the next frame
+		third.update(2, 8);
+		rows.rowChanged(third);
+		third.update(3, 8);
+		rows.rowChanged(third);
+		rows.setRows(Arrays.asList(first, second, third));
+
+		assertTrue(rows.apply());
+		assertEquals(Arrays.asList(2), replaced);
+		assertSame(third, rows.getItems().get(2));
+	}
+
+	@Test
+	public void testDeltasAppliedInOrder() {
+
+		rows.setRows(Arrays.asList(first, third));
+		rows.apply();
+
+		rows.insertRow(1, second);
+		rows.removeRow(0, first);
+		rows.insertRow(2, first);
+
+		assertTrue(rows.apply());
+		assertEquals(Arrays.asList(second, third, first), rows.getItems());
+	}
+
+	@Test
+	public void testRemovedRows() {
+
+		rows.setRows(Arrays.asList(first, second, third));
+		rows.apply();
+
+		rows.setRows(Arrays.asList(second));
+		rows.apply();
+
+		assertEquals(Arrays.asList(second), rows.getItems());
+	}
+}
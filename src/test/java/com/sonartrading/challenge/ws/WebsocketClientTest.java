@@ -0,0 +1,141 @@
+package com.sonartrading.challenge.ws;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import com.neovisionaries.ws.client.WebSocket;
+import com.sonartrading.challenge.ws.handler.WebsocketHandler;
+
+public class WebsocketClientTest {
+
+	private static final int SAMPLES = 1000;
+	private static final int DEFAULT_AWAIT_TIME = 5000;
+
+	private static final String BTC_DIFF_ORDERS = "{\"action\":\"subscribe\",\"book\":\"btc_mxn\",\"type\":\"diff-orders\"}";
+	private static final String BTC_TRADES = "{\"action\":\"subscribe\",\"book\":\"btc_mxn\",\"type\":\"trades\"}";
+	private static final String ETH_DIFF_ORDERS = "{\"action\":\"subscribe\",\"book\":\"eth_mxn\",\"type\":\"diff-orders\"}";
+
+	// the connections opened one after the other
+	private final WebSocket websocket = Mockito.mock(WebSocket.class);
+	private final WebSocket reconnected = Mockito.mock(WebSocket.class);
+	private final WebSocket reconnectedAgain = Mockito.mock(WebSocket.class);
+
+	private final WebsocketHandler<?> btcDiffOrders = Mockito.mock(WebsocketHandler.class);
+	private final WebsocketHandler<?> btcTrades = Mockito.mock(WebsocketHandler.class);
+	private final WebsocketHandler<?> ethDiffOrders = Mockito.mock(WebsocketHandler.class);
+
+	private WebsocketClient websocketClient;
+
+	@Before
+	public void setUp() throws Exception {
+
+		Mockito.when(websocket.addListener(ArgumentMatchers.any())).thenReturn(websocket);
+		Mockito.when(websocket.connect()).thenReturn(websocket);
+		Mockito.when(websocket.isOpen()).thenReturn(true);
+
+		// the first attempt to reconnect fails, the second one opens it
+		Mockito.when(websocket.recreate()).thenThrow(new IOException("Connection refused")).thenReturn(reconnected);
+		Mockito.when(reconnected.connect()).thenReturn(reconnected);
+		Mockito.when(reconnected.recreate()).thenReturn(reconnectedAgain);
+		Mockito.when(reconnectedAgain.connect()).thenReturn(reconnectedAgain);
+
+		websocketClient = new WebsocketClient(websocket);
+	}
+
+	@After
+	public void tearDown() {
+		websocketClient.close();
+	}
+
+	@Test
+	public void testBackoffBounds() {
+
+		for (int i = 0; i < SAMPLES; i++) {
+			long delay = WebsocketClient.getBackoffMillis(0);
+			assertTrue(delay >= WebsocketClient.MIN_BACKOFF_MILLIS / 2 && delay <= WebsocketClient.MIN_BACKOFF_MILLIS);
+		}
+
+		// doubled on every attempt up to the max, without overflow
+		for (int attempt = 1; attempt < 100; attempt++) {
+
+			long max = attempt < 9 ? WebsocketClient.MIN_BACKOFF_MILLIS << attempt
+					: WebsocketClient.MAX_BACKOFF_MILLIS;
+			long delay = WebsocketClient.getBackoffMillis(attempt);
+
+			assertTrue(delay >= max / 2 && delay <= max);
+		}
+
+		for (int i = 0; i < SAMPLES; i++) {
+			long delay = WebsocketClient.getBackoffMillis(Integer.MAX_VALUE);
+			assertTrue(delay >= WebsocketClient.MAX_BACKOFF_MILLIS / 2 && delay <= WebsocketClient.MAX_BACKOFF_MILLIS);
+		}
+	}
+
+	@Test
+	public void testReconnect() throws Exception {
+
+		websocketClient.addHandler("btc_mxn", "diff-orders", btcDiffOrders);
+		websocketClient.addHandler("btc_mxn", "trades", btcTrades);
+		websocketClient.addHandler("eth_mxn", "diff-orders", ethDiffOrders);
+
+		Mockito.verify(websocket).sendText(BTC_DIFF_ORDERS);
+		Mockito.verify(websocket).sendText(BTC_TRADES);
+		Mockito.verify(websocket).sendText(ETH_DIFF_ORDERS);
+
+		// the handlers are told before every subscription is sent again
+		websocketClient.onDisconnected(websocket, null, null, true);
+
+		Mockito.verify(reconnected, Mockito.timeout(DEFAULT_AWAIT_TIME).times(3)).sendText(ArgumentMatchers.anyString());
+
+		for (WebsocketHandler<?> handler : Arrays.asList(btcDiffOrders, btcTrades, ethDiffOrders)) {
+			InOrder inOrder = Mockito.inOrder(handler, reconnected);
+			inOrder.verify(handler).onReconnect();
+			inOrder.verify(reconnected, Mockito.times(3)).sendText(ArgumentMatchers.anyString());
+		}
+
+		Mockito.verify(websocket, Mockito.times(2)).recreate();
+		Mockito.verify(reconnected).sendText(BTC_DIFF_ORDERS);
+		Mockito.verify(reconnected).sendText(BTC_TRADES);
+		Mockito.verify(reconnected).sendText(ETH_DIFF_ORDERS);
+		Mockito.verify(reconnected, Mockito.times(3)).sendText(ArgumentMatchers.anyString());
+		assertEquals(1, websocketClient.getReconnects());
+
+		// once again by every reconnection
+		websocketClient.onDisconnected(reconnected, null, null, true);
+
+		Mockito.verify(reconnectedAgain, Mockito.timeout(DEFAULT_AWAIT_TIME).times(3))
+				.sendText(ArgumentMatchers.anyString());
+		Mockito.verify(btcDiffOrders, Mockito.times(2)).onReconnect();
+		Mockito.verify(btcTrades, Mockito.times(2)).onReconnect();
+		Mockito.verify(ethDiffOrders, Mockito.times(2)).onReconnect();
+
+		Mockito.verify(reconnectedAgain).sendText(BTC_DIFF_ORDERS);
+		Mockito.verify(reconnectedAgain).sendText(BTC_TRADES);
+		Mockito.verify(reconnectedAgain).sendText(ETH_DIFF_ORDERS);
+		Mockito.verify(reconnectedAgain, Mockito.times(3)).sendText(ArgumentMatchers.anyString());
+		assertEquals(2, websocketClient.getReconnects());
+	}
+
+	@Test
+	public void testNoReconnectWhenClosed() throws Exception {
+
+		websocketClient.addHandler("btc_mxn", "diff-orders", btcDiffOrders);
+
+		websocketClient.close();
+		websocketClient.onDisconnected(websocket, null, null, false);
+
+		Mockito.verify(websocket, Mockito.after(500).never()).recreate();
+		Mockito.verify(btcDiffOrders, Mockito.never()).onReconnect();
+		assertEquals(0, websocketClient.getReconnects());
+	}
+}